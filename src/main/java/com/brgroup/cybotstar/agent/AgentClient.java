@@ -2,7 +2,9 @@ package com.brgroup.cybotstar.agent;
 
 import com.brgroup.cybotstar.agent.config.AgentConfig;
 import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.agent.model.request.MessageParamList;
 import com.brgroup.cybotstar.core.connection.ConnectionManager;
+import com.brgroup.cybotstar.core.connection.InFlightRequest;
 import com.brgroup.cybotstar.agent.exception.AgentException;
 import com.brgroup.cybotstar.agent.session.SessionContext;
 import com.brgroup.cybotstar.agent.session.SessionContextManager;
@@ -14,18 +16,24 @@ import com.brgroup.cybotstar.core.model.ws.WSPayload;
 import com.brgroup.cybotstar.core.util.CybotStarConstants;
 import com.brgroup.cybotstar.core.util.CybotStarUtils;
 import com.brgroup.cybotstar.core.util.payload.PayloadBuilder;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.SmartLifecycle;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
@@ -36,7 +44,7 @@ import java.util.function.Consumer;
  * @author zhiyuan.xi
  */
 @Slf4j
-public class AgentClient implements DisposableBean {
+public class AgentClient implements InitializingBean, DisposableBean, SmartLifecycle {
 
     @NonNull
     private final AgentConfig config;
@@ -47,6 +55,9 @@ public class AgentClient implements DisposableBean {
     @NonNull
     private final SessionContextManager sessionManager;
 
+    // 请求载荷模板（凭证预先编码）
+    private final PayloadTemplate payloadTemplate;
+
     // 使用 ThreadLocal 支持并发调用
     private final ThreadLocal<RequestBuilder> requestBuilderHolder = ThreadLocal.withInitial(RequestBuilder::new);
     private final ThreadLocal<String> threadLocalSessionId = new ThreadLocal<>();
@@ -55,6 +66,12 @@ public class AgentClient implements DisposableBean {
     @Nullable
     private volatile String defaultSessionId;
 
+    // 进行中的流式请求数（优雅停机时等待其结束）
+    private final AtomicInteger inFlightStreams = new AtomicInteger(0);
+
+    // 生命周期状态
+    private volatile boolean running;
+
     // 事件回调（保留用于兼容性）
     @Nullable
     private volatile Consumer<String> reasoningCallback;
@@ -69,6 +86,7 @@ public class AgentClient implements DisposableBean {
         this.config = config;
         this.connectionManager = new ConnectionManager(config);
         this.sessionManager = new SessionContextManager(connectionManager);
+        this.payloadTemplate = PayloadBuilder.buildTemplate(config);
         log.debug("ReactiveAgentClient initialized, URL: {}", config.getWebsocket().getUrl());
     }
 
@@ -204,11 +222,15 @@ public class AgentClient implements DisposableBean {
 
         // 响应式合并选项并发送请求
         return mergeOptionsReactive(sessionId, options, question)
-                .flatMapMany(mergedOptions -> sessionManager.getContext(sessionId)
+                .flatMapMany(mergedOptions -> Flux.defer(() -> {
+                    // 在途请求的登记与整个订阅绑定：完成、出错或任一阶段被取消时都会注销
+                    AtomicReference<Runnable> unregister = new AtomicReference<>();
+                    AtomicBoolean finished = new AtomicBoolean(false);
+                    return sessionManager.getContext(sessionId)
                         // 确保连接已建立
                         .flatMap(context -> context.getConnection().ensureConnected()
                                 .thenReturn(context))
-                        // 发送请求
+                        // 登记在途请求并发送（断线重连后自动重发）
                         .flatMap(context -> {
                             WSPayload payload = PayloadBuilder.buildPayload(config, question, sessionId, mergedOptions);
 
@@ -217,12 +239,23 @@ public class AgentClient implements DisposableBean {
                                 rawRequestCb.accept(payload);
                             }
 
-                            return context.getConnection().send(payload)
-                                    .thenReturn(context);
+                            InFlightRequest request = context.getConnection().register(sessionId, payload);
+                            unregister.set(() -> context.getConnection().unregister(request));
+                            if (finished.get()) {
+                                // 登记时订阅已结束（并发取消）
+                                context.getConnection().unregister(request);
+                            }
+                            return context.getConnection().send(payload, payloadTemplate)
+                                    .thenReturn(Tuples.of(context, request));
                         })
                         .publishOn(Schedulers.boundedElastic())
                         // 获取事件流并处理
-                        .flatMapMany(context -> {
+                        .flatMapMany(sent -> {
+                    final SessionContext context = sent.getT1();
+                    final InFlightRequest request = sent.getT2();
+                    // 计入连接所在服务端的未完成请求数（多地址负载均衡依据）
+                    context.getConnection().requestStarted(sessionId);
+
                     // 累积完整文本用于保存历史
                     final StringBuilder fullTextBuilder = new StringBuilder();
                     final String finalQuestion = question;
@@ -237,8 +270,8 @@ public class AgentClient implements DisposableBean {
                                 );
                     }
 
-                    // 使用事件流
-                    return context.eventStream()
+                    // 使用事件流（重发后已交付的片段按 index 去重）
+                    return context.eventStream(request)
                             // 处理 Reasoning 事件
                             .doOnNext(event -> {
                                 if (event.getType() == ReactiveMessageHandler.MessageEventType.REASONING
@@ -272,14 +305,23 @@ public class AgentClient implements DisposableBean {
                                             .then(Mono.empty());  // 返回空 Mono，不发送额外的元素
                                 }
                                 return Mono.empty();
-                            }));
+                            }))
+                            .doFinally(signal -> context.getConnection().requestCompleted(sessionId));
                         })
-                )
+                        .doFinally(signal -> {
+                            finished.set(true);
+                            Runnable release = unregister.getAndSet(null);
+                            if (release != null) {
+                                release.run();
+                            }
+                        });
+                }))
                 // 错误处理
                 .onErrorResume(error -> {
                     log.error("Stream error, sessionId: {}", sessionId, error);
                     return Flux.error(AgentException.wrap(error));
-                });
+                })
+                .transform(this::trackInFlight);
     }
 
     /**
@@ -296,6 +338,20 @@ public class AgentClient implements DisposableBean {
     // 辅助方法
     // ============================================================================
 
+    /**
+     * 统计在途流，停机期间拒绝新请求
+     */
+    @NonNull
+    private <T> Flux<T> trackInFlight(@NonNull Flux<T> stream) {
+        return Flux.defer(() -> {
+            if (connectionManager.isDraining()) {
+                return Flux.error(AgentException.shuttingDown());
+            }
+            inFlightStreams.incrementAndGet();
+            return stream.doFinally(signal -> inFlightStreams.decrementAndGet());
+        });
+    }
+
     /**
      * 获取当前有效的 session ID
      */
@@ -318,19 +374,18 @@ public class AgentClient implements DisposableBean {
         // 获取会话上下文的历史消息
         return sessionManager.getContext(sessionId)
                 .map(context -> {
-                    List<MessageParam> historyMessages = context.getHistory();
+                    // 历史消息带编码缓存，编码载荷时直接拼接，只序列化本轮新增的消息
+                    MessageParamList historyMessages = context.getEncodedHistory();
                     if (!historyMessages.isEmpty()) {
                         List<MessageParam> existingParams = finalOptions.getMessageParams();
 
-                        // 先添加历史消息
-                        List<MessageParam> finalParams = new ArrayList<>(historyMessages);
-
-                        // 再添加现有的 messageParams
+                        // 先添加历史消息，再添加现有的 messageParams
+                        MessageParamList finalParams;
                         if (existingParams != null && !existingParams.isEmpty()) {
-                            finalParams.addAll(existingParams);
+                            finalParams = historyMessages.append(existingParams);
                         } else {
                             // 如果没有现有的messageParams，添加当前问题作为新的user消息
-                            finalParams.add(MessageParam.user(currentQuestion));
+                            finalParams = historyMessages.append(List.of(MessageParam.user(currentQuestion)));
                         }
 
                         finalOptions.setMessageParams(finalParams);
@@ -372,8 +427,86 @@ public class AgentClient implements DisposableBean {
         sessionManager.removeContext(sessionId).subscribe();
     }
 
+    /**
+     * 预热连接（websocket.min-idle 大于 0 时生效，异步执行，不阻塞启动）
+     */
+    public void warmUp() {
+        connectionManager.warmUp().subscribe(
+                v -> log.debug("AgentClient connections warmed up"),
+                error -> log.warn("Failed to warm up AgentClient connections", error)
+        );
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        warmUp();
+    }
+
+    /**
+     * 优雅停机
+     * 拒绝新请求，等待进行中的流结束（最长 websocket.drain-timeout），然后关闭所有会话和连接
+     *
+     * @return 关闭完成后完成
+     */
+    @NonNull
+    public Mono<Void> drain() {
+        Long drainTimeout = config.getWebsocket().getDrainTimeout();
+        return connectionManager.drain(
+                        Duration.ofMillis(drainTimeout != null ? drainTimeout : CybotStarConstants.DEFAULT_DRAIN_TIMEOUT),
+                        inFlightStreams::get)
+                .then(sessionManager.removeAll())
+                .then(connectionManager.disconnectAll());
+    }
+
+    /**
+     * 获取进行中的流式请求数
+     */
+    public int getInFlightStreamCount() {
+        return inFlightStreams.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        drain().block();
+    }
+
+    @Override
+    public void stop(@NonNull Runnable callback) {
+        running = false;
+        drain().subscribe(
+                v -> {},
+                error -> {
+                    log.error("Error draining AgentClient", error);
+                    callback.run();
+                },
+                () -> {
+                    log.debug("AgentClient drained");
+                    callback.run();
+                });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 晚于 Web 服务器优雅停机执行，HTTP 请求中的流先自然结束
+     */
+    @Override
+    public int getPhase() {
+        return CybotStarConstants.LIFECYCLE_PHASE;
+    }
+
     /**
      * 关闭客户端
+     * 立即断开所有连接，进行中的流会被中断；需要等待进行中的流时使用 {@link #drain()}
      */
     public void close() {
         sessionManager.removeAll()
@@ -21,6 +21,11 @@ public enum AgentErrorCode {
      */
     CONNECTION_CLOSED,
 
+    /**
+     * 服务端不可用（熔断中）
+     */
+    ENDPOINT_UNAVAILABLE,
+
     /**
      * 发送失败
      */
@@ -51,6 +56,11 @@ public enum AgentErrorCode {
      */
     SESSION_ERROR,
 
+    /**
+     * 客户端正在停机
+     */
+    SHUTTING_DOWN,
+
     /**
      * 未知错误
      */
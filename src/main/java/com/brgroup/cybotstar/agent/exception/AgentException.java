@@ -69,6 +69,14 @@ public class AgentException extends RuntimeException {
         return new AgentException(AgentErrorCode.CONNECTION_TIMEOUT, String.format("WebSocket 连接超时 (%dms)", timeout));
     }
 
+    /**
+     * 创建服务端不可用异常（熔断器打开期间快速失败）
+     */
+    public static AgentException endpointUnavailable(String endpoint, long retryAfterMillis) {
+        return new AgentException(AgentErrorCode.ENDPOINT_UNAVAILABLE,
+                String.format("服务端暂不可用，%dms 后重试: %s", retryAfterMillis, endpoint), null, retryAfterMillis);
+    }
+
     /**
      * 创建发送失败异常
      */
@@ -97,6 +105,13 @@ public class AgentException extends RuntimeException {
         return new AgentException(AgentErrorCode.INVALID_RESPONSE, "收到无效的响应数据", null, response);
     }
 
+    /**
+     * 创建无效响应异常（带原始异常）
+     */
+    public static AgentException invalidResponse(String reason, Throwable originalError) {
+        return new AgentException(AgentErrorCode.INVALID_RESPONSE, reason, originalError);
+    }
+
     /**
      * 创建配置错误异常
      */
@@ -125,6 +140,13 @@ public class AgentException extends RuntimeException {
         return new AgentException(AgentErrorCode.SESSION_ERROR, reason);
     }
 
+    /**
+     * 创建停机异常（优雅停机期间拒绝新请求）
+     */
+    public static AgentException shuttingDown() {
+        return new AgentException(AgentErrorCode.SHUTTING_DOWN, "客户端正在停机，不再接受新请求");
+    }
+
     /**
      * 包装未知异常
      */
@@ -1,29 +1,42 @@
 package com.brgroup.cybotstar.agent.handler;
 
-import com.brgroup.cybotstar.core.model.common.ResponseIndex;
+import com.brgroup.cybotstar.core.codec.DecodedFrame;
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
 import com.brgroup.cybotstar.core.model.common.ResponseType;
 import com.brgroup.cybotstar.core.model.ws.WSResponse;
-import com.brgroup.cybotstar.core.model.ws.WSResponseData;
-import com.alibaba.fastjson2.JSON;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.util.context.Context;
 
-import java.util.Map;
-import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 
 /**
  * 响应式消息处理器
- * 使用 Flux 操作符处理消息流
+ * 使用 Flux 操作符处理消息流，每帧由一个同步阶段（{@link Flux#handle}）映射为事件
  *
  * @author zhiyuan.xi
  */
 @Slf4j
 public class ReactiveMessageHandler {
 
+    // 订阅上下文中帧过滤器的键
+    private static final String FRAME_FILTER = ReactiveMessageHandler.class.getName() + ".frameFilter";
+
+    // 事件映射阶段（无状态，所有流共用）；订阅上下文带有帧过滤器时，只转换其接受的帧
+    private final BiConsumer<InboundFrame, SynchronousSink<MessageEvent>> stage = (frame, sink) -> {
+        Predicate<InboundFrame> accept = sink.contextView().getOrDefault(FRAME_FILTER, null);
+        if (accept == null || accept.test(frame)) {
+            map(frame, sink);
+        }
+    };
+
     /**
      * 消息事件类型
      */
@@ -73,15 +86,28 @@ public class ReactiveMessageHandler {
      */
     @NonNull
     public Flux<MessageEvent> handle(@NonNull Flux<WSResponse> messages) {
-        return messages
-                // 过滤心跳消息
-                .filter(msg -> !ResponseType.isType(msg.getType(), ResponseType.HEARTBEAT))
-                // 处理特殊索引消息
-                .flatMap(this::handleSpecialIndex)
-                // 检查错误
-                .flatMap(this::checkError)
-                // 转换为事件
-                .flatMap(this::toMessageEvent);
+        return handleFrames(messages.map(InboundFrame::of));
+    }
+
+    /**
+     * 处理帧流，返回事件流
+     * 每帧在一个同步映射阶段内完成转换：快速路径读出的片段帧直接转换为事件，
+     * 其余帧只解码一次（{@link FrameDecoder}），不为每帧创建内部 Mono
+     */
+    @NonNull
+    public Flux<MessageEvent> handleFrames(@NonNull Flux<InboundFrame> frames) {
+        return frames.handle(stage);
+    }
+
+    /**
+     * 为已组装的事件流附加帧过滤器（如在途请求的去重）
+     * 过滤器经订阅上下文传给共用的映射阶段，过滤与映射在同一阶段内完成，不重新组装事件流
+     *
+     * @param events {@link #handleFrames(Flux)} 返回的事件流
+     */
+    @NonNull
+    public static Flux<MessageEvent> filtered(@NonNull Flux<MessageEvent> events, @NonNull Predicate<InboundFrame> accept) {
+        return events.contextWrite(Context.of(FRAME_FILTER, accept));
     }
 
     /**
@@ -107,155 +133,51 @@ public class ReactiveMessageHandler {
     }
 
     /**
-     * 处理特殊索引消息
+     * 帧转换为事件，心跳与控制帧（提问确认、线程信息）不产生事件，错误响应以错误结束流
      */
-    @NonNull
-    private Mono<WSResponse> handleSpecialIndex(@NonNull WSResponse response) {
-        Integer respIndex = response.getIndex();
-        if (respIndex == null) {
-            return Mono.just(response);
+    private void map(@NonNull InboundFrame frame, @NonNull SynchronousSink<MessageEvent> sink) {
+        // 过滤心跳消息
+        if (ResponseType.isType(frame.getType(), ResponseType.HEARTBEAT)) {
+            return;
+        }
+        if (frame.isChunk()) {
+            if (frame.isFinished()) {
+                sink.next(MessageEvent.complete(frame.getText(), frame.getDialogId()));
+            } else if (!frame.getText().isEmpty()) {
+                sink.next(MessageEvent.chunk(frame.getText()));
+            }
+            return;
         }
 
-        Optional<ResponseIndex> indexType = ResponseIndex.fromValue(respIndex);
-        if (indexType.isEmpty()) {
-            return Mono.just(response);
+        DecodedFrame decoded = FrameDecoder.decode(frame.response());
+        if (decoded instanceof DecodedFrame.Control) {
+            return;
         }
 
-        ResponseIndex index = indexType.get();
-        return switch (index) {
-            case THREAD_INFO, MESSAGE_CONFIRMED -> {
-                // 忽略这些消息
-                log.debug("Ignoring special index message: {}", index);
-                yield Mono.empty();
-            }
-            case ONLINE_SEARCH, IMAGE_REFERENCE, REASONING -> {
-                // 这些消息需要特殊处理，但仍然传递下去
-                log.debug("Received special message: {}", index);
-                yield Mono.just(response);
-            }
-        };
-    }
-
-    /**
-     * 检查错误
-     */
-    @NonNull
-    private Mono<WSResponse> checkError(@NonNull WSResponse response) {
+        // 检查错误
+        WSResponse response = decoded.response();
         String respCode = response.getCode();
         if (respCode != null && !"000000".equals(respCode)) {
             String errorMessage = response.getMessage() != null
                     ? response.getMessage()
                     : "服务器返回错误码: " + respCode;
             log.warn("Error response, code={}, message={}", respCode, errorMessage);
-            return Mono.error(new RuntimeException(errorMessage));
-        }
-        return Mono.just(response);
-    }
-
-    /**
-     * 转换为消息事件
-     */
-    @NonNull
-    private Mono<MessageEvent> toMessageEvent(@NonNull WSResponse response) {
-        String finishFlag = response.getFinish();
-        String respType = response.getType();
-        Integer respIndex = response.getIndex();
-
-        // 检查是否是 Reasoning 消息
-        if (respIndex != null) {
-            Optional<ResponseIndex> indexType = ResponseIndex.fromValue(respIndex);
-            if (indexType.isPresent() && indexType.get() == ResponseIndex.REASONING) {
-                String content = extractText(response);
-                return Mono.just(MessageEvent.reasoning(content));
-            }
-        }
-
-        // 检查是否是特殊消息
-        if (respIndex != null) {
-            Optional<ResponseIndex> indexType = ResponseIndex.fromValue(respIndex);
-            if (indexType.isPresent()) {
-                ResponseIndex index = indexType.get();
-                if (index == ResponseIndex.ONLINE_SEARCH || index == ResponseIndex.IMAGE_REFERENCE) {
-                    String content = extractText(response);
-                    return Mono.just(MessageEvent.special(content));
-                }
-            }
-        }
-
-        // 检查是否是完成消息
-        boolean isFinal = "y".equals(finishFlag) || ResponseType.isType(respType, ResponseType.LLM_END);
-        if (isFinal) {
-            String content = extractText(response);
-            String dialogId = response.getDialogId();
-            return Mono.just(MessageEvent.complete(content, dialogId));
-        }
-
-        // 普通 chunk 消息
-        String content = extractText(response);
-        if (content != null && !content.isEmpty()) {
-            return Mono.just(MessageEvent.chunk(content));
-        }
-
-        // 空消息，忽略
-        return Mono.empty();
-    }
-
-    /**
-     * 提取文本内容
-     */
-    @NonNull
-    private String extractText(@NonNull WSResponse response) {
-        Object data = response.getData();
-        if (data == null) {
-            return "";
-        }
-
-        // 情况1: data 是字符串
-        if (data instanceof String) {
-            return (String) data;
-        }
-
-        // 情况2: 如果是 reasoning 类型，提取 content 字段
-        String respType = response.getType();
-        if ("reasoning".equals(respType)) {
-            try {
-                String jsonStr = JSON.toJSONString(data);
-                @SuppressWarnings("unchecked")
-                Map<String, Object> map = JSON.parseObject(jsonStr, Map.class);
-                if (map != null && map.containsKey("content")) {
-                    Object content = map.get("content");
-                    return content != null ? content.toString() : "";
-                }
-            } catch (Exception e) {
-                log.debug("Failed to parse reasoning data", e);
-            }
-        }
-
-        // 情况3: data 是对象且包含 answer 字段
-        if (data instanceof WSResponseData responseData) {
-            return responseData.getAnswer() != null ? responseData.getAnswer() : "";
-        }
-
-        // 情况4: 尝试解析为 JSON 对象
-        try {
-            String jsonStr = JSON.toJSONString(data);
-            WSResponseData responseData = JSON.parseObject(jsonStr, WSResponseData.class);
-            if (responseData != null && responseData.getAnswer() != null) {
-                return responseData.getAnswer();
+            sink.error(new RuntimeException(errorMessage));
+            return;
+        }
+
+        if (decoded instanceof DecodedFrame.Reasoning reasoning) {
+            sink.next(MessageEvent.reasoning(reasoning.content()));
+        } else if (decoded instanceof DecodedFrame.Attachment attachment) {
+            log.debug("Received special message: {}", attachment.kind());
+            sink.next(MessageEvent.special(attachment.content()));
+        } else if (decoded instanceof DecodedFrame.Chunk chunk) {
+            // 检查是否是完成消息，普通 chunk 消息空消息忽略
+            if (chunk.finished()) {
+                sink.next(MessageEvent.complete(chunk.text(), response.getDialogId()));
+            } else if (!chunk.text().isEmpty()) {
+                sink.next(MessageEvent.chunk(chunk.text()));
             }
-
-            // 如果解析后没有 answer 字段，尝试直接获取 data 字段
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map = JSON.parseObject(jsonStr, Map.class);
-            if (map != null && map.containsKey("answer")) {
-                Object answer = map.get("answer");
-                return answer != null ? answer.toString() : "";
-            }
-
-            return "";
-        } catch (Exception e) {
-            log.debug("Failed to parse response data", e);
-            return data.toString();
         }
     }
 }
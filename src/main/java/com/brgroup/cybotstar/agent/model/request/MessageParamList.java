@@ -0,0 +1,162 @@
+package com.brgroup.cybotstar.agent.model.request;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * 带编码缓存的消息列表（只读快照）
+ * 会话历史中的每条消息在加入历史时编码一次，组装 message_params 时直接拼接缓存的 JSON 片段，
+ * 每轮只需编码新增的消息。加入历史后的消息视为不可变。
+ * 同一会话的历史快照共享一个只追加的存储，每个快照只引用其中的一段区间，追加一轮对话不复制已有历史
+ *
+ * @author zhiyuan.xi
+ */
+public final class MessageParamList extends AbstractList<MessageParam> implements RandomAccess {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final MessageParamList EMPTY = new MessageParamList(new Store(0), 0, 0, List.of());
+
+    // 共享存储，本快照只读取 [from, to) 区间
+    @NonNull
+    private final Store store;
+
+    private final int from;
+
+    private final int to;
+
+    // 区间之后追加的消息（没有编码缓存，如本轮请求的新消息），不写入共享存储
+    @NonNull
+    private final List<MessageParam> tail;
+
+    /**
+     * @param messages  消息
+     * @param fragments 前若干条消息对应的 JSON 片段
+     */
+    public MessageParamList(@NonNull List<MessageParam> messages, @NonNull List<String> fragments) {
+        this(Store.copyOf(messages, fragments, Math.max(messages.size(), MIN_CAPACITY)), 0, messages.size(),
+                List.of());
+    }
+
+    private MessageParamList(@NonNull Store store, int from, int to, @NonNull List<MessageParam> tail) {
+        this.store = store;
+        this.from = from;
+        this.to = to;
+        this.tail = tail;
+    }
+
+    @NonNull
+    public static MessageParamList empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public MessageParam get(int index) {
+        Objects.checkIndex(index, size());
+        int stored = to - from;
+        return index < stored ? store.messages[from + index] : tail.get(index - stored);
+    }
+
+    @Override
+    public int size() {
+        return to - from + tail.size();
+    }
+
+    /**
+     * 获取第 index 条消息的 JSON 片段，未缓存时返回 null
+     */
+    @Nullable
+    public String fragment(int index) {
+        return index >= 0 && index < to - from ? store.fragments[from + index] : null;
+    }
+
+    /**
+     * 追加消息（追加的消息没有编码缓存，不写入共享存储）
+     */
+    @NonNull
+    public MessageParamList append(@NonNull List<MessageParam> more) {
+        List<MessageParam> combined = new ArrayList<>(tail.size() + more.size());
+        combined.addAll(tail);
+        combined.addAll(more);
+        return new MessageParamList(store, from, to, combined);
+    }
+
+    /**
+     * 追加带编码缓存的消息，只保留最近 maxSize 条
+     * 最新的快照直接写入共享存储的空闲位置；存储写满或快照已不是最新时，
+     * 把保留的消息复制到容量翻倍的新存储，均摊下来每条消息只复制常数次
+     *
+     * @param fragments 前若干条新消息对应的 JSON 片段
+     */
+    @NonNull
+    public MessageParamList appendEncoded(@NonNull List<MessageParam> messages, @NonNull List<String> fragments,
+                                          int maxSize) {
+        int count = messages.size();
+        if (tail.isEmpty() && store.tryAppend(to, messages, fragments)) {
+            int end = to + count;
+            return new MessageParamList(store, Math.max(from, end - maxSize), end, List.of());
+        }
+
+        int total = size() + count;
+        int keep = Math.min(total, maxSize);
+        List<MessageParam> combined = new ArrayList<>(keep);
+        List<String> combinedFragments = new ArrayList<>(keep);
+        for (int i = total - keep; i < total; i++) {
+            int added = i - size();
+            combined.add(added < 0 ? get(i) : messages.get(added));
+            combinedFragments.add(added < 0 ? fragment(i) : added < fragments.size() ? fragments.get(added) : null);
+        }
+        Store copy = Store.copyOf(combined, combinedFragments, Math.max(keep * 2, MIN_CAPACITY));
+        return new MessageParamList(copy, 0, keep, List.of());
+    }
+
+    /**
+     * 只追加的消息存储
+     * 已写入的位置不再修改，快照通过 AtomicReference 等发布后可无锁读取
+     */
+    private static final class Store {
+
+        @NonNull
+        final MessageParam[] messages;
+
+        // 未缓存片段的位置为 null
+        @NonNull
+        final String[] fragments;
+
+        // 已写入的位置数
+        private int length;
+
+        Store(int capacity) {
+            this.messages = new MessageParam[capacity];
+            this.fragments = new String[capacity];
+        }
+
+        @NonNull
+        static Store copyOf(@NonNull List<MessageParam> messages, @NonNull List<String> fragments, int capacity) {
+            Store store = new Store(capacity);
+            store.tryAppend(0, messages, fragments);
+            return store;
+        }
+
+        /**
+         * 在 at 处追加，只有 at 恰好是存储末尾且容量足够时成功
+         */
+        synchronized boolean tryAppend(int at, @NonNull List<MessageParam> more, @NonNull List<String> moreFragments) {
+            if (at != length || length + more.size() > messages.length) {
+                return false;
+            }
+            for (int i = 0; i < more.size(); i++) {
+                messages[length + i] = more.get(i);
+                fragments[length + i] = i < moreFragments.size() ? moreFragments.get(i) : null;
+            }
+            length += more.size();
+            return true;
+        }
+    }
+}
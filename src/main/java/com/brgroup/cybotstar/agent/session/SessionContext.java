@@ -1,6 +1,9 @@
 package com.brgroup.cybotstar.agent.session;
 
 import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.agent.model.request.MessageParamList;
+import com.brgroup.cybotstar.core.codec.JsonCodec;
+import com.brgroup.cybotstar.core.connection.InFlightRequest;
 import com.brgroup.cybotstar.core.connection.WebSocketConnection;
 import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler;
 import com.brgroup.cybotstar.core.model.ws.WSResponse;
@@ -32,9 +35,13 @@ public class SessionContext {
     @NonNull
     private final ReactiveMessageHandler messageHandler;
 
-    // 对话历史（使用 AtomicReference 保证线程安全）
-    private final AtomicReference<List<MessageParam>> historyRef =
-            new AtomicReference<>(new ArrayList<>());
+    // 消息事件流（创建会话时组装一次，所有订阅及单个请求的事件流复用；帧源在订阅时获取，会话解绑重建后仍有效）
+    @NonNull
+    private final Flux<ReactiveMessageHandler.MessageEvent> events;
+
+    // 对话历史及每条消息的 JSON 片段（使用 AtomicReference 保证线程安全）
+    private final AtomicReference<MessageParamList> historyRef =
+            new AtomicReference<>(MessageParamList.empty());
 
     public SessionContext(
             @NonNull String sessionId,
@@ -42,6 +49,7 @@ public class SessionContext {
         this.sessionId = sessionId;
         this.connection = connection;
         this.messageHandler = new ReactiveMessageHandler();
+        this.events = messageHandler.handleFrames(Flux.defer(() -> connection.frames(sessionId)));
     }
 
     /**
@@ -65,7 +73,7 @@ public class SessionContext {
      */
     @NonNull
     public Flux<WSResponse> messageStream() {
-        return connection.messages();
+        return connection.messages(sessionId);
     }
 
     /**
@@ -73,7 +81,16 @@ public class SessionContext {
      */
     @NonNull
     public Flux<ReactiveMessageHandler.MessageEvent> eventStream() {
-        return messageHandler.handle(connection.messages());
+        return events;
+    }
+
+    /**
+     * 获取单个请求的消息事件流
+     * 重连后请求被重新发送时，丢弃已交付过的片段（去重在共用的映射阶段内完成）
+     */
+    @NonNull
+    public Flux<ReactiveMessageHandler.MessageEvent> eventStream(@NonNull InFlightRequest request) {
+        return ReactiveMessageHandler.filtered(events, request::accept);
     }
 
     /**
@@ -81,7 +98,10 @@ public class SessionContext {
      */
     @NonNull
     public Flux<String> chunkStream() {
-        return messageHandler.extractStreamContent(connection.messages());
+        return eventStream()
+                .filter(event -> event.getType() == ReactiveMessageHandler.MessageEventType.CHUNK)
+                .map(ReactiveMessageHandler.MessageEvent::getContent)
+                .filter(content -> content != null && !content.isEmpty());
     }
 
     /**
@@ -89,7 +109,10 @@ public class SessionContext {
      */
     @NonNull
     public Mono<String> waitForCompletion() {
-        return messageHandler.waitForCompletion(connection.messages());
+        return eventStream()
+                .filter(event -> event.getType() == ReactiveMessageHandler.MessageEventType.COMPLETE)
+                .next()
+                .map(ReactiveMessageHandler.MessageEvent::getContent);
     }
 
     /**
@@ -100,28 +123,23 @@ public class SessionContext {
         return new ArrayList<>(historyRef.get());
     }
 
+    /**
+     * 获取带编码缓存的对话历史（只读快照）
+     * 组装 message_params 时直接拼接每条历史消息的 JSON 片段，无需重新序列化
+     */
+    @NonNull
+    public MessageParamList getEncodedHistory() {
+        return historyRef.get();
+    }
+
     /**
      * 添加历史消息
      */
     @NonNull
     public Mono<Void> addHistory(@NonNull MessageParam message) {
         return Mono.fromRunnable(() -> {
-            historyRef.updateAndGet(list -> {
-                List<MessageParam> newList = new ArrayList<>(list);
-                newList.add(message);
-
-                // 限制历史消息数量，防止内存溢出
-                if (newList.size() > CybotStarConstants.MAX_HISTORY_SIZE) {
-                    // 保留最新的消息，移除最旧的
-                    newList = new ArrayList<>(newList.subList(
-                        newList.size() - CybotStarConstants.MAX_HISTORY_SIZE,
-                        newList.size()
-                    ));
-                    log.debug("History size exceeded limit, trimmed to {}", CybotStarConstants.MAX_HISTORY_SIZE);
-                }
-
-                return newList;
-            });
+            JsonCodec codec = connection.getCodec();
+            append(List.of(message), codec.splicesFragments() ? List.of(codec.encode(message)) : List.of());
             log.debug("Added history message, sessionId: {}, role: {}", sessionId, message.getRole());
         });
     }
@@ -132,41 +150,50 @@ public class SessionContext {
     @NonNull
     public Mono<Void> addHistory(@NonNull List<MessageParam> messages) {
         return Mono.fromRunnable(() -> {
-            historyRef.updateAndGet(list -> {
-                List<MessageParam> newList = new ArrayList<>(list);
-                newList.addAll(messages);
-
-                // 限制历史消息数量，防止内存溢出
-                if (newList.size() > CybotStarConstants.MAX_HISTORY_SIZE) {
-                    newList = new ArrayList<>(newList.subList(
-                        newList.size() - CybotStarConstants.MAX_HISTORY_SIZE,
-                        newList.size()
-                    ));
-                    log.debug("History size exceeded limit, trimmed to {}", CybotStarConstants.MAX_HISTORY_SIZE);
-                }
-
-                return newList;
-            });
+            JsonCodec codec = connection.getCodec();
+            if (!codec.splicesFragments()) {
+                // 编解码器不拼接片段时不编码
+                append(messages, List.of());
+                log.debug("Added {} history messages, sessionId: {}", messages.size(), sessionId);
+                return;
+            }
+            List<String> fragments = new ArrayList<>(messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                // 已有编码缓存的消息（如从旧会话迁移的历史）直接复用
+                String fragment = messages instanceof MessageParamList encoded ? encoded.fragment(i) : null;
+                fragments.add(fragment != null ? fragment : codec.encode(messages.get(i)));
+            }
+            append(messages, fragments);
             log.debug("Added {} history messages, sessionId: {}", messages.size(), sessionId);
         });
     }
 
+    /**
+     * 追加历史消息及其 JSON 片段（片段在 CAS 循环外编码，重试时不会重复序列化）
+     * 历史快照共享只追加的存储，追加不复制已有历史，超过上限时只保留最新的消息
+     */
+    private void append(@NonNull List<MessageParam> messages, @NonNull List<String> fragments) {
+        historyRef.updateAndGet(history ->
+                history.appendEncoded(messages, fragments, CybotStarConstants.MAX_HISTORY_SIZE));
+    }
+
     /**
      * 清空历史消息
      */
     @NonNull
     public Mono<Void> clearHistory() {
         return Mono.fromRunnable(() -> {
-            historyRef.set(new ArrayList<>());
+            historyRef.set(MessageParamList.empty());
             log.debug("Cleared history, sessionId: {}", sessionId);
         });
     }
 
     /**
      * 关闭会话
+     * 共享连接只解绑当前会话，独占连接随会话关闭
      */
     public void close() {
-        connection.close();
+        connection.detach(sessionId);
         log.debug("Session closed, sessionId: {}", sessionId);
     }
 }
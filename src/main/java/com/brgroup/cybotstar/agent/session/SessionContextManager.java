@@ -32,16 +32,38 @@ public class SessionContextManager {
     /**
      * 获取或创建会话上下文
      * 使用 Mono.cache() 实现会话复用，失败时自动清除缓存
-     * 根据连接状态动态调整缓存时间
+     * 根据连接状态动态调整缓存时间；连接已被淘汰（如为排队会话腾出名额）时保留历史重建上下文
      *
      * @param sessionId 会话 ID
      * @return 会话上下文的 Mono
      */
     @NonNull
     public Mono<SessionContext> getContext(@NonNull String sessionId) {
-        return contextCache.computeIfAbsent(sessionId, id -> {
+        // 刷新连接的最近使用时间
+        connectionManager.touch(sessionId);
+        Mono<SessionContext> cached = contextCache.computeIfAbsent(sessionId, id -> {
             log.debug("Creating new session context for: {}", id);
-            return createContext(id)
+            return cache(createContext(id));
+        });
+        return cached.flatMap(context -> {
+            if (!context.getConnection().isClosed()) {
+                return Mono.just(context);
+            }
+            log.debug("Connection of session {} was closed, recreating context with history", sessionId);
+            Mono<SessionContext> fresh = cache(createContext(sessionId)
+                    .flatMap(created -> created.addHistory(context.getEncodedHistory()).thenReturn(created)));
+            Mono<SessionContext> current = contextCache.compute(sessionId,
+                    (id, existing) -> existing == cached ? fresh : existing);
+            return current != null ? current : getContext(sessionId);
+        });
+    }
+
+    /**
+     * 缓存上下文创建结果
+     */
+    @NonNull
+    private Mono<SessionContext> cache(@NonNull Mono<SessionContext> context) {
+        return context
                     .cache(
                         value -> {
                             // 根据连接状态决定缓存时间
@@ -55,7 +77,6 @@ public class SessionContextManager {
                         error -> Duration.ZERO,            // 失败时不缓存
                         () -> Duration.ZERO                // 空值不缓存
                     );
-        });
     }
 
     /**
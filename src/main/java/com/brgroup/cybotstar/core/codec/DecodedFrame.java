@@ -0,0 +1,59 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.brgroup.cybotstar.core.model.common.ResponseIndex;
+import com.brgroup.cybotstar.core.model.ws.WSResponse;
+import com.brgroup.cybotstar.flow.model.FlowData;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * 解码后的入站帧
+ * 由 {@link FrameDecoder} 一次解码得到，各类型已取出所需字段，处理时无需再次序列化或解析 data
+ *
+ * @author zhiyuan.xi
+ */
+public sealed interface DecodedFrame
+        permits DecodedFrame.Chunk, DecodedFrame.Reasoning, DecodedFrame.Attachment,
+        DecodedFrame.Flow, DecodedFrame.Control {
+
+    /**
+     * 原始响应
+     */
+    @NonNull
+    WSResponse response();
+
+    /**
+     * Agent 流式片段（包括结束帧）
+     *
+     * @param text     片段文本，可能为空
+     * @param finished 是否为结束帧
+     */
+    record Chunk(@NonNull WSResponse response, @NonNull String text, boolean finished) implements DecodedFrame {
+    }
+
+    /**
+     * 思考过程
+     */
+    record Reasoning(@NonNull WSResponse response, @NonNull String content) implements DecodedFrame {
+    }
+
+    /**
+     * 联网搜索结果或引用图片
+     *
+     * @param kind {@link ResponseIndex#ONLINE_SEARCH} 或 {@link ResponseIndex#IMAGE_REFERENCE}
+     */
+    record Attachment(@NonNull WSResponse response, @NonNull ResponseIndex kind,
+                      @NonNull String content) implements DecodedFrame {
+    }
+
+    /**
+     * Flow 帧
+     */
+    record Flow(@NonNull WSResponse response, @NonNull FlowData flowData) implements DecodedFrame {
+    }
+
+    /**
+     * 控制帧（提问确认、线程信息等，不产生事件）
+     */
+    record Control(@NonNull WSResponse response) implements DecodedFrame {
+    }
+}
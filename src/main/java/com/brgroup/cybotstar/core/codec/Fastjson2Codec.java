@@ -0,0 +1,68 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * fastjson2 编解码器（默认）
+ *
+ * @author zhiyuan.xi
+ */
+final class Fastjson2Codec implements JsonCodec {
+
+    static final Fastjson2Codec INSTANCE = new Fastjson2Codec();
+
+    private Fastjson2Codec() {
+    }
+
+    @NonNull
+    @Override
+    public String name() {
+        return "fastjson2";
+    }
+
+    @NonNull
+    @Override
+    public InboundFrame read(@NonNull String text) {
+        try {
+            return FrameDecoder.read(text);
+        } catch (JSONException e) {
+            throw AgentException.invalidResponse("无效的 WebSocket 帧", e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public InboundFrame read(byte @NonNull [] utf8, int offset, int length) {
+        try {
+            return FrameDecoder.read(utf8, offset, length);
+        } catch (JSONException e) {
+            throw AgentException.invalidResponse("无效的 WebSocket 帧", e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String encode(@NonNull WSPayload payload, @Nullable PayloadTemplate template) {
+        try {
+            return template != null ? template.encode(payload) : JSON.toJSONString(payload);
+        } catch (JSONException e) {
+            throw AgentException.sendFailed("编码请求载荷失败", e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String encode(@NonNull Object value) {
+        try {
+            return JSON.toJSONString(value);
+        } catch (JSONException e) {
+            throw AgentException.sendFailed("编码 " + value.getClass().getSimpleName() + " 失败", e);
+        }
+    }
+}
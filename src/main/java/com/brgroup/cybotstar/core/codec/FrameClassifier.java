@@ -0,0 +1,236 @@
+package com.brgroup.cybotstar.core.codec;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 预编译的帧分类器
+ * 回答文本中的系统异常、风控拦截、系统消息、调试追踪关键字编译为一个多模式自动机（Aho-Corasick），
+ * 一次扫描得出分类，扫描过程不分配对象。实例不可变，可在 Agent 与 Flow 之间共享
+ *
+ * @author zhiyuan.xi
+ */
+public final class FrameClassifier {
+
+    /**
+     * 文本分类（按优先级排列，同时命中多类时取靠前的一类）
+     */
+    public enum TextKind {
+        /**
+         * 系统异常，如 "系统异常(209),稍后再试"
+         */
+        SYSTEM_ERROR,
+
+        /**
+         * 风控拦截
+         */
+        RISK_BLOCKED,
+
+        /**
+         * Flow 系统消息（节点调试输出等，不展示给用户）
+         */
+        SYSTEM_MESSAGE,
+
+        /**
+         * Flow 调试输出中的实体、节点追踪信息（不作为调试事件发出）
+         */
+        DEBUG_TRACE,
+
+        /**
+         * 普通文本
+         */
+        NONE
+    }
+
+    public static final List<String> DEFAULT_SYSTEM_ERROR_PATTERNS = List.of("系统异常(");
+
+    public static final List<String> DEFAULT_RISK_PATTERNS = List.of("涉及到风险");
+
+    public static final List<String> DEFAULT_SYSTEM_MESSAGE_PATTERNS = List.of(
+            "flow_enter",
+            "node_waiting_input",
+            "current_communication_complete",
+            "node_id:",
+            "enter by prev_node_id:",
+            "entity:",
+            "llm response:"
+    );
+
+    public static final List<String> DEFAULT_DEBUG_TRACE_PATTERNS = List.of("entity:", "node_id:");
+
+    /**
+     * 默认分类器
+     */
+    public static final FrameClassifier DEFAULT = new FrameClassifier(
+            DEFAULT_SYSTEM_ERROR_PATTERNS, DEFAULT_RISK_PATTERNS, DEFAULT_SYSTEM_MESSAGE_PATTERNS,
+            DEFAULT_DEBUG_TRACE_PATTERNS);
+
+    private static final TextKind[] KINDS = TextKind.values();
+
+    // 模式中出现的字符（升序），字符在数组中的位置 + 1 即为列号，列 0 表示其他字符
+    private final char[] alphabet;
+
+    // 状态转移表：transitions[state * columns + column]
+    private final int[] transitions;
+
+    // 每个状态命中的分类位图（含失配链上的输出）
+    private final int[] outputs;
+
+    private final int columns;
+
+    public FrameClassifier(@NonNull List<String> systemErrorPatterns,
+                           @NonNull List<String> riskPatterns,
+                           @NonNull List<String> systemMessagePatterns) {
+        this(systemErrorPatterns, riskPatterns, systemMessagePatterns, DEFAULT_DEBUG_TRACE_PATTERNS);
+    }
+
+    public FrameClassifier(@NonNull List<String> systemErrorPatterns,
+                           @NonNull List<String> riskPatterns,
+                           @NonNull List<String> systemMessagePatterns,
+                           @NonNull List<String> debugTracePatterns) {
+        List<List<String>> patterns = List.of(systemErrorPatterns, riskPatterns, systemMessagePatterns,
+                debugTracePatterns);
+
+        TreeSet<Character> chars = new TreeSet<>();
+        for (List<String> group : patterns) {
+            for (String pattern : group) {
+                for (int i = 0; i < pattern.length(); i++) {
+                    chars.add(pattern.charAt(i));
+                }
+            }
+        }
+        this.alphabet = new char[chars.size()];
+        int position = 0;
+        for (Character c : chars) {
+            alphabet[position++] = c;
+        }
+        this.columns = alphabet.length + 1;
+
+        // 构建字典树
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> masks = new ArrayList<>();
+        trie.add(newRow());
+        masks.add(0);
+        for (int kind = 0; kind < patterns.size(); kind++) {
+            for (String pattern : patterns.get(kind)) {
+                if (pattern.isEmpty()) {
+                    continue;
+                }
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    int column = column(pattern.charAt(i));
+                    if (trie.get(state)[column] < 0) {
+                        trie.get(state)[column] = trie.size();
+                        trie.add(newRow());
+                        masks.add(0);
+                    }
+                    state = trie.get(state)[column];
+                }
+                masks.set(state, masks.get(state) | (1 << kind));
+            }
+        }
+
+        // 按层计算失配链，补全为确定性自动机
+        int states = trie.size();
+        this.transitions = new int[states * columns];
+        this.outputs = new int[states];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int column = 0; column < columns; column++) {
+            int next = trie.get(0)[column];
+            if (next < 0) {
+                transitions[column] = 0;
+            } else {
+                transitions[column] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        outputs[0] = masks.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = masks.get(state) | outputs[fail[state]];
+            for (int column = 0; column < columns; column++) {
+                int next = trie.get(state)[column];
+                int fallback = transitions[fail[state] * columns + column];
+                if (next < 0) {
+                    transitions[state * columns + column] = fallback;
+                } else {
+                    transitions[state * columns + column] = next;
+                    fail[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按配置创建分类器，未配置的类别使用默认关键字
+     */
+    @NonNull
+    public static FrameClassifier of(@Nullable List<String> systemErrorPatterns,
+                                     @Nullable List<String> riskPatterns,
+                                     @Nullable List<String> systemMessagePatterns) {
+        if (systemErrorPatterns == null && riskPatterns == null && systemMessagePatterns == null) {
+            return DEFAULT;
+        }
+        return new FrameClassifier(
+                systemErrorPatterns != null ? systemErrorPatterns : DEFAULT_SYSTEM_ERROR_PATTERNS,
+                riskPatterns != null ? riskPatterns : DEFAULT_RISK_PATTERNS,
+                systemMessagePatterns != null ? systemMessagePatterns : DEFAULT_SYSTEM_MESSAGE_PATTERNS);
+    }
+
+    /**
+     * 分类文本
+     */
+    @NonNull
+    public TextKind classify(@Nullable CharSequence text) {
+        int mask = scan(text, 1 << TextKind.SYSTEM_ERROR.ordinal());
+        return mask == 0 ? TextKind.NONE : KINDS[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    /**
+     * 文本是否包含指定分类的关键字
+     */
+    public boolean contains(@Nullable CharSequence text, @NonNull TextKind kind) {
+        int bit = 1 << kind.ordinal();
+        return kind != TextKind.NONE && (scan(text, bit) & bit) != 0;
+    }
+
+    /**
+     * 扫描文本，返回命中分类的位图；命中 stopMask 中的分类后提前结束
+     */
+    private int scan(@Nullable CharSequence text, int stopMask) {
+        if (text == null) {
+            return 0;
+        }
+        int mask = 0;
+        int state = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = transitions[state * columns + column(text.charAt(i))];
+            mask |= outputs[state];
+            if ((mask & stopMask) != 0) {
+                break;
+            }
+        }
+        return mask;
+    }
+
+    private int column(char c) {
+        int position = Arrays.binarySearch(alphabet, c);
+        return position >= 0 ? position + 1 : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[columns];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,307 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.util.Fnv;
+import com.brgroup.cybotstar.core.model.common.ResponseIndex;
+import com.brgroup.cybotstar.core.model.common.ResponseType;
+import com.brgroup.cybotstar.core.model.ws.WSResponse;
+import com.brgroup.cybotstar.core.model.ws.WSResponseData;
+import com.brgroup.cybotstar.flow.model.FlowData;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 入站帧解码器
+ * 每帧文本只解析一次：data 为对象时保留为解析得到的 {@link JSONObject}，
+ * 之后直接读取字段或映射为类型化对象，不再经过 toJSONString + parseObject 的往返。
+ * 流式片段帧走快速路径（{@link #read(String)}），只扫描所需字段，不绑定对象
+ *
+ * @author zhiyuan.xi
+ */
+public final class FrameDecoder {
+
+    // 快速路径识别的字段（按 Fnv1a 64 位哈希比较字段名，避免创建字段名字符串）
+    private static final long CODE = Fnv.hashCode64("code");
+    private static final long MESSAGE = Fnv.hashCode64("message");
+    private static final long DIALOG_ID = Fnv.hashCode64("dialog_id");
+    private static final long SEGMENT_CODE = Fnv.hashCode64("segment_code");
+    private static final long TYPE = Fnv.hashCode64("type");
+    private static final long INDEX = Fnv.hashCode64("index");
+    private static final long FINISH = Fnv.hashCode64("finish");
+    private static final long DATA = Fnv.hashCode64("data");
+    private static final long ANSWER = Fnv.hashCode64("answer");
+
+    // 快速路径帧不携带的响应字段（Flow 字段），出现时回退到完整解码；其余未知字段直接跳过
+    private static final long[] UNSUPPORTED = sortedHashes("flow_redis_key", "cur_node_id", "node_id", "debug",
+            "node_developer", "flow_name", "node_type", "node_title", "node_waiting_input", "parent_node_id");
+
+    private static final String SUCCESS_CODE = "000000";
+
+    private FrameDecoder() {
+    }
+
+    /**
+     * 读取文本帧
+     * 流式片段帧（index >= 0、正常响应码、data 为字符串或仅含 answer 的对象）直接读出所需字段，
+     * 其余帧回退到完整解码
+     */
+    @NonNull
+    public static InboundFrame read(@NonNull String text) {
+        InboundFrame chunk = scanChunk(JSONReader.of(text));
+        return chunk != null ? chunk : InboundFrame.of(parse(text));
+    }
+
+    /**
+     * 读取 UTF-8 编码的文本帧，直接在字节上解析，不先解码为字符串
+     * 返回的帧不引用 bytes，调用方可在返回后复用该数组
+     */
+    @NonNull
+    public static InboundFrame read(byte @NonNull [] utf8, int offset, int length) {
+        InboundFrame chunk = scanChunk(JSONReader.ofUTF8(utf8, offset, length));
+        return chunk != null ? chunk
+                : InboundFrame.of(requireFrame(JSON.parseObject(utf8, offset, length, StandardCharsets.UTF_8, WSResponse.class)));
+    }
+
+    /**
+     * 解析文本帧
+     *
+     * @throws JSONException 文本不是 JSON 对象时
+     */
+    @NonNull
+    public static WSResponse parse(@NonNull String text) {
+        return requireFrame(JSON.parseObject(text, WSResponse.class));
+    }
+
+    // 空文本与 null 字面量解析为 null，按格式错误处理
+    @NonNull
+    private static WSResponse requireFrame(@Nullable WSResponse response) {
+        if (response == null) {
+            throw new JSONException("Empty WebSocket frame");
+        }
+        return response;
+    }
+
+    /**
+     * 解码 Agent 帧
+     */
+    @NonNull
+    public static DecodedFrame decode(@NonNull WSResponse response) {
+        ResponseIndex kind = response.getIndex() != null ? ResponseIndex.of(response.getIndex()) : null;
+        if (kind != null) {
+            return switch (kind) {
+                case REASONING -> new DecodedFrame.Reasoning(response, text(response));
+                case ONLINE_SEARCH, IMAGE_REFERENCE -> new DecodedFrame.Attachment(response, kind, text(response));
+                case THREAD_INFO, MESSAGE_CONFIRMED -> new DecodedFrame.Control(response);
+            };
+        }
+        if (ResponseType.isType(response.getType(), ResponseType.HEARTBEAT)) {
+            return new DecodedFrame.Control(response);
+        }
+        boolean finished = "y".equals(response.getFinish())
+                || ResponseType.isType(response.getType(), ResponseType.LLM_END);
+        return new DecodedFrame.Chunk(response, text(response), finished);
+    }
+
+    /**
+     * 解码 Flow 帧
+     * data 为字符串时 {@link FlowData#getData()} 为 null
+     */
+    @NonNull
+    public static DecodedFrame.Flow decodeFlow(@NonNull WSResponse response) {
+        FlowData flowData = new FlowData();
+        flowData.setCode(response.getCode());
+        flowData.setMessage(response.getMessage());
+        flowData.setType(response.getType());
+        flowData.setIndex(response.getIndex());
+        flowData.setFlowName(response.getFlowName());
+        flowData.setNodeType(response.getNodeType());
+        flowData.setNodeTitle(response.getNodeTitle());
+        flowData.setNodeWaitingInput(response.getNodeWaitingInput());
+        if (response.getData() instanceof Map<?, ?> map) {
+            flowData.setData(decodeMessageData(toJSONObject(map)));
+        }
+        return new DecodedFrame.Flow(response, flowData);
+    }
+
+    /**
+     * 按需解码 Flow 消息数据
+     * 只读取标量字段；output 中的 inputs/variables/entities 直接引用解析结果，
+     * history 在首次调用 {@link FlowData.MessageData#getHistory()} 时才映射
+     */
+    @NonNull
+    private static FlowData.MessageData decodeMessageData(@NonNull JSONObject json) {
+        FlowData.MessageData data = new FlowData.MessageData();
+        data.setAnswer(json.getString("answer"));
+        data.setContentType(json.getString("content_type"));
+        data.setFlowStage(json.getString("flow_stage"));
+        data.setCode(json.getString("code"));
+        data.setNodeStream(json.getInteger("node_stream"));
+        data.setNodeAnswerIndex(json.getInteger("node_answer_index"));
+        data.setNodeAnswerFinish(json.getString("node_answer_finish"));
+        data.setCurNodeId(json.getString("cur_node_id"));
+        data.setParentNodeId(json.getString("parent_node_id"));
+        data.setManualReply(json.getInteger("manual_reply"));
+        data.setTriggerCondition(json.getString("trigger_condition"));
+        data.setManualReplyName(json.getString("manua_reply_name"));
+        if (json.get("output") instanceof Map<?, ?> output) {
+            data.setOutput(decodeOutput(toJSONObject(output)));
+        }
+        if (json.get("history") instanceof List<?> history) {
+            data.setLazyHistory(history);
+        }
+        return data;
+    }
+
+    @NonNull
+    private static FlowData.MessageData.FlowOutput decodeOutput(@NonNull JSONObject json) {
+        FlowData.MessageData.FlowOutput output = new FlowData.MessageData.FlowOutput();
+        output.setInputs(mapView(json.get("inputs")));
+        output.setVariables(mapView(json.get("variables")));
+        output.setEntities(mapView(json.get("entities")));
+        output.setRobotUserAsking(json.getString("robot_user_asking"));
+        output.setUserRobotReplying(json.getString("user_robot_replying"));
+        output.setRobotUserReplying(json.getString("robot_user_replying"));
+        return output;
+    }
+
+    @Nullable
+    private static Map<String, Object> mapView(@Nullable Object value) {
+        return value instanceof Map<?, ?> map ? toJSONObject(map) : null;
+    }
+
+    /**
+     * 提取文本内容
+     * 字符串 data 原样返回；思考过程取 content 字段，其余取 answer 字段
+     */
+    @NonNull
+    public static String text(@NonNull WSResponse response) {
+        Object data = response.getData();
+        if (data == null) {
+            return "";
+        }
+        if (data instanceof String text) {
+            return text;
+        }
+        if (data instanceof Map<?, ?> map) {
+            if ("reasoning".equals(response.getType()) && map.containsKey("content")) {
+                return asString(map.get("content"));
+            }
+            return asString(map.get("answer"));
+        }
+        if (data instanceof WSResponseData responseData) {
+            return asString(responseData.getAnswer());
+        }
+        return data.toString();
+    }
+
+    /**
+     * 按片段帧的形状扫描，不符合条件时返回 null
+     * 未知的顶层字段直接跳过（完整解码同样忽略）；data 中 answer 以外的键按原样读出保留
+     */
+    @Nullable
+    private static InboundFrame scanChunk(@NonNull JSONReader frameReader) {
+        String code = null;
+        String message = null;
+        String dialogId = null;
+        String segmentCode = null;
+        String type = null;
+        Integer index = null;
+        String finish = null;
+        String answer = null;
+        boolean answerObject = false;
+        JSONObject extra = null;
+
+        try (JSONReader reader = frameReader) {
+            if (!reader.nextIfObjectStart()) {
+                return null;
+            }
+            while (!reader.nextIfObjectEnd()) {
+                long field = reader.readFieldNameHashCode();
+                if (field == CODE) {
+                    code = reader.readString();
+                } else if (field == MESSAGE) {
+                    message = reader.readString();
+                } else if (field == DIALOG_ID) {
+                    dialogId = reader.readString();
+                } else if (field == SEGMENT_CODE) {
+                    segmentCode = reader.readString();
+                } else if (field == TYPE) {
+                    type = reader.readString();
+                } else if (field == INDEX) {
+                    index = reader.readInt32();
+                } else if (field == FINISH) {
+                    finish = reader.readString();
+                } else if (field == DATA) {
+                    if (reader.nextIfNull()) {
+                        continue;
+                    }
+                    if (reader.isString()) {
+                        answer = reader.readString();
+                        continue;
+                    }
+                    if (!reader.nextIfObjectStart()) {
+                        return null;
+                    }
+                    answerObject = true;
+                    while (!reader.nextIfObjectEnd()) {
+                        if (reader.readFieldNameHashCode() == ANSWER) {
+                            answer = reader.readString();
+                        } else {
+                            if (extra == null) {
+                                extra = new JSONObject();
+                            }
+                            extra.put(reader.getFieldName(), reader.readAny());
+                        }
+                    }
+                } else if (Arrays.binarySearch(UNSUPPORTED, field) >= 0) {
+                    return null;
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (JSONException e) {
+            // 交给完整解码处理（并由其报告格式错误）
+            return null;
+        }
+
+        if (index == null || index < 0
+                || (code != null && !SUCCESS_CODE.equals(code))
+                || ResponseType.isType(type, ResponseType.HEARTBEAT)
+                // 思考过程的文本可能取自 data.content（见 text）
+                || (extra != null && "reasoning".equals(type))) {
+            return null;
+        }
+        return InboundFrame.chunk(code, message, dialogId, segmentCode, type, index, finish, answer, answerObject,
+                extra);
+    }
+
+    private static long @NonNull [] sortedHashes(@NonNull String... names) {
+        long[] hashes = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            hashes[i] = Fnv.hashCode64(names[i]);
+        }
+        Arrays.sort(hashes);
+        return hashes;
+    }
+
+    @NonNull
+    private static JSONObject toJSONObject(@NonNull Map<?, ?> map) {
+        if (map instanceof JSONObject json) {
+            return json;
+        }
+        return new JSONObject(map);
+    }
+
+    @NonNull
+    private static String asString(@Nullable Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,178 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.brgroup.cybotstar.core.model.common.ResponseType;
+import com.brgroup.cybotstar.core.model.ws.WSResponse;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 入站帧
+ * 流式片段帧由 {@link FrameDecoder} 快速路径直接读出所需字段，不绑定 {@link WSResponse}；
+ * 其余帧持有完整解码的 {@link WSResponse}。需要完整响应时（原始响应回调、Flow 处理）才按需构建
+ *
+ * @author zhiyuan.xi
+ */
+public final class InboundFrame {
+
+    @Nullable
+    private final String code;
+
+    @Nullable
+    private final String message;
+
+    @Nullable
+    private final String dialogId;
+
+    @Nullable
+    private final String segmentCode;
+
+    @Nullable
+    private final String type;
+
+    @Nullable
+    private final Integer index;
+
+    @Nullable
+    private final String finish;
+
+    // 片段文本（仅快速路径帧，没有 data 时为 null）
+    @Nullable
+    private final String text;
+
+    // 片段文本是否位于 data.answer（否则 data 本身为字符串）
+    private final boolean answerObject;
+
+    // 是否由快速路径读出
+    private final boolean chunk;
+
+    // 快速路径帧 data 中 answer 以外的键
+    @Nullable
+    private final JSONObject extra;
+
+    // 完整响应（快速路径帧按需构建）
+    @Nullable
+    private volatile WSResponse response;
+
+    private InboundFrame(@Nullable String code, @Nullable String message, @Nullable String dialogId,
+                         @Nullable String segmentCode, @Nullable String type, @Nullable Integer index,
+                         @Nullable String finish, @Nullable String text, boolean answerObject,
+                         boolean chunk, @Nullable JSONObject extra, @Nullable WSResponse response) {
+        this.code = code;
+        this.message = message;
+        this.dialogId = dialogId;
+        this.segmentCode = segmentCode;
+        this.type = type;
+        this.index = index;
+        this.finish = finish;
+        this.text = text;
+        this.answerObject = answerObject;
+        this.chunk = chunk;
+        this.extra = extra;
+        this.response = response;
+    }
+
+    /**
+     * 快速路径读出的流式片段帧
+     */
+    @NonNull
+    static InboundFrame chunk(@Nullable String code, @Nullable String message, @Nullable String dialogId,
+                              @Nullable String segmentCode, @Nullable String type, @NonNull Integer index,
+                              @Nullable String finish, @Nullable String text, boolean answerObject,
+                              @Nullable JSONObject extra) {
+        return new InboundFrame(code, message, dialogId, segmentCode, type, index, finish,
+                text, answerObject, true, extra, null);
+    }
+
+    /**
+     * 完整解码的帧
+     */
+    @NonNull
+    public static InboundFrame of(@NonNull WSResponse response) {
+        return new InboundFrame(response.getCode(), response.getMessage(), response.getDialogId(),
+                response.getSegmentCode(), response.getType(), response.getIndex(), response.getFinish(),
+                null, false, false, null, response);
+    }
+
+    /**
+     * 是否为快速路径读出的流式片段帧
+     */
+    public boolean isChunk() {
+        return chunk;
+    }
+
+    @Nullable
+    public String getCode() {
+        return code;
+    }
+
+    @Nullable
+    public String getDialogId() {
+        return dialogId;
+    }
+
+    @Nullable
+    public String getSegmentCode() {
+        return segmentCode;
+    }
+
+    @Nullable
+    public String getType() {
+        return type;
+    }
+
+    @Nullable
+    public Integer getIndex() {
+        return index;
+    }
+
+    @Nullable
+    public String getFinish() {
+        return finish;
+    }
+
+    /**
+     * 是否为结束帧
+     */
+    public boolean isFinished() {
+        return "y".equals(finish) || ResponseType.isType(type, ResponseType.LLM_END);
+    }
+
+    /**
+     * 获取片段文本，仅对快速路径帧有意义
+     */
+    @NonNull
+    public String getText() {
+        return text != null ? text : "";
+    }
+
+    /**
+     * 获取完整响应，快速路径帧首次调用时构建
+     */
+    @NonNull
+    public WSResponse response() {
+        WSResponse current = response;
+        if (current == null) {
+            current = new WSResponse();
+            current.setCode(code);
+            current.setMessage(message);
+            current.setDialogId(dialogId);
+            current.setSegmentCode(segmentCode);
+            current.setType(type);
+            current.setIndex(index);
+            current.setFinish(finish);
+            current.setData(answerObject ? data() : text);
+            response = current;
+        }
+        return current;
+    }
+
+    @NonNull
+    private JSONObject data() {
+        JSONObject data = JSONObject.of("answer", text);
+        if (extra != null) {
+            data.putAll(extra);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,133 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.alibaba.fastjson2.annotation.JSONField;
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import com.brgroup.cybotstar.core.model.ws.WSResponse;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Jackson 编解码器
+ * 模型上的 {@link JSONField} 字段名与 serialize/deserialize 开关同样生效，
+ * 空值字段不输出，与 fastjson2 的编码结果一致。不使用载荷模板与历史消息的片段缓存，也没有片段帧快速路径
+ *
+ * @author zhiyuan.xi
+ */
+final class JacksonCodec implements JsonCodec {
+
+    @NonNull
+    private final ObjectMapper mapper;
+
+    JacksonCodec() {
+        this.mapper = JsonMapper.builder()
+                .annotationIntrospector(new JSONFieldIntrospector())
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    @NonNull
+    @Override
+    public String name() {
+        return "jackson";
+    }
+
+    @NonNull
+    @Override
+    public InboundFrame read(@NonNull String text) {
+        try {
+            return frame(mapper.readValue(text, WSResponse.class));
+        } catch (IOException e) {
+            throw AgentException.invalidResponse("无效的 WebSocket 帧", e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public InboundFrame read(byte @NonNull [] utf8, int offset, int length) {
+        try {
+            return frame(mapper.readValue(utf8, offset, length, WSResponse.class));
+        } catch (IOException e) {
+            throw AgentException.invalidResponse("无效的 WebSocket 帧", e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String encode(@NonNull WSPayload payload, @Nullable PayloadTemplate template) {
+        return encode((Object) payload);
+    }
+
+    @Override
+    public boolean splicesFragments() {
+        return false;
+    }
+
+    @NonNull
+    @Override
+    public String encode(@NonNull Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw AgentException.sendFailed("编码 " + value.getClass().getSimpleName() + " 失败", e);
+        }
+    }
+
+    // null 字面量解析为 null，与 fastjson2 一致按格式错误处理
+    @NonNull
+    private static InboundFrame frame(@Nullable WSResponse response) {
+        if (response == null) {
+            throw AgentException.invalidResponse("无效的 WebSocket 帧", null);
+        }
+        return InboundFrame.of(response);
+    }
+
+    /**
+     * 按 {@link JSONField} 确定字段名与读写方向
+     */
+    private static final class JSONFieldIntrospector extends JacksonAnnotationIntrospector {
+
+        @Override
+        public PropertyName findNameForSerialization(Annotated a) {
+            PropertyName name = nameOf(a);
+            return name != null ? name : super.findNameForSerialization(a);
+        }
+
+        @Override
+        public PropertyName findNameForDeserialization(Annotated a) {
+            PropertyName name = nameOf(a);
+            return name != null ? name : super.findNameForDeserialization(a);
+        }
+
+        @Override
+        public JsonProperty.Access findPropertyAccess(Annotated a) {
+            JSONField field = _findAnnotation(a, JSONField.class);
+            if (field != null && !field.serialize()) {
+                return JsonProperty.Access.WRITE_ONLY;
+            }
+            if (field != null && !field.deserialize()) {
+                return JsonProperty.Access.READ_ONLY;
+            }
+            return super.findPropertyAccess(a);
+        }
+
+        @Nullable
+        private PropertyName nameOf(Annotated a) {
+            JSONField field = _findAnnotation(a, JSONField.class);
+            return field != null && !field.name().isEmpty() ? PropertyName.construct(field.name()) : null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.brgroup.cybotstar.agent.exception.AgentErrorCode;
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * JSON 编解码器
+ * 负责入站帧解析与请求载荷编码，通过 websocket.json-codec 选择实现（见 {@link JsonCodecs}）。
+ * 实现必须是线程安全的，同一实例被所有连接共享。
+ * 失败统一抛出 {@link AgentException}：读取失败为 {@link AgentErrorCode#INVALID_RESPONSE}，
+ * 编码失败为 {@link AgentErrorCode#SEND_FAILED}，原始异常作为 cause 保留
+ *
+ * @author zhiyuan.xi
+ */
+public interface JsonCodec {
+
+    /**
+     * 编解码器名称
+     */
+    @NonNull
+    String name();
+
+    /**
+     * 读取文本帧
+     *
+     * @throws AgentException 帧不是合法的 JSON 对象时（INVALID_RESPONSE）
+     */
+    @NonNull
+    InboundFrame read(@NonNull String text);
+
+    /**
+     * 读取 UTF-8 编码的文本帧
+     * 返回的帧不引用 utf8，调用方可在返回后复用该数组
+     *
+     * @throws AgentException 帧不是合法的 JSON 对象时（INVALID_RESPONSE）
+     */
+    @NonNull
+    InboundFrame read(byte @NonNull [] utf8, int offset, int length);
+
+    /**
+     * 编码请求载荷
+     *
+     * @param template 预编码的固定字段模板，实现可以不使用
+     * @throws AgentException 编码失败时（SEND_FAILED）
+     */
+    @NonNull
+    String encode(@NonNull WSPayload payload, @Nullable PayloadTemplate template);
+
+    /**
+     * 编码载荷时是否拼接 {@link com.brgroup.cybotstar.agent.model.request.MessageParamList} 中缓存的 JSON 片段
+     * 不拼接时调用方无需为历史消息编码片段
+     */
+    default boolean splicesFragments() {
+        return true;
+    }
+
+    /**
+     * 编码任意对象（如历史消息片段）
+     *
+     * @throws AgentException 编码失败时（SEND_FAILED）
+     */
+    @NonNull
+    String encode(@NonNull Object value);
+}
@@ -0,0 +1,18 @@
+package com.brgroup.cybotstar.core.codec;
+
+/**
+ * JSON 编解码器实现类型
+ *
+ * @author zhiyuan.xi
+ */
+public enum JsonCodecType {
+    /**
+     * fastjson2（流式片段帧走快速路径，载荷使用预编码模板）
+     */
+    FASTJSON2,
+
+    /**
+     * Jackson（与 Spring 应用共用同一解析器，需要 jackson-databind）
+     */
+    JACKSON
+}
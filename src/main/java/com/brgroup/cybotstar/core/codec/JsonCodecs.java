@@ -0,0 +1,70 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * JSON 编解码器工厂
+ * 根据 websocket.json-codec 配置创建编解码器
+ *
+ * @author zhiyuan.xi
+ */
+public final class JsonCodecs {
+
+    private static final boolean JACKSON_PRESENT =
+            isPresent("com.fasterxml.jackson.databind.json.JsonMapper");
+
+    private JsonCodecs() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 创建编解码器
+     *
+     * @param properties WebSocket 配置
+     * @return 编解码器实现
+     */
+    @NonNull
+    public static JsonCodec create(@NonNull WebSocketProperties properties) {
+        return of(properties.getJsonCodec() != null ? properties.getJsonCodec() : JsonCodecType.FASTJSON2);
+    }
+
+    /**
+     * 获取指定类型的编解码器
+     */
+    @NonNull
+    public static JsonCodec of(@NonNull JsonCodecType type) {
+        return switch (type) {
+            case FASTJSON2 -> Fastjson2Codec.INSTANCE;
+            case JACKSON -> {
+                if (!JACKSON_PRESENT) {
+                    throw AgentException.invalidConfig("json-codec", "类路径中未找到 jackson-databind，无法使用 JACKSON 编解码器");
+                }
+                yield JacksonHolder.INSTANCE;
+            }
+        };
+    }
+
+    /**
+     * 默认编解码器（fastjson2）
+     */
+    @NonNull
+    public static JsonCodec defaultCodec() {
+        return Fastjson2Codec.INSTANCE;
+    }
+
+    private static boolean isPresent(@NonNull String className) {
+        try {
+            Class.forName(className, false, JsonCodecs.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    // 延迟加载，没有 Jackson 时不触发 JacksonCodec 的类加载
+    private static final class JacksonHolder {
+        static final JsonCodec INSTANCE = new JacksonCodec();
+    }
+}
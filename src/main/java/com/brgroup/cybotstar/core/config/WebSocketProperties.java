@@ -1,10 +1,17 @@
 package com.brgroup.cybotstar.core.config;
 
+import com.brgroup.cybotstar.core.codec.JsonCodecType;
+import com.brgroup.cybotstar.core.connection.DispatchMode;
+import com.brgroup.cybotstar.core.connection.InboundOverflowPolicy;
+import com.brgroup.cybotstar.core.connection.LoadBalanceStrategy;
+import com.brgroup.cybotstar.core.connection.transport.TransportType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * WebSocket 配置属性
  *
@@ -20,6 +27,18 @@ public class WebSocketProperties {
      */
     private String url;
 
+    /**
+     * 多个 WebSocket URL（配置后忽略 url），新建连接按 loadBalance 策略在其中选择，
+     * 建连连续失败的地址会被摘除，冷却后（circuitBreakerOpenDuration）重新放行
+     */
+    private List<String> urls;
+
+    /**
+     * 多地址负载均衡策略，默认 LEAST_OUTSTANDING（未完成请求最少）
+     */
+    @Builder.Default
+    private LoadBalanceStrategy loadBalance = LoadBalanceStrategy.LEAST_OUTSTANDING;
+
     /**
      * 连接超时时间（毫秒），默认 30000
      */
@@ -44,10 +63,132 @@ public class WebSocketProperties {
     @Builder.Default
     private Boolean autoReconnect = true;
 
+    /**
+     * 同时进行的最大重连数，默认 16，超出的重连顺延到下一个退避周期，避免服务端恢复时被重连风暴压垮
+     */
+    @Builder.Default
+    private Integer maxConcurrentReconnects = 16;
+
+    /**
+     * 熔断失败阈值，默认 5，连续建连失败达到该次数后熔断，期间新建连直接失败，设为 0 不熔断
+     */
+    @Builder.Default
+    private Integer circuitBreakerFailureThreshold = 5;
+
+    /**
+     * 熔断打开时长（毫秒），默认 30000，到期后放行一次探测建连，成功则恢复
+     */
+    @Builder.Default
+    private Long circuitBreakerOpenDuration = 30000L;
+
     /**
      * 心跳间隔（毫秒），默认 30000，设为 0 禁用心跳
      */
     @Builder.Default
     private Long heartbeatInterval = 30000L;
-}
 
+    /**
+     * 允许连续未响应的心跳数，默认 2，达到后判定为半开连接并重连，设为 0 不检测
+     */
+    @Builder.Default
+    private Integer heartbeatMaxMissed = 2;
+
+    /**
+     * 共享连接池大小，默认 0（每个会话独立连接）
+     * 大于 0 时启用多路复用模式：所有会话共享 N 条连接，按 segment_code / dialog_id 分发响应
+     */
+    @Builder.Default
+    private Integer poolSize = 0;
+
+    /**
+     * 预热连接数，默认 0（不预热）
+     * 客户端 Bean 启动时预先建立连接并由心跳保活，新会话直接使用，被取用后异步补足；
+     * 共享连接模式下预先建立前 N 条共享连接
+     */
+    @Builder.Default
+    private Integer minIdle = 0;
+
+    /**
+     * 最大会话数，默认 0（独占连接模式 1000，共享连接模式 100000）
+     */
+    @Builder.Default
+    private Integer maxSessions = 0;
+
+    /**
+     * 会话数达到上限时允许排队等待的新会话数，默认 256，超过后直接失败
+     * 排队期间会淘汰最久未使用的空闲会话腾出名额
+     */
+    @Builder.Default
+    private Integer admissionQueueSize = 256;
+
+    /**
+     * 新会话排队等待的最长时间（毫秒），默认 5000
+     */
+    @Builder.Default
+    private Long admissionTimeout = 5000L;
+
+    /**
+     * 发送缓冲上限（字节），默认 4MB，超过后发送方等待，设为 0 不限制
+     */
+    @Builder.Default
+    private Long outboundBufferLimit = 4L * 1024 * 1024;
+
+    /**
+     * 发送缓冲已满时的最长等待时间（毫秒），默认 10000
+     */
+    @Builder.Default
+    private Long sendTimeout = 10000L;
+
+    /**
+     * 每个订阅者的入站缓冲帧数上限，默认 1024
+     */
+    @Builder.Default
+    private Integer inboundBufferSize = 1024;
+
+    /**
+     * 入站缓冲区溢出策略，默认 PAUSE_READ（暂停读取 socket，不丢帧）
+     */
+    @Builder.Default
+    private InboundOverflowPolicy inboundOverflow = InboundOverflowPolicy.PAUSE_READ;
+
+    /**
+     * 是否协商 permessage-deflate 压缩，默认 false
+     * 长会话的 message_params 历史较大时可显著减少上行流量
+     */
+    @Builder.Default
+    private Boolean compression = false;
+
+    /**
+     * 最小压缩帧大小（字节），默认 1024，小于该值的帧不压缩
+     * 仅 Java-WebSocket 传输层支持；Reactor Netty 传输层（AUTO 在类路径中存在 Reactor Netty 时的选择）
+     * 压缩所有帧，启用压缩时会在创建传输层时输出警告，需要按大小跳过压缩时请将 transport 设为 JAVA_WEBSOCKET
+     */
+    @Builder.Default
+    private Integer compressionThreshold = 1024;
+
+    /**
+     * 优雅停机等待时间（毫秒），默认 30000
+     * 应用关闭时先拒绝新请求，等待进行中的流式响应结束（最长该时间）后再关闭连接
+     */
+    @Builder.Default
+    private Long drainTimeout = 30000L;
+
+    /**
+     * 传输层实现，默认 AUTO（存在 Reactor Netty 时使用 Reactor Netty，否则使用 Java-WebSocket）
+     */
+    @Builder.Default
+    private TransportType transport = TransportType.AUTO;
+
+    /**
+     * 入站帧解码与分发方式，默认 INLINE（在读线程上处理）
+     * PARALLEL 时交给共享的并行调度器处理，同一连接的帧保持顺序
+     */
+    @Builder.Default
+    private DispatchMode dispatchMode = DispatchMode.INLINE;
+
+    /**
+     * JSON 编解码器，默认 FASTJSON2；JACKSON 需要类路径中存在 jackson-databind
+     */
+    @Builder.Default
+    private JsonCodecType jsonCodec = JsonCodecType.FASTJSON2;
+}
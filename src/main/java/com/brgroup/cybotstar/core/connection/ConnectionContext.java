@@ -0,0 +1,75 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.core.codec.JsonCodec;
+import com.brgroup.cybotstar.core.codec.JsonCodecs;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import com.brgroup.cybotstar.core.connection.transport.WebSocketTransport;
+import com.brgroup.cybotstar.core.connection.transport.WebSocketTransports;
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
+import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import com.brgroup.cybotstar.core.util.CybotStarUtils;
+import lombok.Getter;
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * 连接共享上下文
+ * 同一 {@link ConnectionManager} 下所有连接共享的传输层、重连配额、服务端选择器与指标
+ *
+ * @author zhiyuan.xi
+ */
+@Getter
+public class ConnectionContext {
+
+    @NonNull
+    private final AgentConfig config;
+
+    // 传输层
+    @NonNull
+    private final WebSocketTransport transport;
+
+    // 重连配额（限制同时进行的重连数）
+    @NonNull
+    private final Semaphore reconnectPermits;
+
+    // 服务端选择器（每个服务端各自熔断）
+    @NonNull
+    private final EndpointSelector endpointSelector;
+
+    // 连接指标
+    @NonNull
+    private final MetricsCollector metrics;
+
+    // JSON 编解码器
+    @NonNull
+    private final JsonCodec codec;
+
+    public ConnectionContext(@NonNull AgentConfig config) {
+        this(config, WebSocketTransports.create(config.getWebsocket()), new MetricsCollector());
+    }
+
+    public ConnectionContext(@NonNull AgentConfig config, @NonNull WebSocketTransport transport,
+                             @NonNull MetricsCollector metrics) {
+        this.config = config;
+        this.transport = transport;
+        this.metrics = metrics;
+
+        WebSocketProperties websocket = config.getWebsocket();
+        this.codec = JsonCodecs.create(websocket);
+        this.reconnectPermits = new Semaphore(websocket.getMaxConcurrentReconnects() != null
+                && websocket.getMaxConcurrentReconnects() > 0
+                ? websocket.getMaxConcurrentReconnects()
+                : CybotStarConstants.DEFAULT_MAX_CONCURRENT_RECONNECTS);
+        this.endpointSelector = new EndpointSelector(
+                CybotStarUtils.resolveUrls(websocket),
+                websocket.getLoadBalance() != null ? websocket.getLoadBalance() : LoadBalanceStrategy.LEAST_OUTSTANDING,
+                websocket.getCircuitBreakerFailureThreshold() != null
+                        ? websocket.getCircuitBreakerFailureThreshold()
+                        : CybotStarConstants.DEFAULT_CIRCUIT_FAILURE_THRESHOLD,
+                websocket.getCircuitBreakerOpenDuration() != null
+                        ? websocket.getCircuitBreakerOpenDuration()
+                        : CybotStarConstants.DEFAULT_CIRCUIT_OPEN_DURATION);
+    }
+}
@@ -1,23 +1,37 @@
 package com.brgroup.cybotstar.core.connection;
 
 import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.connection.transport.TransportMetrics;
 import com.brgroup.cybotstar.core.exception.ErrorRecoveryStrategy;
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
 import com.brgroup.cybotstar.core.util.CybotStarConstants;
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 /**
  * 响应式连接管理器
- * 使用 Caffeine Cache 实现连接复用和自动淘汰
+ * 使用 Caffeine AsyncCache 实现连接复用和自动淘汰，同一会话的并发请求只会建立一次连接
+ * <p>
+ * 配置 websocket.pool-size 大于 0 时启用共享连接模式，
+ * 所有会话通过 {@link ConnectionPool} 复用固定数量的连接
  *
  * @author zhiyuan.xi
  */
@@ -27,62 +41,145 @@ public class ConnectionManager {
     @NonNull
     private final AgentConfig config;
 
-    // 连接缓存（使用 Caffeine 实现自动淘汰）
-    private final Cache<String, Mono<WebSocketConnection>> connectionCache;
+    // 共享上下文（传输层、重连配额、熔断器、指标）
+    @NonNull
+    private final ConnectionContext context;
+
+    // 连接缓存（使用 Caffeine 实现自动淘汰，同一会话只创建一次）
+    private final AsyncCache<String, WebSocketConnection> connectionCache;
 
     // 连接计数器（用于监控）
     private final AtomicInteger activeConnectionCount = new AtomicInteger(0);
 
+    // 尚未完成的建连 -> 等待该建连的调用方数量，全部取消时取消建连
+    private final Map<CompletableFuture<WebSocketConnection>, AtomicInteger> pendingCallers = new ConcurrentHashMap<>();
+
+    // 共享连接池（未启用时为 null）
+    private final ConnectionPool connectionPool;
+
+    // 预热连接池（独占连接模式且 min-idle 大于 0 时存在）
+    private final IdleConnectionPool idlePool;
+
+    // 预热连接数
+    private final int minIdle;
+
+    // 最大会话数
+    private final int maxSessionCount;
+
+    // 会话准入控制（达到上限时排队）
+    @NonNull
+    private final SessionAdmission admission;
+
+    // 新会话排队等待的最长时间
+    @NonNull
+    private final Duration admissionTimeout;
+
+    // 淘汰空闲会话时最多检查的候选数（相对于等待数的倍数）
+    private static final int IDLE_SCAN_FACTOR = 4;
+
+    // 连接指标
+    @NonNull
+    private final MetricsCollector metrics;
+
+    // 是否正在优雅停机（停机期间不再分配连接）
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    // 停机时检查在途流的间隔
+    private static final Duration DRAIN_POLL_INTERVAL = Duration.ofMillis(50);
+
     public ConnectionManager(@NonNull AgentConfig config) {
         Objects.requireNonNull(config, "config cannot be null");
         this.config = config;
+        this.context = new ConnectionContext(config);
+        this.metrics = context.getMetrics();
+
+        Integer poolSize = config.getWebsocket().getPoolSize();
+        this.connectionPool = poolSize != null && poolSize > 0 ? new ConnectionPool(context, poolSize) : null;
+        this.minIdle = config.getWebsocket().getMinIdle() != null ? Math.max(config.getWebsocket().getMinIdle(), 0) : 0;
+        this.idlePool = connectionPool == null && minIdle > 0
+                ? new IdleConnectionPool(minIdle, () -> new WebSocketConnection(context, false),
+                        Duration.ofMillis(config.getWebsocket().getRetryInterval() != null
+                                ? config.getWebsocket().getRetryInterval()
+                                : CybotStarConstants.DEFAULT_RETRY_INTERVAL))
+                : null;
+        Integer maxSessions = config.getWebsocket().getMaxSessions();
+        this.maxSessionCount = maxSessions != null && maxSessions > 0
+                ? maxSessions
+                : connectionPool != null
+                        ? CybotStarConstants.MAX_POOLED_SESSION_COUNT
+                        : CybotStarConstants.MAX_SESSION_COUNT;
+        Integer queueSize = config.getWebsocket().getAdmissionQueueSize();
+        this.admission = new SessionAdmission(maxSessionCount,
+                queueSize != null ? queueSize : CybotStarConstants.DEFAULT_ADMISSION_QUEUE_SIZE,
+                // 建连在缓存的映射函数中发起，淘汰需异步执行，避免在映射函数内修改缓存
+                metrics, () -> Schedulers.parallel().schedule(this::evictIdleSessions));
+        this.admissionTimeout = Duration.ofMillis(config.getWebsocket().getAdmissionTimeout() != null
+                ? config.getWebsocket().getAdmissionTimeout()
+                : CybotStarConstants.DEFAULT_ADMISSION_TIMEOUT);
 
-        // 配置 Caffeine 缓存
+        // 配置 Caffeine 缓存（会话数由准入控制限制，容量只作兜底）
         this.connectionCache = Caffeine.newBuilder()
-                .maximumSize(CybotStarConstants.CONNECTION_CACHE_MAX_SIZE)
+                .maximumSize(Math.max(maxSessionCount, connectionPool != null
+                        ? CybotStarConstants.MAX_POOLED_SESSION_COUNT
+                        : CybotStarConstants.CONNECTION_CACHE_MAX_SIZE))
                 .expireAfterAccess(Duration.ofMinutes(CybotStarConstants.CONNECTION_CACHE_EXPIRE_MINUTES))
                 .removalListener(this::onConnectionRemoved)
                 .recordStats()  // 启用统计
-                .build();
+                .buildAsync();
 
-        log.debug("ConnectionManager initialized with Caffeine cache (max: {}, TTL: {}min)",
-                CybotStarConstants.CONNECTION_CACHE_MAX_SIZE,
-                CybotStarConstants.CONNECTION_CACHE_EXPIRE_MINUTES);
+        log.debug("ConnectionManager initialized with Caffeine cache (max sessions: {}, TTL: {}min, pool size: {}, transport: {})",
+                maxSessionCount,
+                CybotStarConstants.CONNECTION_CACHE_EXPIRE_MINUTES,
+                connectionPool != null ? connectionPool.getSize() : 0,
+                context.getTransport().getClass().getSimpleName());
     }
 
     /**
      * 连接移除回调
      */
-    private void onConnectionRemoved(String sessionId, Mono<WebSocketConnection> connectionMono, RemovalCause cause) {
-        if (connectionMono == null) {
+    private void onConnectionRemoved(String sessionId, WebSocketConnection connection, RemovalCause cause) {
+        if (connection == null) {
             return;
         }
 
         log.debug("Connection removed for session: {}, cause: {}", sessionId, cause);
+        admission.release();
 
-        // 异步关闭连接
-        connectionMono
-                .doOnNext(connection -> {
-                    try {
-                        connection.close();
-                        activeConnectionCount.decrementAndGet();
-                        log.debug("Connection closed for session: {}, active connections: {}",
-                            sessionId, activeConnectionCount.get());
-                    } catch (Exception e) {
-                        log.warn("Error closing connection for session: {}", sessionId, e);
-                    }
-                })
-                .onErrorResume(error -> {
-                    log.warn("Failed to close connection for session: {}, error: {}",
-                        sessionId, error.getMessage());
-                    return Mono.empty();
-                })
-                .subscribe();
+        // 共享连接只解绑会话，独占连接直接关闭
+        if (connection.isMultiplexed()) {
+            connection.detach(sessionId);
+            return;
+        }
+        try {
+            connection.close();
+            activeConnectionCount.decrementAndGet();
+            metrics.recordConnectionClosed();
+            log.debug("Connection closed for session: {}, active connections: {}",
+                sessionId, activeConnectionCount.get());
+        } catch (Exception e) {
+            log.warn("Error closing connection for session: {}", sessionId, e);
+        }
+    }
+
+    /**
+     * 预热连接
+     * 共享连接模式下预先建立前 min-idle 条共享连接，独占连接模式下建立 min-idle 条空闲连接
+     *
+     * @return 预热结束后完成（失败不报错，后续按需建连）
+     */
+    @NonNull
+    public Mono<Void> warmUp() {
+        if (minIdle <= 0) {
+            return Mono.empty();
+        }
+        log.debug("Warming up {} connections", minIdle);
+        return connectionPool != null ? connectionPool.warmUp(minIdle) : idlePool.fill();
     }
 
     /**
      * 获取或创建连接
-     * 使用 Caffeine Cache 实现连接复用，多个订阅者共享同一个连接
+     * 同一会话的并发请求共享同一次建连；会话数上限只限制新会话，已有连接的会话不受影响。
+     * 达到上限时新会话排队等待（最长 websocket.admission-timeout），同时淘汰最久未使用的空闲会话
      *
      * @param sessionId 会话 ID
      * @return 连接的 Mono
@@ -90,25 +187,117 @@ public class ConnectionManager {
     @NonNull
     public Mono<WebSocketConnection> getConnection(@NonNull String sessionId) {
         Objects.requireNonNull(sessionId, "sessionId cannot be null");
+        if (draining.get()) {
+            return Mono.error(AgentException.shuttingDown());
+        }
+
+        boolean[] created = new boolean[1];
+        CompletableFuture<WebSocketConnection> future = connectionCache.get(sessionId, (key, executor) -> {
+            created[0] = true;
+            // 占用会话名额（仅新会话计入），建连失败时归还；成功后在会话移除时归还
+            AtomicBoolean admitted = new AtomicBoolean(false);
+            Runnable releaseAdmission = () -> {
+                if (admitted.getAndSet(false)) {
+                    admission.release();
+                }
+            };
+            CompletableFuture<WebSocketConnection> pending = admission.acquire(admissionTimeout)
+                    .doOnSuccess(v -> admitted.set(true))
+                    .then(Mono.defer(() -> openConnection(key)))
+                    .doOnError(error -> releaseAdmission.run())
+                    .doOnCancel(releaseAdmission)
+                    .toFuture();
+            pendingCallers.put(pending, new AtomicInteger());
+            pending.whenComplete((connection, error) -> pendingCallers.remove(pending));
+            return pending;
+        });
 
-        // 检查会话数量限制
-        if (connectionCache.estimatedSize() >= CybotStarConstants.MAX_SESSION_COUNT) {
-            log.warn("Session count limit reached: {}", CybotStarConstants.MAX_SESSION_COUNT);
-            return Mono.error(new IllegalStateException(
-                "Maximum session count reached: " + CybotStarConstants.MAX_SESSION_COUNT));
+        if (!created[0] && !future.isDone()) {
+            // 复用了正在进行中的建连
+            metrics.recordDedupedHandshake();
+            log.debug("Joined in-flight connection for session: {}", sessionId);
+        }
+        AtomicInteger callers = pendingCallers.get(future);
+        if (callers == null) {
+            return Mono.fromFuture(future, true);
+        }
+        // 单个订阅者取消不影响其他等待同一连接的订阅者；全部取消时取消建连，
+        // 让出准入等待队列中的位置（或归还已占用的名额）
+        return Mono.fromFuture(future, true)
+                .doOnSubscribe(subscription -> callers.incrementAndGet())
+                .doOnCancel(() -> {
+                    if (callers.decrementAndGet() == 0 && future.cancel(false)) {
+                        log.debug("All callers cancelled, abandoning connection for session: {}", sessionId);
+                    }
+                })
+                .onErrorResume(CancellationException.class, error -> {
+                    // 加入时建连刚被其他调用方放弃：移除后重新发起
+                    connectionCache.asMap().remove(sessionId, future);
+                    return getConnection(sessionId);
+                });
+    }
+
+    /**
+     * 为新会话分配连接
+     * 优先使用预热连接，其次从共享连接池分配或新建连接
+     */
+    @NonNull
+    private Mono<WebSocketConnection> openConnection(@NonNull String sessionId) {
+        // 优先使用预热好的空闲连接
+        WebSocketConnection warm = idlePool != null ? idlePool.poll() : null;
+        if (warm != null) {
+            activeConnectionCount.incrementAndGet();
+            metrics.recordConnection(true);
+            metrics.recordWarmAcquire();
+            log.debug("Warm connection assigned to session: {}", sessionId);
+            return Mono.just(warm);
+        }
+        // 所有服务端均被熔断摘除时，需要新建连接的会话直接失败（已建立的连接不受影响）
+        EndpointSelector selector = context.getEndpointSelector();
+        if (connectionPool == null && !selector.getEndpoints().isEmpty() && !selector.isAvailable()) {
+            log.debug("All endpoints unavailable, rejecting new session: {}", sessionId);
+            return Mono.error(AgentException.endpointUnavailable(selector.getUrls(), selector.getRetryAfterMillis()));
         }
+        // 创建新连接（或从共享连接池分配），失败的结果由 Caffeine 自动移除
+        return connectionPool != null
+                ? acquirePooledConnection(sessionId)
+                : createConnection(sessionId).retryWhen(ErrorRecoveryStrategy.connectionRetry());
+    }
 
-        Mono<WebSocketConnection> cached = connectionCache.getIfPresent(sessionId);
-        if (cached != null) {
-            return cached;
+    /**
+     * 淘汰最久未使用的空闲会话，为排队中的新会话腾出名额
+     * 只淘汰没有进行中请求的会话
+     */
+    private void evictIdleSessions() {
+        int needed = admission.getWaiting();
+        if (needed <= 0) {
+            return;
         }
+        connectionCache.synchronous().policy().expireAfterAccess().ifPresent(expiration -> {
+            int evicted = 0;
+            for (Map.Entry<String, WebSocketConnection> entry
+                    : expiration.oldest(needed * IDLE_SCAN_FACTOR).entrySet()) {
+                if (evicted >= needed) {
+                    break;
+                }
+                if (entry.getValue().isIdle(entry.getKey())) {
+                    connectionCache.synchronous().invalidate(entry.getKey());
+                    metrics.recordIdleEviction();
+                    evicted++;
+                    log.debug("Evicted idle session to admit queued session: {}", entry.getKey());
+                }
+            }
+            if (evicted < needed) {
+                log.debug("Only {} idle sessions evicted, {} sessions waiting", evicted, needed);
+            }
+        });
+    }
 
-        // 创建新连接并缓存
-        Mono<WebSocketConnection> newConnection = createConnection(sessionId)
-                .retryWhen(ErrorRecoveryStrategy.connectionRetry())
-                .cache();
-        connectionCache.put(sessionId, newConnection);
-        return newConnection;
+    /**
+     * 刷新会话的最近使用时间（空闲淘汰按最近使用排序）
+     */
+    public void touch(@NonNull String sessionId) {
+        connectionCache.getIfPresent(sessionId);
     }
 
     /**
@@ -117,21 +306,21 @@ public class ConnectionManager {
     @NonNull
     private Mono<WebSocketConnection> createConnection(@NonNull String sessionId) {
         log.debug("Creating new connection for session: {}", sessionId);
-        return Mono.fromCallable(() -> new WebSocketConnection(config))
+        return Mono.fromCallable(() -> new WebSocketConnection(context, false))
                 .flatMap(connection ->
                         connection.connect()
                                 .thenReturn(connection)
                 )
                 .doOnSuccess(conn -> {
                     activeConnectionCount.incrementAndGet();
+                    metrics.recordConnection(true);
                     log.debug("Connection created successfully for session: {}, active connections: {}",
                         sessionId, activeConnectionCount.get());
                 })
                 .doOnError(error -> {
                     log.error("Failed to create connection for session: {}, error: {}",
                         sessionId, error.getMessage());
-                    // 移除失败的连接缓存
-                    connectionCache.invalidate(sessionId);
+                    metrics.recordConnection(false);
                 })
                 .onErrorMap(error -> {
                     if (error instanceof com.brgroup.cybotstar.agent.exception.AgentException) {
@@ -143,6 +332,64 @@ public class ConnectionManager {
                 });
     }
 
+    /**
+     * 从共享连接池分配连接
+     */
+    @NonNull
+    private Mono<WebSocketConnection> acquirePooledConnection(@NonNull String sessionId) {
+        return connectionPool.acquire(sessionId)
+                .doOnError(error -> {
+                    log.error("Failed to acquire shared connection for session: {}, error: {}",
+                        sessionId, error.getMessage());
+                })
+                .onErrorMap(error -> {
+                    if (error instanceof com.brgroup.cybotstar.agent.exception.AgentException) {
+                        return error;
+                    }
+                    return com.brgroup.cybotstar.agent.exception.AgentException.connectionFailed(
+                        "Failed to acquire shared connection for session: " + sessionId,
+                        error instanceof Exception ? (Exception) error : null);
+                });
+    }
+
+    /**
+     * 进入优雅停机并等待在途流结束
+     * 调用后不再分配连接；在途流全部结束或超时后完成，不关闭连接（由调用方随后断开）
+     *
+     * @param timeout  最长等待时间
+     * @param inFlight 在途流数
+     * @return 超时后仍未结束（将被中断）的流数
+     */
+    @NonNull
+    public Mono<Integer> drain(@NonNull Duration timeout, @NonNull IntSupplier inFlight) {
+        return Mono.defer(() -> {
+            draining.set(true);
+            long start = System.nanoTime();
+            log.info("Draining connections, in-flight streams: {}, timeout: {}ms", inFlight.getAsInt(), timeout.toMillis());
+            return Mono.fromCallable(inFlight::getAsInt)
+                    .filter(count -> count <= 0)
+                    .repeatWhenEmpty(repeat -> repeat.delayElements(DRAIN_POLL_INTERVAL))
+                    .map(count -> 0)
+                    .timeout(timeout, Mono.fromCallable(() -> Math.max(inFlight.getAsInt(), 0)))
+                    .doOnNext(aborted -> {
+                        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        metrics.recordDrain(durationMillis, aborted);
+                        if (aborted > 0) {
+                            log.warn("Drain timed out after {}ms, aborting {} in-flight streams", durationMillis, aborted);
+                        } else {
+                            log.info("Drain completed in {}ms", durationMillis);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 是否正在优雅停机
+     */
+    public boolean isDraining() {
+        return draining.get();
+    }
+
     /**
      * 断开连接
      *
@@ -152,15 +399,16 @@ public class ConnectionManager {
     public Mono<Void> disconnect(@NonNull String sessionId) {
         Objects.requireNonNull(sessionId, "sessionId cannot be null");
         return Mono.defer(() -> {
-            Mono<WebSocketConnection> cachedConnection = connectionCache.getIfPresent(sessionId);
-            connectionCache.invalidate(sessionId);  // 从缓存中移除
+            CompletableFuture<WebSocketConnection> cachedConnection = connectionCache.getIfPresent(sessionId);
+            connectionCache.synchronous().invalidate(sessionId);  // 从缓存中移除
 
             if (cachedConnection == null) {
                 return Mono.empty();
             }
 
-            return cachedConnection
-                    .doOnNext(WebSocketConnection::close)
+            return Mono.fromFuture(cachedConnection, true)
+                    .onErrorResume(error -> Mono.empty())
+                    .doOnNext(connection -> connection.detach(sessionId))
                     .then()
                     .doOnSuccess(v -> log.debug("Connection closed for session: {}", sessionId));
         });
@@ -175,7 +423,13 @@ public class ConnectionManager {
                 .flatMap(this::disconnect)
                 .then()
                 .doOnSuccess(v -> {
-                    connectionCache.invalidateAll();
+                    connectionCache.synchronous().invalidateAll();
+                    if (connectionPool != null) {
+                        connectionPool.close();
+                    }
+                    if (idlePool != null) {
+                        idlePool.close();
+                    }
                     log.debug("All connections closed");
                 });
     }
@@ -192,32 +446,100 @@ public class ConnectionManager {
      * 获取缓存统计信息
      */
     public String getCacheStats() {
-        return String.format("Cache stats - size: %d, hits: %d, misses: %d, evictions: %d, active: %d",
-                connectionCache.estimatedSize(),
-                connectionCache.stats().hitCount(),
-                connectionCache.stats().missCount(),
-                connectionCache.stats().evictionCount(),
-                activeConnectionCount.get());
+        return String.format("Cache stats - size: %d, hits: %d, misses: %d, evictions: %d, active: %d, "
+                        + "deduped handshakes: %d, rejected: %d, idle: %d, waiting: %d, admission timeouts: %d, "
+                        + "avg admission wait: %dms",
+                connectionCache.synchronous().estimatedSize(),
+                connectionCache.synchronous().stats().hitCount(),
+                connectionCache.synchronous().stats().missCount(),
+                connectionCache.synchronous().stats().evictionCount(),
+                getActiveConnectionCount(),
+                metrics.getDedupedHandshakes().get(),
+                metrics.getAdmissionRejections().get(),
+                getIdleConnectionCount(),
+                getAdmissionQueueLength(),
+                metrics.getAdmissionTimeouts().get(),
+                metrics.getAverageAdmissionWaitMillis());
     }
 
     /**
      * 获取活跃连接数
+     * 共享连接模式下为已建立的共享连接数
      */
     public int getActiveConnectionCount() {
-        return activeConnectionCount.get();
+        return connectionPool != null ? connectionPool.getConnectedCount() : activeConnectionCount.get();
+    }
+
+    /**
+     * 获取连接指标
+     */
+    @NonNull
+    public MetricsCollector getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获取复用进行中建连的次数（并发首次请求被合并的握手数）
+     */
+    public long getDedupedHandshakeCount() {
+        return metrics.getDedupedHandshakes().get();
+    }
+
+    /**
+     * 获取传输层指标（握手次数与耗时）
+     */
+    @NonNull
+    public TransportMetrics getTransportMetrics() {
+        return context.getTransport().getMetrics();
+    }
+
+    /**
+     * 获取服务端选择器（各服务端的负载与熔断状态）
+     */
+    @NonNull
+    public EndpointSelector getEndpointSelector() {
+        return context.getEndpointSelector();
+    }
+
+    /**
+     * 获取空闲预热连接数
+     */
+    public int getIdleConnectionCount() {
+        return idlePool != null ? idlePool.getIdleCount() : 0;
+    }
+
+    /**
+     * 获取排队等待会话名额的新会话数
+     */
+    public int getAdmissionQueueLength() {
+        return admission.getWaiting();
+    }
+
+    /**
+     * 获取最大会话数
+     */
+    public int getMaxSessionCount() {
+        return maxSessionCount;
+    }
+
+    /**
+     * 是否启用共享连接池
+     */
+    public boolean isPooled() {
+        return connectionPool != null;
     }
 
     /**
      * 获取缓存大小
      */
     public long getCacheSize() {
-        return connectionCache.estimatedSize();
+        return connectionCache.synchronous().estimatedSize();
     }
 
     /**
      * 检查是否达到连接限制
      */
     public boolean isConnectionLimitReached() {
-        return connectionCache.estimatedSize() >= CybotStarConstants.MAX_SESSION_COUNT;
+        return admission.getUsed() >= maxSessionCount;
     }
 }
@@ -0,0 +1,189 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.exception.ErrorRecoveryStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 共享连接池
+ * 固定数量的多路复用连接，所有会话按负载分配到其中一条连接上
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+public class ConnectionPool implements AutoCloseable {
+
+    // 共享上下文
+    @NonNull
+    private final ConnectionContext context;
+
+    // 连接槽位（懒创建，连接关闭后重建）
+    private final AtomicReferenceArray<PoolSlot> slots;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // 延迟评分单位（毫秒）
+    private static final double LATENCY_SCORE_UNIT_MILLIS = 100.0;
+
+    /**
+     * 连接槽位
+     *
+     * @param connection 多路复用连接
+     * @param ready      建连完成后发出连接（缓存结果，失败时清空槽位）
+     */
+    private record PoolSlot(WebSocketConnection connection, Mono<WebSocketConnection> ready) {
+    }
+
+    public ConnectionPool(@NonNull ConnectionContext context, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("pool size must be positive: " + size);
+        }
+        this.context = context;
+        this.slots = new AtomicReferenceArray<>(size);
+        log.debug("ConnectionPool initialized, size: {}", size);
+    }
+
+    /**
+     * 为会话分配共享连接
+     * 选择绑定会话最少的槽位，必要时建立连接
+     *
+     * @param sessionId 会话 ID
+     * @return 已绑定该会话的连接
+     */
+    @NonNull
+    public Mono<WebSocketConnection> acquire(@NonNull String sessionId) {
+        return Mono.defer(() -> {
+            if (closed.get()) {
+                return Mono.error(new IllegalStateException("ConnectionPool is closed"));
+            }
+            return slot(selectSlot())
+                    .doOnNext(connection -> {
+                        connection.attach(sessionId);
+                        log.debug("Session {} attached to shared connection, sessions on connection: {}",
+                                sessionId, connection.getAttachedSessionCount());
+                    });
+        });
+    }
+
+    /**
+     * 预先建立前 count 条共享连接
+     *
+     * @param count 预热的连接数（不超过池大小）
+     * @return 预热结束后完成（失败不报错）
+     */
+    @NonNull
+    public Mono<Void> warmUp(int count) {
+        return Flux.range(0, Math.min(count, slots.length()))
+                .flatMap(index -> slot(index).onErrorResume(error -> Mono.empty()))
+                .then();
+    }
+
+    /**
+     * 获取已建立的连接数
+     */
+    public int getConnectedCount() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            PoolSlot slot = slots.get(i);
+            if (slot != null && slot.connection().isConnected()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取池大小
+     */
+    public int getSize() {
+        return slots.length();
+    }
+
+    /**
+     * 关闭所有连接
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            for (int i = 0; i < slots.length(); i++) {
+                PoolSlot slot = slots.getAndSet(i, null);
+                if (slot != null) {
+                    slot.connection().close();
+                }
+            }
+            log.debug("ConnectionPool closed");
+        }
+    }
+
+    /**
+     * 选择负载最低的槽位
+     * 评分 = (绑定会话数 + 1) × (1 + 延迟评分 / 100ms)，会话数相同时优先心跳往返更快的连接，
+     * 心跳未响应的连接会被明显降权
+     */
+    private int selectSlot() {
+        int selected = 0;
+        double minScore = Double.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            PoolSlot slot = slots.get(i);
+            if (slot == null || !isUsable(slot)) {
+                // 空槽位优先建连
+                return i;
+            }
+            WebSocketConnection connection = slot.connection();
+            double score = (connection.getAttachedSessionCount() + 1)
+                    * (1 + connection.getLatencyScore() / LATENCY_SCORE_UNIT_MILLIS);
+            if (score < minScore) {
+                minScore = score;
+                selected = i;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 获取槽位连接，不存在、已关闭或已出错时新建
+     */
+    @NonNull
+    private Mono<WebSocketConnection> slot(int index) {
+        while (true) {
+            PoolSlot current = slots.get(index);
+            if (current != null && isUsable(current)) {
+                return current.ready();
+            }
+
+            WebSocketConnection connection = new WebSocketConnection(context, true);
+            PoolSlot[] holder = new PoolSlot[1];
+            Mono<WebSocketConnection> ready = connection.connect()
+                    .retryWhen(ErrorRecoveryStrategy.connectionRetry())
+                    .thenReturn(connection)
+                    .doOnSuccess(conn -> log.debug("Shared connection #{} established", index))
+                    .doOnError(error -> {
+                        log.error("Failed to establish shared connection #{}, error: {}", index, error.getMessage());
+                        // 清空失败的槽位，下次分配时重建
+                        if (slots.compareAndSet(index, holder[0], null)) {
+                            connection.close();
+                        }
+                    })
+                    .cache();
+            holder[0] = new PoolSlot(connection, ready);
+
+            if (slots.compareAndSet(index, current, holder[0])) {
+                if (current != null) {
+                    current.connection().close();
+                }
+                return ready;
+            }
+        }
+    }
+
+    // 消息流已因错误结束的连接不再分配，否则路由到该连接的会话都会立即收到错误
+    private static boolean isUsable(@NonNull PoolSlot slot) {
+        WebSocketConnection connection = slot.connection();
+        return !connection.isClosed() && !connection.isFailed();
+    }
+}
@@ -0,0 +1,19 @@
+package com.brgroup.cybotstar.core.connection;
+
+/**
+ * 入站帧解码与分发方式
+ *
+ * @author zhiyuan.xi
+ */
+public enum DispatchMode {
+    /**
+     * 在传输层读线程上解码并分发（延迟最低，慢处理器会阻塞该连接的读取）
+     */
+    INLINE,
+
+    /**
+     * 交给共享的并行调度器解码并分发，读线程只负责接收
+     * 每条连接固定使用一个执行通道，同一连接（及其上各会话）的帧保持接收顺序
+     */
+    PARALLEL
+}
@@ -0,0 +1,44 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.jspecify.annotations.NonNull;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 入站帧解码与分发阶段（{@link DispatchMode#PARALLEL}）
+ * 进程内所有连接共享一个并行调度器（线程数等于 CPU 核数），每条连接创建一个 worker 作为执行通道，
+ * worker 上的任务按提交顺序在同一线程上执行，因此同一连接的帧不会乱序
+ *
+ * @author zhiyuan.xi
+ */
+final class DispatchStage {
+
+    private static volatile Scheduler shared;
+
+    private DispatchStage() {
+    }
+
+    /**
+     * 为连接创建执行通道
+     */
+    @NonNull
+    static Scheduler.Worker lane() {
+        return scheduler().createWorker();
+    }
+
+    @NonNull
+    private static Scheduler scheduler() {
+        Scheduler scheduler = shared;
+        if (scheduler == null) {
+            synchronized (DispatchStage.class) {
+                scheduler = shared;
+                if (scheduler == null) {
+                    scheduler = Schedulers.newParallel("cybotstar-dispatch",
+                            Runtime.getRuntime().availableProcessors(), true);
+                    shared = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+}
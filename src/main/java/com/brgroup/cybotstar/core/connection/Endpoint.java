@@ -0,0 +1,116 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.jspecify.annotations.NonNull;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端地址
+ * 记录该服务端上的连接数、未完成请求数与心跳往返时间，建连失败由自身的熔断器摘除
+ *
+ * @author zhiyuan.xi
+ */
+public class Endpoint {
+
+    @NonNull
+    private final String url;
+
+    @NonNull
+    private final URI uri;
+
+    // 熔断器（连续建连失败后摘除，冷却后放行探测）
+    @NonNull
+    private final EndpointCircuitBreaker circuitBreaker;
+
+    // 已建立的连接数
+    private final AtomicInteger connections = new AtomicInteger(0);
+
+    // 未完成的请求数
+    private final AtomicInteger outstanding = new AtomicInteger(0);
+
+    // 心跳往返时间 EWMA（毫秒），尚无样本时为 -1
+    private volatile double rttEwmaMillis = -1;
+
+    // RTT EWMA 平滑系数
+    private static final double RTT_EWMA_ALPHA = 0.2;
+
+    public Endpoint(@NonNull String url, int failureThreshold, long cooldownMillis) {
+        this.url = url;
+        this.uri = URI.create(url);
+        this.circuitBreaker = new EndpointCircuitBreaker(url, failureThreshold, cooldownMillis);
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @NonNull
+    public URI getUri() {
+        return uri;
+    }
+
+    @NonNull
+    public EndpointCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 是否可用（未被熔断摘除）
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    /**
+     * 获取已建立的连接数
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * 获取未完成的请求数
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * 获取心跳往返时间 EWMA（毫秒），尚无样本时返回 -1
+     */
+    public double getRttEwmaMillis() {
+        return rttEwmaMillis;
+    }
+
+    void connectionOpened() {
+        connections.incrementAndGet();
+    }
+
+    void connectionClosed(int pendingRequests) {
+        connections.decrementAndGet();
+        if (pendingRequests > 0) {
+            outstanding.addAndGet(-pendingRequests);
+        }
+    }
+
+    void requestStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    void requestCompleted() {
+        outstanding.decrementAndGet();
+    }
+
+    void recordRtt(double rttMillis) {
+        double previous = rttEwmaMillis;
+        rttEwmaMillis = previous < 0 ? rttMillis : previous + RTT_EWMA_ALPHA * (rttMillis - previous);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s, connections=%d, outstanding=%d, rtt=%.1fms]",
+                url, circuitBreaker.getState(), connections.get(), outstanding.get(), Math.max(rttEwmaMillis, 0));
+    }
+}
@@ -0,0 +1,190 @@
+package com.brgroup.cybotstar.core.connection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 服务端熔断器
+ * 连续建连失败达到阈值后打开，打开期间新建连直接失败；到期后进入半开状态，
+ * 只放行一次探测建连，成功则关闭，失败则重新打开
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+public class EndpointCircuitBreaker {
+
+    /**
+     * 熔断状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    @NonNull
+    private final String endpoint;
+
+    // 失败阈值，0 表示不熔断
+    private final int failureThreshold;
+
+    // 打开时长（纳秒）
+    private final long openDurationNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    // 连续失败次数
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+
+    // 最近一次打开的时间（纳秒）
+    private volatile long openedAtNanos;
+
+    // 半开状态下是否已有探测建连
+    private final AtomicBoolean probeInFlight = new AtomicBoolean(false);
+
+    // 打开次数 / 被拒绝的建连数
+    private final AtomicLong openCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+
+    /**
+     * @param endpoint         服务端地址（仅用于日志）
+     * @param failureThreshold 连续失败阈值，0 表示不熔断
+     * @param openDurationMillis 打开时长（毫秒）
+     */
+    public EndpointCircuitBreaker(@NonNull String endpoint, int failureThreshold, long openDurationMillis) {
+        this.endpoint = endpoint;
+        this.failureThreshold = Math.max(failureThreshold, 0);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(openDurationMillis, 0));
+    }
+
+    /**
+     * 申请一次建连
+     * 半开状态下只有第一个申请者获得探测资格，调用方必须在建连结束后调用
+     * {@link #onSuccess()}、{@link #onFailure()} 或 {@link #onCancel()}
+     *
+     * @return 是否允许建连
+     */
+    public boolean tryAcquirePermission() {
+        while (true) {
+            State current = state.get();
+            switch (current) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                        rejectedCount.incrementAndGet();
+                        return false;
+                    }
+                    if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                        log.info("Circuit breaker half-open, probing endpoint: {}", endpoint);
+                    }
+                    continue;
+                case HALF_OPEN:
+                default:
+                    if (probeInFlight.compareAndSet(false, true)) {
+                        return true;
+                    }
+                    rejectedCount.incrementAndGet();
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * 是否允许建连（只检查，不占用探测资格）
+     */
+    public boolean isCallPermitted() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAtNanos >= openDurationNanos;
+            case HALF_OPEN -> !probeInFlight.get();
+        };
+    }
+
+    /**
+     * 建连成功
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        State previous = state.getAndSet(State.CLOSED);
+        probeInFlight.set(false);
+        if (previous != State.CLOSED) {
+            log.info("Circuit breaker closed, endpoint recovered: {}", endpoint);
+        }
+    }
+
+    /**
+     * 建连失败
+     */
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (failureThreshold > 0 && failures >= failureThreshold) {
+            open(State.CLOSED);
+        }
+        probeInFlight.set(false);
+    }
+
+    /**
+     * 建连被取消（不计入成功或失败，释放探测资格）
+     */
+    public void onCancel() {
+        probeInFlight.set(false);
+    }
+
+    /**
+     * 获取当前状态（打开时长到期前不会自动变为半开）
+     */
+    @NonNull
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * 获取距离允许探测的剩余时间（毫秒）
+     */
+    public long getRetryAfterMillis() {
+        if (state.get() != State.OPEN) {
+            return 0;
+        }
+        long remaining = openDurationNanos - (System.nanoTime() - openedAtNanos);
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(remaining), 0);
+    }
+
+    /**
+     * 获取连续失败次数
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * 获取打开次数
+     */
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * 获取被拒绝的建连数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void open(@NonNull State expected) {
+        openedAtNanos = System.nanoTime();
+        if (state.compareAndSet(expected, State.OPEN)) {
+            openCount.incrementAndGet();
+            log.warn("Circuit breaker opened after {} consecutive failures, endpoint: {}, open for {}ms",
+                    consecutiveFailures.get(), endpoint, TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.brgroup.cybotstar.core.connection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 服务端选择器
+ * 新建连接（包括重连）时按负载均衡策略选择服务端，跳过被熔断摘除的服务端；
+ * 只有一个服务端时等同于单地址模式（熔断器即该地址的熔断器）
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+public class EndpointSelector {
+
+    @NonNull
+    private final List<Endpoint> endpoints;
+
+    @NonNull
+    private final LoadBalanceStrategy strategy;
+
+    // 轮转起点（负载相同时避免总是选中第一个服务端）
+    private final AtomicInteger cursor = new AtomicInteger(0);
+
+    // 延迟评分单位（毫秒）
+    private static final double LATENCY_SCORE_UNIT_MILLIS = 100.0;
+
+    /**
+     * @param urls             服务端地址
+     * @param strategy         负载均衡策略
+     * @param failureThreshold 连续建连失败多少次后摘除，0 表示不摘除
+     * @param cooldownMillis   摘除后的冷却时间（毫秒）
+     */
+    public EndpointSelector(@NonNull List<String> urls, @NonNull LoadBalanceStrategy strategy,
+                            int failureThreshold, long cooldownMillis) {
+        this.endpoints = urls.stream()
+                .map(url -> new Endpoint(url, failureThreshold, cooldownMillis))
+                .toList();
+        this.strategy = strategy;
+        log.debug("EndpointSelector initialized, endpoints: {}, strategy: {}", urls, strategy);
+    }
+
+    /**
+     * 选择服务端并占用一次建连许可
+     * 调用方必须在建连结束后通知所选服务端的熔断器
+     *
+     * @return 所选服务端，全部被摘除时返回 null
+     */
+    @Nullable
+    public Endpoint select() {
+        int size = endpoints.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            Endpoint only = endpoints.get(0);
+            return only.getCircuitBreaker().tryAcquirePermission() ? only : null;
+        }
+
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        boolean[] tried = new boolean[size];
+        for (int attempt = 0; attempt < size; attempt++) {
+            int best = -1;
+            double bestScore = Double.MAX_VALUE;
+            for (int offset = 0; offset < size; offset++) {
+                int i = (start + offset) % size;
+                Endpoint endpoint = endpoints.get(i);
+                if (tried[i] || !endpoint.isAvailable()) {
+                    continue;
+                }
+                double score = score(endpoint);
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return null;
+            }
+            // 并发下可能被其他连接抢走半开探测资格，换下一个
+            tried[best] = true;
+            Endpoint candidate = endpoints.get(best);
+            if (candidate.getCircuitBreaker().tryAcquirePermission()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否有可用的服务端
+     */
+    public boolean isAvailable() {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取最早恢复探测的剩余时间（毫秒）
+     */
+    public long getRetryAfterMillis() {
+        if (endpoints.isEmpty()) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            min = Math.min(min, endpoint.getCircuitBreaker().getRetryAfterMillis());
+        }
+        return min;
+    }
+
+    /**
+     * 获取所有服务端地址（用于日志与错误信息）
+     */
+    @NonNull
+    public String getUrls() {
+        return endpoints.stream().map(Endpoint::getUrl).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 获取所有服务端
+     */
+    @NonNull
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 获取被熔断摘除的服务端数
+     */
+    public int getEjectedCount() {
+        int count = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.getCircuitBreaker().getState() == EndpointCircuitBreaker.State.OPEN) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取描述字符串（用于日志与健康检查）
+     */
+    @NonNull
+    public String getSummary() {
+        return endpoints.stream().map(Endpoint::toString).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 服务端评分（越小越好）
+     * 未完成请求数相同时，连接数较少者优先
+     */
+    private double score(@NonNull Endpoint endpoint) {
+        double load = endpoint.getOutstanding() + endpoint.getConnections() / (double) (endpoint.getConnections() + 1);
+        if (strategy == LoadBalanceStrategy.LATENCY_WEIGHTED) {
+            return (load + 1) * (1 + Math.max(endpoint.getRttEwmaMillis(), 0) / LATENCY_SCORE_UNIT_MILLIS);
+        }
+        return load;
+    }
+}
@@ -0,0 +1,67 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 入站帧缓冲区池
+ * PARALLEL 模式下读线程把帧复制到池中的数组再交给执行通道，解码后归还，不再为每帧分配新数组；
+ * 超过缓冲区大小的帧使用临时数组，不归还
+ *
+ * @author zhiyuan.xi
+ */
+final class FrameBufferPool {
+
+    // 缓冲区大小（字节）
+    private final int bufferSize;
+
+    // 最多保留的空闲缓冲区数
+    private final int capacity;
+
+    private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pooled = new AtomicInteger(0);
+
+    FrameBufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 获取至少能容纳 length 字节的数组，使用完后调用 {@link #release(byte[])}
+     */
+    byte @NonNull [] acquire(int length) {
+        if (length > bufferSize) {
+            return new byte[length];
+        }
+        byte[] buffer = free.poll();
+        if (buffer == null) {
+            return new byte[bufferSize];
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * 归还数组，池已满或不是池中大小的数组直接丢弃
+     */
+    void release(byte @NonNull [] buffer) {
+        if (buffer.length != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() > capacity) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+
+    /**
+     * 获取空闲缓冲区数
+     */
+    int getPooled() {
+        return pooled.get();
+    }
+}
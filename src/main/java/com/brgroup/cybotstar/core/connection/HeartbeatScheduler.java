@@ -0,0 +1,191 @@
+package com.brgroup.cybotstar.core.connection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 心跳调度器（哈希时间轮）
+ * 进程内所有连接的心跳由同一个守护线程驱动，每个 tick 只访问一个槽位，
+ * 注册和取消均为 O(1)，避免每条连接各自持有一个定时器
+ * <p>
+ * 任务在调度线程上执行，必须是非阻塞的
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+final class HeartbeatScheduler {
+
+    // tick 间隔（毫秒）
+    private static final long TICK_MILLIS = 100;
+
+    // 槽位数（2 的幂），一圈 51.2 秒，超过一圈的任务按轮数等待
+    private static final int WHEEL_SIZE = 512;
+
+    private static final HeartbeatScheduler SHARED = new HeartbeatScheduler(TICK_MILLIS, WHEEL_SIZE);
+
+    private final long tickNanos;
+
+    private final int mask;
+
+    // 时间轮槽位（仅调度线程访问）
+    private final ArrayDeque<Task>[] wheel;
+
+    // 待加入时间轮的任务
+    private final Queue<Task> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    // 已注册且未取消的任务数
+    private final AtomicInteger taskCount = new AtomicInteger(0);
+
+    // 当前 tick（仅调度线程访问）
+    private long tick;
+
+    private long startNanos;
+
+    /**
+     * 周期任务
+     */
+    static final class Task {
+
+        private final Runnable action;
+
+        private final long intervalTicks;
+
+        private final HeartbeatScheduler scheduler;
+
+        // 下次执行的 tick（仅调度线程访问）
+        private long deadlineTick;
+
+        // 调度线程与关闭连接的线程可能同时取消，只有第一次取消减少任务数
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        private Task(Runnable action, long intervalTicks, HeartbeatScheduler scheduler) {
+            this.action = action;
+            this.intervalTicks = intervalTicks;
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * 取消任务，调度线程在下次访问所在槽位时移除
+         */
+        void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                scheduler.taskCount.decrementAndGet();
+            }
+        }
+
+        boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    HeartbeatScheduler(long tickMillis, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of 2: " + wheelSize);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = wheelSize - 1;
+        this.wheel = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * 获取进程内共享的调度器
+     */
+    @NonNull
+    static HeartbeatScheduler shared() {
+        return SHARED;
+    }
+
+    /**
+     * 注册周期任务
+     *
+     * @param action         任务（非阻塞）
+     * @param intervalMillis 执行间隔（毫秒）
+     * @return 任务句柄，用于取消
+     */
+    @NonNull
+    Task schedule(@NonNull Runnable action, long intervalMillis) {
+        long intervalTicks = Math.max(1, (TimeUnit.MILLISECONDS.toNanos(intervalMillis) + tickNanos - 1) / tickNanos);
+        Task task = new Task(action, intervalTicks, this);
+        taskCount.incrementAndGet();
+        pending.offer(task);
+        start();
+        return task;
+    }
+
+    /**
+     * 获取已注册的任务数
+     */
+    int getTaskCount() {
+        return taskCount.get();
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            startNanos = System.nanoTime();
+            Thread worker = new Thread(this::run, "cybotstar-heartbeat");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos;
+            while ((sleepNanos = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            tick++;
+            transferPending();
+            expire(wheel[(int) (tick & mask)]);
+        }
+    }
+
+    private void transferPending() {
+        Task task;
+        while ((task = pending.poll()) != null) {
+            if (!task.isCancelled()) {
+                task.deadlineTick = tick + task.intervalTicks;
+                wheel[(int) (task.deadlineTick & mask)].add(task);
+            }
+        }
+    }
+
+    private void expire(@NonNull ArrayDeque<Task> bucket) {
+        int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            Task task = bucket.poll();
+            if (task.isCancelled()) {
+                continue;
+            }
+            if (task.deadlineTick > tick) {
+                // 尚未到期（还需等待若干圈）
+                bucket.add(task);
+                continue;
+            }
+            try {
+                task.action.run();
+            } catch (Throwable e) {
+                log.debug("Heartbeat task failed", e);
+            }
+            if (!task.isCancelled()) {
+                task.deadlineTick = tick + task.intervalTicks;
+                wheel[(int) (task.deadlineTick & mask)].add(task);
+            }
+        }
+    }
+}
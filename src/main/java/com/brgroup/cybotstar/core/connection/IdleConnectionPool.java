@@ -0,0 +1,127 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.exception.ErrorRecoveryStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 预热连接池
+ * 独占连接模式下预先建立 minIdle 条空闲连接，新会话直接取用已完成握手的连接，
+ * 取用或失效后异步补足。空闲连接由心跳保活
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+class IdleConnectionPool implements AutoCloseable {
+
+    private final int minIdle;
+
+    @NonNull
+    private final Supplier<WebSocketConnection> connectionFactory;
+
+    // 补充失败后的重试间隔
+    @NonNull
+    private final Duration refillDelay;
+
+    private final Deque<WebSocketConnection> idle = new ConcurrentLinkedDeque<>();
+
+    // 正在建立的连接数
+    private final AtomicInteger pending = new AtomicInteger(0);
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    IdleConnectionPool(int minIdle, @NonNull Supplier<WebSocketConnection> connectionFactory,
+                       @NonNull Duration refillDelay) {
+        this.minIdle = minIdle;
+        this.connectionFactory = connectionFactory;
+        this.refillDelay = refillDelay;
+    }
+
+    /**
+     * 补足空闲连接
+     *
+     * @return 本次发起的建连全部结束后完成（失败不报错）
+     */
+    @NonNull
+    Mono<Void> fill() {
+        return Flux.defer(() -> {
+                    int missing = minIdle - idle.size() - pending.get();
+                    return missing > 0 ? Flux.range(0, missing) : Flux.empty();
+                })
+                .flatMap(i -> open())
+                .then();
+    }
+
+    /**
+     * 取出一条已连接的空闲连接，没有时返回 null，并异步补足
+     */
+    @Nullable
+    WebSocketConnection poll() {
+        WebSocketConnection connection;
+        while ((connection = idle.poll()) != null) {
+            if (connection.isConnected()) {
+                break;
+            }
+            // 空闲期间断开且正在重连的连接直接丢弃
+            connection.close();
+        }
+        if (!closed.get()) {
+            fill().subscribe();
+        }
+        return connection;
+    }
+
+    /**
+     * 获取空闲连接数
+     */
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            WebSocketConnection connection;
+            while ((connection = idle.poll()) != null) {
+                connection.close();
+            }
+            log.debug("IdleConnectionPool closed");
+        }
+    }
+
+    @NonNull
+    private Mono<Void> open() {
+        pending.incrementAndGet();
+        WebSocketConnection connection = connectionFactory.get();
+        return connection.connect()
+                .retryWhen(ErrorRecoveryStrategy.connectionRetry())
+                .doOnSuccess(v -> {
+                    if (closed.get()) {
+                        connection.close();
+                        return;
+                    }
+                    idle.offer(connection);
+                    log.debug("Warm connection ready, idle connections: {}", idle.size());
+                })
+                .doOnError(error -> {
+                    connection.close();
+                    log.warn("Failed to open warm connection, retrying in {}ms: {}",
+                            refillDelay.toMillis(), error.getMessage());
+                    if (!closed.get()) {
+                        Mono.delay(refillDelay).then(fill()).subscribe();
+                    }
+                })
+                .doFinally(signal -> pending.decrementAndGet())
+                .onErrorResume(error -> Mono.empty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * 在途请求
+ * 连接自动重连成功后，尚未完成的请求会被重新发送；重发后服务端从头推送，
+ * 已交付的流式片段按 index 去重，调用方看到的仍是一条连续的流
+ *
+ * @author zhiyuan.xi
+ */
+public final class InFlightRequest {
+
+    @NonNull
+    private final String sessionId;
+
+    @NonNull
+    private final WSPayload payload;
+
+    // 已交付的最大片段序号，尚未交付时为 -1
+    private volatile int lastIndex = -1;
+
+    // 重发后、尚未收到新片段前（丢弃重复的特殊帧，如思考过程、联网搜索结果）
+    private volatile boolean replaying;
+
+    // 重发次数
+    private volatile int resumes;
+
+    InFlightRequest(@NonNull String sessionId, @NonNull WSPayload payload) {
+        this.sessionId = sessionId;
+        this.payload = payload;
+    }
+
+    @NonNull
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    @NonNull
+    WSPayload getPayload() {
+        return payload;
+    }
+
+    /**
+     * 获取重发次数
+     */
+    public int getResumes() {
+        return resumes;
+    }
+
+    /**
+     * 标记请求已重发
+     */
+    void resumed() {
+        resumes++;
+        replaying = lastIndex >= 0;
+    }
+
+    /**
+     * 判断响应帧是否应交付给调用方
+     * 只应由该请求的订阅者调用
+     *
+     * @return 重复帧返回 false
+     */
+    public boolean accept(@NonNull InboundFrame frame) {
+        Integer index = frame.getIndex();
+        if (index == null || frame.isFinished()) {
+            return true;
+        }
+        if (index < 0) {
+            return !replaying;
+        }
+        if (index <= lastIndex) {
+            return false;
+        }
+        lastIndex = index;
+        replaying = false;
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 入站缓冲
+ * 为每个订阅者提供独立的有界缓冲区，溢出时按 {@link InboundOverflowPolicy} 处理，
+ * 并统计缓冲深度与丢帧数
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+class InboundBuffer {
+
+    private final int maxFrames;
+
+    @NonNull
+    private final InboundOverflowPolicy policy;
+
+    // 暂停 / 恢复底层读取
+    @NonNull
+    private final Runnable pauseReading;
+
+    @NonNull
+    private final Runnable resumeReading;
+
+    // 所有订阅者缓冲中的帧数
+    private final AtomicLong bufferedFrames = new AtomicLong(0);
+
+    // 因 DROP_OLDEST 丢弃的帧数
+    private final AtomicLong droppedFrames = new AtomicLong(0);
+
+    // 因 FAIL 结束的消息流数
+    private final AtomicLong overflowErrors = new AtomicLong(0);
+
+    // 因 PAUSE_READ 暂停读取的次数
+    private final AtomicLong readPauses = new AtomicLong(0);
+
+    InboundBuffer(int maxFrames, @NonNull InboundOverflowPolicy policy,
+                  @NonNull Runnable pauseReading, @NonNull Runnable resumeReading) {
+        if (maxFrames <= 0) {
+            throw new IllegalArgumentException("maxFrames must be positive: " + maxFrames);
+        }
+        this.maxFrames = maxFrames;
+        this.policy = policy;
+        this.pauseReading = pauseReading;
+        this.resumeReading = resumeReading;
+    }
+
+    /**
+     * 为消息流的每个订阅者加上有界缓冲
+     */
+    @NonNull
+    <T> Flux<T> buffer(@NonNull Flux<T> source) {
+        return Flux.defer(() -> {
+            // 当前订阅者的缓冲深度
+            AtomicInteger depth = new AtomicInteger(0);
+            AtomicBoolean paused = new AtomicBoolean(false);
+            AtomicBoolean dropWarned = new AtomicBoolean(false);
+
+            Flux<T> counted = source.doOnNext(item -> {
+                bufferedFrames.incrementAndGet();
+                if (depth.incrementAndGet() >= maxFrames
+                        && policy == InboundOverflowPolicy.PAUSE_READ
+                        && paused.compareAndSet(false, true)) {
+                    readPauses.incrementAndGet();
+                    log.debug("Inbound buffer full ({} frames), pausing socket reads", maxFrames);
+                    pauseReading.run();
+                }
+            });
+
+            Flux<T> buffered = switch (policy) {
+                // 读取暂停后仍可能有少量已读取的帧到达，缓冲区不设硬上限
+                case PAUSE_READ -> counted.onBackpressureBuffer();
+                case DROP_OLDEST -> counted.onBackpressureBuffer(maxFrames, dropped -> {
+                    depth.decrementAndGet();
+                    bufferedFrames.decrementAndGet();
+                    droppedFrames.incrementAndGet();
+                    if (dropWarned.compareAndSet(false, true)) {
+                        log.warn("Inbound buffer overflow ({} frames), dropping oldest frames", maxFrames);
+                    }
+                }, BufferOverflowStrategy.DROP_OLDEST);
+                case FAIL -> counted.onBackpressureBuffer(maxFrames, BufferOverflowStrategy.ERROR)
+                        .onErrorMap(Exceptions::isOverflow, error -> {
+                            overflowErrors.incrementAndGet();
+                            return AgentException.requestFailed(
+                                    "入站缓冲区溢出 (" + maxFrames + " 帧)，消费速度跟不上服务端推送", error);
+                        });
+            };
+
+            return buffered
+                    .doOnNext(item -> {
+                        bufferedFrames.decrementAndGet();
+                        // 消费到低水位后恢复读取
+                        if (depth.decrementAndGet() <= maxFrames / 2 && paused.compareAndSet(true, false)) {
+                            log.debug("Inbound buffer drained, resuming socket reads");
+                            resumeReading.run();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        bufferedFrames.addAndGet(-depth.getAndSet(0));
+                        if (paused.compareAndSet(true, false)) {
+                            resumeReading.run();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 获取缓冲中的帧数
+     */
+    long getBufferedFrames() {
+        return bufferedFrames.get();
+    }
+
+    /**
+     * 获取丢弃的帧数
+     */
+    long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * 获取因溢出失败的消息流数
+     */
+    long getOverflowErrors() {
+        return overflowErrors.get();
+    }
+
+    /**
+     * 获取暂停读取的次数
+     */
+    long getReadPauses() {
+        return readPauses.get();
+    }
+}
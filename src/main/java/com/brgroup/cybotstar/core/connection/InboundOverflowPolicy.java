@@ -0,0 +1,25 @@
+package com.brgroup.cybotstar.core.connection;
+
+/**
+ * 入站缓冲区溢出策略
+ * 订阅者消费速度跟不上入站帧时的处理方式
+ *
+ * @author zhiyuan.xi
+ */
+public enum InboundOverflowPolicy {
+    /**
+     * 暂停读取底层连接，由 TCP 流控向服务端施加背压，不丢帧
+     * 共享连接模式下会同时阻塞该连接上的其他会话
+     */
+    PAUSE_READ,
+
+    /**
+     * 丢弃最早缓冲的帧
+     */
+    DROP_OLDEST,
+
+    /**
+     * 以错误结束该订阅者的消息流（请求失败）
+     */
+    FAIL
+}
@@ -0,0 +1,19 @@
+package com.brgroup.cybotstar.core.connection;
+
+/**
+ * 多服务端负载均衡策略
+ * 配置多个 websocket.urls 时，新建连接按该策略选择服务端
+ *
+ * @author zhiyuan.xi
+ */
+public enum LoadBalanceStrategy {
+    /**
+     * 选择未完成请求最少的服务端，相同时选择连接数较少的
+     */
+    LEAST_OUTSTANDING,
+
+    /**
+     * 按未完成请求数和心跳往返时间综合评分，优先选择负载低且延迟小的服务端
+     */
+    LATENCY_WEIGHTED
+}
@@ -0,0 +1,231 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.connection.transport.TransportSession;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 出站写队列
+ * 多生产者单消费者：任意线程入队，同一时刻只有一个线程负责排空队列并批量交给传输层，
+ * 入队顺序即写出顺序。传输层缓冲超过上限时发送方等待，超时后失败
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+class OutboundQueue {
+
+    // 单批最多帧数
+    private static final int MAX_BATCH = 64;
+
+    // 缓冲区满时检查容量的间隔
+    private static final Duration CAPACITY_POLL_INTERVAL = Duration.ofMillis(10);
+
+    @NonNull
+    private final Supplier<TransportSession> sessionSupplier;
+
+    // 缓冲上限（字节，按字符数估算），不大于 0 时不限制
+    private final long bufferLimit;
+
+    private final Queue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+
+    // 排空循环计数（0 表示无线程在排空）
+    private final AtomicInteger wip = new AtomicInteger(0);
+
+    // 队列中的帧数 / 字节数
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private final AtomicLong queuedBytes = new AtomicLong(0);
+
+    // 写出统计
+    private final AtomicLong writtenFrames = new AtomicLong(0);
+    private final AtomicLong writtenBatches = new AtomicLong(0);
+    private final AtomicLong totalLatencyNanos = new AtomicLong(0);
+    private final AtomicLong maxLatencyNanos = new AtomicLong(0);
+    private final AtomicLong backpressureWaits = new AtomicLong(0);
+
+    /**
+     * 待写出的帧
+     *
+     * @param text          帧内容
+     * @param enqueuedNanos 入队时间
+     * @param sink          交给传输层后完成（心跳等无需回执的帧为 null）
+     */
+    private record PendingWrite(String text, long enqueuedNanos, @Nullable MonoSink<Void> sink) {
+    }
+
+    OutboundQueue(@NonNull Supplier<TransportSession> sessionSupplier, long bufferLimit) {
+        this.sessionSupplier = sessionSupplier;
+        this.bufferLimit = bufferLimit;
+    }
+
+    /**
+     * 等待缓冲区有空间
+     *
+     * @param timeout 最长等待时间
+     */
+    @NonNull
+    Mono<Void> awaitCapacity(@NonNull Duration timeout) {
+        if (hasCapacity()) {
+            return Mono.empty();
+        }
+        backpressureWaits.incrementAndGet();
+        log.debug("Outbound buffer above limit ({} bytes), waiting for capacity", bufferLimit);
+        return Mono.fromCallable(this::hasCapacity)
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(repeat -> repeat.delayElements(CAPACITY_POLL_INTERVAL))
+                .timeout(timeout, Mono.error(() -> AgentException.sendFailed(
+                        "发送缓冲区已满，等待 " + timeout.toMillis() + "ms 后仍无空间")))
+                .then();
+    }
+
+    /**
+     * 入队（不触发写出，调用方随后调用 {@link #drain()}）
+     *
+     * @param text 帧内容
+     * @param sink 交给传输层后的回执
+     */
+    void offer(@NonNull String text, @Nullable MonoSink<Void> sink) {
+        queue.offer(new PendingWrite(text, System.nanoTime(), sink));
+        depth.incrementAndGet();
+        queuedBytes.addAndGet(text.length());
+    }
+
+    /**
+     * 排空队列
+     * 已有线程在排空时直接返回，由该线程继续写出新入队的帧
+     */
+    void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        List<PendingWrite> batch = new ArrayList<>();
+        do {
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                batch.add(write);
+                if (batch.size() == MAX_BATCH) {
+                    flush(batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void flush(@NonNull List<PendingWrite> batch) {
+        long bytes = 0;
+        List<String> frames = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            frames.add(write.text());
+            bytes += write.text().length();
+        }
+        depth.addAndGet(-batch.size());
+        queuedBytes.addAndGet(-bytes);
+
+        try {
+            TransportSession session = sessionSupplier.get();
+            if (session == null || !session.isOpen()) {
+                throw AgentException.sendFailed("WebSocket 未连接");
+            }
+            session.send(frames);
+
+            long now = System.nanoTime();
+            for (PendingWrite write : batch) {
+                long latency = now - write.enqueuedNanos();
+                totalLatencyNanos.addAndGet(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                if (write.sink() != null) {
+                    write.sink().success();
+                }
+            }
+            writtenFrames.addAndGet(batch.size());
+            writtenBatches.incrementAndGet();
+        } catch (Exception e) {
+            AgentException error = e instanceof AgentException agentException
+                    ? agentException
+                    : AgentException.sendFailed("发送消息失败", e);
+            log.debug("Failed to write {} outbound frames: {}", batch.size(), e.getMessage());
+            for (PendingWrite write : batch) {
+                if (write.sink() != null) {
+                    write.sink().error(error);
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 缓冲是否未超过上限
+     */
+    private boolean hasCapacity() {
+        return bufferLimit <= 0 || getBufferedAmount() < bufferLimit;
+    }
+
+    /**
+     * 获取已缓冲的字节数（写队列 + 传输层缓冲）
+     */
+    long getBufferedAmount() {
+        TransportSession session = sessionSupplier.get();
+        return queuedBytes.get() + (session != null ? session.bufferedAmount() : 0);
+    }
+
+    /**
+     * 获取队列中的帧数
+     */
+    int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * 获取已写出的帧数
+     */
+    long getWrittenFrames() {
+        return writtenFrames.get();
+    }
+
+    /**
+     * 获取平均每批写出的帧数
+     */
+    double getAverageBatchSize() {
+        long batches = writtenBatches.get();
+        return batches == 0 ? 0 : (double) writtenFrames.get() / batches;
+    }
+
+    /**
+     * 获取入队到交给传输层的平均延迟（微秒）
+     */
+    long getAverageLatencyMicros() {
+        long frames = writtenFrames.get();
+        return frames == 0 ? 0 : totalLatencyNanos.get() / frames / 1000;
+    }
+
+    /**
+     * 获取入队到交给传输层的最大延迟（微秒）
+     */
+    long getMaxLatencyMicros() {
+        return maxLatencyNanos.get() / 1000;
+    }
+
+    /**
+     * 获取因缓冲区满而等待的次数
+     */
+    long getBackpressureWaits() {
+        return backpressureWaits.get();
+    }
+}
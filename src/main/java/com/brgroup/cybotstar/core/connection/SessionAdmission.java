@@ -0,0 +1,169 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 会话准入控制
+ * 会话数达到上限时，新会话进入有界的先进先出等待队列，超过截止时间仍未获得名额则失败；
+ * 有会话等待时通知调用方淘汰空闲会话腾出名额
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+class SessionAdmission {
+
+    // 最大会话数
+    private final int maxSessions;
+
+    // 最大等待数
+    private final int maxWaiters;
+
+    @NonNull
+    private final MetricsCollector metrics;
+
+    // 有会话进入等待时的回调（淘汰空闲会话）
+    @NonNull
+    private final Runnable onWait;
+
+    // 等待队列（按到达顺序分配名额）
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+    // 已占用的名额
+    private int used;
+
+    /**
+     * 等待中的会话
+     */
+    private static final class Waiter {
+        private final MonoSink<Void> sink;
+        private final long enqueuedNanos = System.nanoTime();
+        // 已分配名额（由 SessionAdmission 锁保护）
+        private boolean granted;
+
+        private Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+
+    SessionAdmission(int maxSessions, int maxWaiters, @NonNull MetricsCollector metrics, @NonNull Runnable onWait) {
+        this.maxSessions = maxSessions;
+        this.maxWaiters = Math.max(maxWaiters, 0);
+        this.metrics = metrics;
+        this.onWait = onWait;
+    }
+
+    /**
+     * 申请一个会话名额
+     * 有空闲名额且无人等待时立即完成，否则排队等待，超时或队列已满时失败
+     *
+     * @param timeout 最长等待时间
+     */
+    @NonNull
+    Mono<Void> acquire(@NonNull Duration timeout) {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                if (waiters.isEmpty() && used < maxSessions) {
+                    used++;
+                    return Mono.<Void>empty();
+                }
+                if (waiters.size() >= maxWaiters) {
+                    metrics.recordAdmissionRejected();
+                    log.warn("Session count limit reached: {}, admission queue full: {}", maxSessions, maxWaiters);
+                    return Mono.<Void>error(new IllegalStateException(
+                            "Maximum session count reached: " + maxSessions));
+                }
+            }
+            return Mono.<Void>create(sink -> {
+                        Waiter waiter = new Waiter(sink);
+                        sink.onCancel(() -> cancel(waiter));
+                        synchronized (this) {
+                            waiters.offer(waiter);
+                        }
+                        onWait.run();
+                        // 入队前后可能已有名额释放
+                        grantWaiters();
+                    })
+                    .timeout(timeout, Mono.error(() -> {
+                        metrics.recordAdmissionTimeout();
+                        log.warn("Session admission timed out after {}ms, limit: {}", timeout.toMillis(), maxSessions);
+                        return new IllegalStateException("Maximum session count reached: " + maxSessions
+                                + ", no session freed within " + timeout.toMillis() + "ms");
+                    }));
+        });
+    }
+
+    /**
+     * 归还一个会话名额
+     */
+    void release() {
+        synchronized (this) {
+            if (used > 0) {
+                used--;
+            }
+        }
+        grantWaiters();
+    }
+
+    /**
+     * 获取已占用的名额
+     */
+    synchronized int getUsed() {
+        return used;
+    }
+
+    /**
+     * 获取等待中的会话数
+     */
+    synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    /**
+     * 获取最大会话数
+     */
+    int getMaxSessions() {
+        return maxSessions;
+    }
+
+    private void grantWaiters() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            while (used < maxSessions && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                waiter.granted = true;
+                used++;
+                granted.add(waiter);
+            }
+        }
+        for (Waiter waiter : granted) {
+            metrics.recordAdmissionWait(System.nanoTime() - waiter.enqueuedNanos);
+            waiter.sink.success();
+        }
+    }
+
+    /**
+     * 等待被取消（超时或订阅者取消）
+     * 取消前已分配到的名额交给下一个等待者
+     */
+    private void cancel(@NonNull Waiter waiter) {
+        boolean granted;
+        synchronized (this) {
+            granted = waiter.granted;
+            if (!granted) {
+                waiters.remove(waiter);
+            }
+        }
+        if (granted) {
+            release();
+        }
+    }
+}
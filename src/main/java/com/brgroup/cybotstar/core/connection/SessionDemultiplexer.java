@@ -0,0 +1,240 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import com.brgroup.cybotstar.core.model.common.ResponseIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 会话多路分发器
+ * 共享连接模式下，将同一条 WebSocket 上的入站帧路由到对应会话
+ * <p>
+ * 路由顺序：
+ * 1. 帧中携带 segment_code 时直接路由
+ * 2. 提问确认帧（index = -1）按发送顺序绑定 dialog_id 与会话
+ * 3. 其余帧按已绑定的 dialog_id 路由，尚未绑定时仅在只有一个会话等待确认时归属该会话，否则丢弃
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+class SessionDemultiplexer {
+
+    // 会话消息流
+    private final Map<String, Sinks.Many<InboundFrame>> sessionSinks = new ConcurrentHashMap<>();
+
+    // dialog_id -> sessionId
+    private final Map<String, String> dialogBindings = new ConcurrentHashMap<>();
+
+    // sessionId -> 当前 dialog_id（每个会话仅保留最近一轮的绑定）
+    private final Map<String, String> sessionDialogs = new ConcurrentHashMap<>();
+
+    // 已发送、等待服务端确认 dialog_id 的会话（服务端按到达顺序确认）
+    private final ConcurrentLinkedQueue<String> pendingConfirmations = new ConcurrentLinkedQueue<>();
+
+    // 无法路由的帧数量
+    private final AtomicLong unroutedFrames = new AtomicLong(0);
+
+    /**
+     * 获取会话帧流
+     */
+    @NonNull
+    Flux<InboundFrame> frames(@NonNull String sessionId) {
+        return sessionSinks.computeIfAbsent(sessionId, id -> newSink()).asFlux();
+    }
+
+    /**
+     * 绑定会话
+     */
+    void attach(@NonNull String sessionId) {
+        sessionSinks.computeIfAbsent(sessionId, id -> newSink());
+    }
+
+    /**
+     * 解绑会话
+     */
+    void detach(@NonNull String sessionId) {
+        Sinks.Many<InboundFrame> sink = sessionSinks.remove(sessionId);
+        if (sink != null) {
+            sink.tryEmitComplete();
+        }
+        String dialogId = sessionDialogs.remove(sessionId);
+        if (dialogId != null) {
+            dialogBindings.remove(dialogId);
+        }
+        pendingConfirmations.remove(sessionId);
+    }
+
+    /**
+     * 会话是否仍绑定在该连接上
+     */
+    boolean isAttached(@NonNull String sessionId) {
+        return sessionSinks.containsKey(sessionId);
+    }
+
+    /**
+     * 记录已发送的请求
+     */
+    void onSend(@Nullable String segmentCode) {
+        if (segmentCode != null && sessionSinks.containsKey(segmentCode)) {
+            pendingConfirmations.offer(segmentCode);
+        }
+    }
+
+    /**
+     * 路由入站帧
+     */
+    void route(@NonNull InboundFrame frame) {
+        String dialogId = resolveDialogId(frame);
+        String sessionId = resolveSession(frame, dialogId);
+        Sinks.Many<InboundFrame> sink = sessionId != null ? sessionSinks.get(sessionId) : null;
+        if (sink == null) {
+            unroutedFrames.incrementAndGet();
+            log.debug("Dropping unroutable frame, dialog_id: {}, index: {}", dialogId, frame.getIndex());
+            return;
+        }
+
+        Sinks.EmitResult result = sink.tryEmitNext(frame);
+        if (result.isFailure()
+                && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER
+                && result != Sinks.EmitResult.FAIL_TERMINATED) {
+            log.warn("Failed to emit message for session: {}, result: {}", sessionId, result);
+        }
+    }
+
+    /**
+     * 向所有会话广播错误
+     * 已结束的消息流随即移除，之后再获取会话帧流时重新创建
+     */
+    void error(@NonNull Throwable error) {
+        terminate(sink -> sink.tryEmitError(error));
+    }
+
+    /**
+     * 完成所有会话消息流
+     */
+    void complete() {
+        terminate(Sinks.Many::tryEmitComplete);
+    }
+
+    private void terminate(@NonNull Consumer<Sinks.Many<InboundFrame>> signal) {
+        for (String sessionId : sessionSinks.keySet()) {
+            Sinks.Many<InboundFrame> sink = sessionSinks.remove(sessionId);
+            if (sink != null) {
+                signal.accept(sink);
+            }
+        }
+        dialogBindings.clear();
+        sessionDialogs.clear();
+        pendingConfirmations.clear();
+    }
+
+    /**
+     * 获取已绑定会话数
+     */
+    int getSessionCount() {
+        return sessionSinks.size();
+    }
+
+    /**
+     * 获取无法路由的帧数量
+     */
+    long getUnroutedFrames() {
+        return unroutedFrames.get();
+    }
+
+    @Nullable
+    private String resolveSession(@NonNull InboundFrame frame, @Nullable String dialogId) {
+        Integer index = frame.getIndex();
+        boolean confirmation = index != null && index == ResponseIndex.MESSAGE_CONFIRMED.getValue();
+
+        String segmentCode = frame.getSegmentCode();
+        if (segmentCode != null && sessionSinks.containsKey(segmentCode)) {
+            if (confirmation) {
+                pendingConfirmations.remove(segmentCode);
+                if (dialogId != null) {
+                    bind(dialogId, segmentCode);
+                }
+            }
+            return segmentCode;
+        }
+
+        if (confirmation) {
+            String sessionId = pendingConfirmations.poll();
+            if (sessionId != null && dialogId != null) {
+                bind(dialogId, sessionId);
+            }
+            return sessionId;
+        }
+
+        if (dialogId != null) {
+            String bound = dialogBindings.get(dialogId);
+            if (bound != null) {
+                return bound;
+            }
+        }
+
+        // 尚未确认 dialog_id 的帧（如线程信息）只在唯一一个会话等待确认时归属该会话，
+        // 多个会话同时等待时无法判断归属，丢弃而不是交给其他用户
+        if (!pendingConfirmations.isEmpty()) {
+            return solePending();
+        }
+
+        if (sessionSinks.size() == 1) {
+            return sessionSinks.keySet().iterator().next();
+        }
+        return null;
+    }
+
+    /**
+     * 获取唯一等待确认的会话，没有或有多个会话等待确认时返回 null
+     */
+    @Nullable
+    private String solePending() {
+        String sole = null;
+        for (String sessionId : pendingConfirmations) {
+            if (sole == null) {
+                sole = sessionId;
+            } else if (!sole.equals(sessionId)) {
+                return null;
+            }
+        }
+        return sole;
+    }
+
+    private void bind(@NonNull String dialogId, @NonNull String sessionId) {
+        String previous = sessionDialogs.put(sessionId, dialogId);
+        if (previous != null && !previous.equals(dialogId)) {
+            dialogBindings.remove(previous);
+        }
+        dialogBindings.put(dialogId, sessionId);
+    }
+
+    /**
+     * 解析 dialog_id（确认帧中位于 data 内，快速路径帧不含 data 对象）
+     */
+    @Nullable
+    private static String resolveDialogId(@NonNull InboundFrame frame) {
+        if (frame.getDialogId() != null || frame.isChunk()) {
+            return frame.getDialogId();
+        }
+        if (frame.response().getData() instanceof Map<?, ?> data) {
+            Object dialogId = data.get("dialog_id");
+            return dialogId != null ? dialogId.toString() : null;
+        }
+        return null;
+    }
+
+    @NonNull
+    private static Sinks.Many<InboundFrame> newSink() {
+        return Sinks.many().multicast().directBestEffort();
+    }
+}
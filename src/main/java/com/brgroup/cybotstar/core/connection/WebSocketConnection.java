@@ -1,32 +1,49 @@
 package com.brgroup.cybotstar.core.connection;
 
 import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.agent.exception.AgentErrorCode;
 import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.codec.JsonCodec;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import com.brgroup.cybotstar.core.connection.transport.TransportListener;
+import com.brgroup.cybotstar.core.connection.transport.TransportSession;
+import com.brgroup.cybotstar.core.connection.transport.WebSocketTransport;
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
 import com.brgroup.cybotstar.core.model.common.ConnectionState;
 import com.brgroup.cybotstar.core.model.common.ResponseType;
 import com.brgroup.cybotstar.core.model.ws.WSPayload;
 import com.brgroup.cybotstar.core.model.ws.WSResponse;
 import com.brgroup.cybotstar.core.util.CybotStarConstants;
 import com.brgroup.cybotstar.core.util.payload.PayloadBuilder;
-import com.alibaba.fastjson2.JSON;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
-import org.java_websocket.client.WebSocketClient;
-import org.java_websocket.handshake.ServerHandshake;
+import org.jspecify.annotations.Nullable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
-import java.net.URI;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 响应式 WebSocket 连接
- * 完全基于 Project Reactor 的 WebSocket 连接实现
+ * 完全基于 Project Reactor 的 WebSocket 连接实现，底层收发由 {@link WebSocketTransport} 完成
  *
  * @author zhiyuan.xi
  */
@@ -36,11 +53,69 @@ public class WebSocketConnection implements AutoCloseable {
     @NonNull
     private final AgentConfig config;
 
-    // WebSocket 客户端
-    private final AtomicReference<WebSocketClient> wsRef = new AtomicReference<>();
+    // 多路复用分发器（仅共享连接模式下存在）
+    private final SessionDemultiplexer demultiplexer;
 
-    // 消息流 Sink（使用 multicast 支持多个订阅者）
-    private final Sinks.Many<WSResponse> messageSink = Sinks.many()
+    // 传输层
+    @NonNull
+    private final WebSocketTransport transport;
+
+    // 共享上下文（重连配额、服务端选择器、指标）
+    @NonNull
+    private final ConnectionContext context;
+
+    // JSON 编解码器
+    @NonNull
+    private final JsonCodec codec;
+
+    // 当前底层连接
+    private final AtomicReference<TransportSession> sessionRef = new AtomicReference<>();
+
+    // 当前底层连接所在的服务端
+    private final AtomicReference<Endpoint> endpointRef = new AtomicReference<>();
+
+    // 当前底层连接上未完成的请求数（计入所在服务端的负载）
+    private final AtomicInteger outstandingRequests = new AtomicInteger(0);
+
+    // 各会话进行中的请求数（用于判断会话是否空闲）
+    private final Map<String, Integer> sessionRequests = new ConcurrentHashMap<>();
+
+    // 在途请求（自动重连成功后重新发送）
+    private final Set<InFlightRequest> inFlightRequests = ConcurrentHashMap.newKeySet();
+
+    // 当前底层连接的事件回调（主动放弃的连接不再回调）
+    private final AtomicReference<SessionListener> listenerRef = new AtomicReference<>();
+
+    // 入站缓冲（每个订阅者独立的有界缓冲区）
+    @NonNull
+    private final InboundBuffer inboundBuffer;
+
+    // 出站写队列
+    @NonNull
+    private final OutboundQueue outboundQueue;
+
+    // 缓冲区满时发送方的最长等待时间
+    @NonNull
+    private final Duration sendTimeout;
+
+    // 请求暂停读取的订阅者数
+    private final AtomicInteger readPauseRequests = new AtomicInteger(0);
+
+    // 入站帧执行通道（PARALLEL 模式），INLINE 模式下为 null
+    @Nullable
+    private final Scheduler.Worker dispatchLane;
+
+    // 排队等待解码与分发的帧数，超过上限后暂停读取，回落到一半后恢复
+    private final AtomicInteger dispatchQueued = new AtomicInteger(0);
+    private final AtomicBoolean dispatchPaused = new AtomicBoolean(false);
+    private final int dispatchQueueLimit;
+
+    // 交给执行通道的帧缓冲区（PARALLEL 模式），INLINE 模式下为 null
+    @Nullable
+    private final FrameBufferPool framePool;
+
+    // 消息流 Sink（使用 multicast 支持多个订阅者，背压由 inboundBuffer 处理）
+    private final Sinks.Many<InboundFrame> messageSink = Sinks.many()
             .multicast()
             .directBestEffort();  // 使用 directBestEffort 支持多个订阅者
 
@@ -59,12 +134,182 @@ public class WebSocketConnection implements AutoCloseable {
     // 重连尝试次数
     private final AtomicInteger reconnectAttempts = new AtomicInteger(0);
 
-    // 心跳流（用于取消订阅）
-    private final AtomicReference<reactor.core.Disposable> heartbeatDisposable =
-            new AtomicReference<>();
+    // 消息流是否已因错误结束
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+
+    // 最近一次传输层错误（重连放弃时作为原因交给订阅者）
+    private final AtomicReference<Throwable> lastTransportError = new AtomicReference<>();
+
+    // 心跳任务（由共享时间轮驱动）
+    private final AtomicReference<HeartbeatScheduler.Task> heartbeatTask = new AtomicReference<>();
+
+    // 最近一次收到数据的时间（纳秒）
+    private volatile long lastReceivedNanos = System.nanoTime();
+
+    // 已发送、等待响应的心跳（服务端按序响应）
+    private final Queue<Ping> pendingPings = new ConcurrentLinkedQueue<>();
+
+    // 心跳往返时间 EWMA（毫秒），尚无样本时为 -1
+    private volatile double rttEwmaMillis = -1;
+
+    // 连续未响应的心跳数
+    private final AtomicInteger missedHeartbeats = new AtomicInteger(0);
+
+    // 已发送 / 因近期有流量而跳过的心跳数
+    private final AtomicLong heartbeatsSent = new AtomicLong(0);
+    private final AtomicLong heartbeatsSuppressed = new AtomicLong(0);
+
+    // 因心跳超时判定为半开连接而强制重连的次数
+    private final AtomicLong heartbeatTimeouts = new AtomicLong(0);
+
+    // 走快速路径解码的帧数
+    private final AtomicLong fastPathFrames = new AtomicLong(0);
+
+    // RTT EWMA 平滑系数
+    private static final double RTT_EWMA_ALPHA = 0.2;
+
+    /**
+     * 已发送的心跳
+     */
+    private record Ping(long sentNanos) {
+    }
+
+    /**
+     * 单个底层连接的事件回调
+     * 连接被主动放弃（如半开重连）后 detach，迟到的关闭事件不再影响新连接
+     */
+    private final class SessionListener implements TransportListener {
+
+        private volatile boolean detached;
+
+        // 接收缓冲区（只由该底层连接的读线程使用，堆外帧复制到此处解析）
+        private byte[] receiveBuffer;
+
+        void detach() {
+            detached = true;
+        }
+
+        @Override
+        public void onText(@NonNull String text) {
+            if (!detached && !text.isEmpty()) {
+                handleMessage(text);
+            }
+        }
+
+        @Override
+        public void onBytes(@NonNull ByteBuffer utf8) {
+            int length = utf8.remaining();
+            if (detached || length == 0) {
+                return;
+            }
+            if (framePool != null) {
+                // 交给执行通道异步解码，复制到池中的数组，解码后归还
+                byte[] frame = framePool.acquire(length);
+                utf8.get(utf8.position(), frame, 0, length);
+                handleMessage(frame, 0, length);
+                return;
+            }
+            if (utf8.hasArray()) {
+                handleMessage(utf8.array(), utf8.arrayOffset() + utf8.position(), length);
+                return;
+            }
+            byte[] buffer = receiveBuffer(length);
+            utf8.get(utf8.position(), buffer, 0, length);
+            handleMessage(buffer, 0, length);
+        }
+
+        /**
+         * 获取至少能容纳 length 字节的接收缓冲区，超过保留上限的帧使用临时数组
+         */
+        private byte @NonNull [] receiveBuffer(int length) {
+            byte[] buffer = receiveBuffer;
+            if (buffer != null && buffer.length >= length) {
+                return buffer;
+            }
+            if (length > CybotStarConstants.RECEIVE_BUFFER_RETAIN_LIMIT) {
+                return new byte[length];
+            }
+            buffer = new byte[Math.max(CybotStarConstants.RECEIVE_BUFFER_SIZE, Integer.highestOneBit(length - 1) << 1)];
+            receiveBuffer = buffer;
+            return buffer;
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            if (detached) {
+                return;
+            }
+            log.debug("WebSocket connection closed, code: {}, reason: {}", code, reason);
+            handleClose();
+        }
+
+        @Override
+        public void onError(@NonNull Throwable error) {
+            if (detached) {
+                return;
+            }
+            log.error("WebSocket connection error", error);
+            handleError(error);
+        }
+    }
 
     public WebSocketConnection(@NonNull AgentConfig config) {
+        this(config, false);
+    }
+
+    /**
+     * @param config      客户端配置
+     * @param multiplexed 是否为多个会话共享的连接
+     */
+    public WebSocketConnection(@NonNull AgentConfig config, boolean multiplexed) {
+        this(new ConnectionContext(config), multiplexed);
+    }
+
+    /**
+     * @param config      客户端配置
+     * @param transport   传输层（可在多条连接间共享）
+     * @param multiplexed 是否为多个会话共享的连接
+     */
+    public WebSocketConnection(@NonNull AgentConfig config, @NonNull WebSocketTransport transport, boolean multiplexed) {
+        this(new ConnectionContext(config, transport, new MetricsCollector()), multiplexed);
+    }
+
+    /**
+     * @param context     共享上下文（传输层、重连配额、熔断器）
+     * @param multiplexed 是否为多个会话共享的连接
+     */
+    public WebSocketConnection(@NonNull ConnectionContext context, boolean multiplexed) {
+        AgentConfig config = context.getConfig();
         this.config = config;
+        this.context = context;
+        this.transport = context.getTransport();
+        this.codec = context.getCodec();
+        this.demultiplexer = multiplexed ? new SessionDemultiplexer() : null;
+
+        WebSocketProperties websocket = config.getWebsocket();
+        this.inboundBuffer = new InboundBuffer(
+                websocket.getInboundBufferSize() != null && websocket.getInboundBufferSize() > 0
+                        ? websocket.getInboundBufferSize()
+                        : CybotStarConstants.DEFAULT_INBOUND_BUFFER_SIZE,
+                websocket.getInboundOverflow() != null
+                        ? websocket.getInboundOverflow()
+                        : InboundOverflowPolicy.PAUSE_READ,
+                this::pauseReading,
+                this::resumeReading);
+        this.outboundQueue = new OutboundQueue(sessionRef::get,
+                websocket.getOutboundBufferLimit() != null
+                        ? websocket.getOutboundBufferLimit()
+                        : CybotStarConstants.DEFAULT_OUTBOUND_BUFFER_LIMIT);
+        this.sendTimeout = Duration.ofMillis(websocket.getSendTimeout() != null
+                ? websocket.getSendTimeout()
+                : CybotStarConstants.DEFAULT_SEND_TIMEOUT);
+        this.dispatchLane = websocket.getDispatchMode() == DispatchMode.PARALLEL ? DispatchStage.lane() : null;
+        this.framePool = dispatchLane != null
+                ? new FrameBufferPool(CybotStarConstants.RECEIVE_BUFFER_SIZE, CybotStarConstants.RECEIVE_BUFFER_POOL_SIZE)
+                : null;
+        this.dispatchQueueLimit = websocket.getInboundBufferSize() != null && websocket.getInboundBufferSize() > 0
+                ? websocket.getInboundBufferSize()
+                : CybotStarConstants.DEFAULT_INBOUND_BUFFER_SIZE;
     }
 
     /**
@@ -73,7 +318,257 @@ public class WebSocketConnection implements AutoCloseable {
      */
     @NonNull
     public Flux<WSResponse> messages() {
-        return messageSink.asFlux();
+        return frames().map(InboundFrame::response);
+    }
+
+    /**
+     * 获取指定会话的消息流
+     * 共享连接时只返回路由到该会话的消息，独占连接时等同于 {@link #messages()}
+     */
+    @NonNull
+    public Flux<WSResponse> messages(@NonNull String sessionId) {
+        return frames(sessionId).map(InboundFrame::response);
+    }
+
+    /**
+     * 获取帧流
+     * 流式片段帧不绑定完整响应，适合只需要片段文本的消费方
+     */
+    @NonNull
+    public Flux<InboundFrame> frames() {
+        return inboundBuffer.buffer(messageSink.asFlux());
+    }
+
+    /**
+     * 获取指定会话的帧流
+     */
+    @NonNull
+    public Flux<InboundFrame> frames(@NonNull String sessionId) {
+        return demultiplexer != null ? inboundBuffer.buffer(demultiplexer.frames(sessionId)) : frames();
+    }
+
+    /**
+     * 获取走快速路径解码的帧数
+     */
+    public long getFastPathFrames() {
+        return fastPathFrames.get();
+    }
+
+    /**
+     * 获取 JSON 编解码器
+     */
+    @NonNull
+    public JsonCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 是否为多个会话共享的连接
+     */
+    public boolean isMultiplexed() {
+        return demultiplexer != null;
+    }
+
+    /**
+     * 将会话绑定到此连接
+     */
+    public void attach(@NonNull String sessionId) {
+        if (demultiplexer != null) {
+            demultiplexer.attach(sessionId);
+        }
+    }
+
+    /**
+     * 解绑会话
+     * 共享连接只移除会话路由，独占连接直接关闭
+     */
+    public void detach(@NonNull String sessionId) {
+        sessionRequests.remove(sessionId);
+        if (demultiplexer != null) {
+            demultiplexer.detach(sessionId);
+            log.debug("Session detached from shared connection: {}, remaining: {}",
+                    sessionId, demultiplexer.getSessionCount());
+        } else {
+            close();
+        }
+    }
+
+    /**
+     * 获取绑定到此连接的会话数
+     */
+    public int getAttachedSessionCount() {
+        return demultiplexer != null ? demultiplexer.getSessionCount() : 0;
+    }
+
+    /**
+     * 检查是否已关闭
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 检查消息流是否已因错误结束（如重连放弃），此后连接不可再用于新会话
+     */
+    public boolean isFailed() {
+        return failed.get();
+    }
+
+    /**
+     * 获取已发送的心跳数
+     */
+    public long getHeartbeatsSent() {
+        return heartbeatsSent.get();
+    }
+
+    /**
+     * 获取因近期有流量而跳过的心跳数
+     */
+    public long getHeartbeatsSuppressed() {
+        return heartbeatsSuppressed.get();
+    }
+
+    /**
+     * 获取所有订阅者缓冲中的入站帧数
+     */
+    public long getBufferedFrames() {
+        return inboundBuffer.getBufferedFrames();
+    }
+
+    /**
+     * 获取因缓冲区溢出丢弃的入站帧数
+     */
+    public long getDroppedFrames() {
+        return inboundBuffer.getDroppedFrames();
+    }
+
+    /**
+     * 获取因缓冲区溢出而失败的消息流数
+     */
+    public long getOverflowErrors() {
+        return inboundBuffer.getOverflowErrors();
+    }
+
+    /**
+     * 获取因缓冲区满暂停读取的次数
+     */
+    public long getReadPauses() {
+        return inboundBuffer.getReadPauses();
+    }
+
+    /**
+     * 获取心跳往返时间 EWMA（毫秒），尚无样本时返回 -1
+     */
+    public double getRttEwmaMillis() {
+        return rttEwmaMillis;
+    }
+
+    /**
+     * 获取连续未响应的心跳数
+     */
+    public int getMissedHeartbeats() {
+        return missedHeartbeats.get();
+    }
+
+    /**
+     * 获取因心跳超时强制重连的次数
+     */
+    public long getHeartbeatTimeouts() {
+        return heartbeatTimeouts.get();
+    }
+
+    /**
+     * 获取延迟评分（越小越好）
+     * 以 RTT EWMA 为基础，每个未响应的心跳按一个心跳间隔计罚
+     */
+    public double getLatencyScore() {
+        double rtt = Math.max(rttEwmaMillis, 0);
+        int missed = missedHeartbeats.get();
+        if (missed == 0) {
+            return rtt;
+        }
+        Long interval = config.getWebsocket().getHeartbeatInterval();
+        return rtt + missed * (interval != null && interval > 0 ? interval : CybotStarConstants.DEFAULT_WS_TIMEOUT);
+    }
+
+    /**
+     * 获取当前连接所在的服务端，未连接时返回 null
+     */
+    @Nullable
+    public Endpoint getEndpoint() {
+        return endpointRef.get();
+    }
+
+    /**
+     * 获取未完成的请求数
+     */
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * 会话是否空闲（没有进行中的请求）
+     */
+    public boolean isIdle(@NonNull String sessionId) {
+        return !sessionRequests.containsKey(sessionId);
+    }
+
+    /**
+     * 标记一个请求开始（计入所在服务端的未完成请求数）
+     * 必须与 {@link #requestCompleted(String)} 成对调用
+     */
+    public void requestStarted(@NonNull String sessionId) {
+        synchronized (outstandingRequests) {
+            sessionRequests.merge(sessionId, 1, Integer::sum);
+            outstandingRequests.incrementAndGet();
+            Endpoint endpoint = endpointRef.get();
+            if (endpoint != null) {
+                endpoint.requestStarted();
+            }
+        }
+    }
+
+    /**
+     * 标记一个请求结束
+     * 请求期间连接已断开时，其计数已随连接一并释放
+     */
+    public void requestCompleted(@NonNull String sessionId) {
+        synchronized (outstandingRequests) {
+            sessionRequests.computeIfPresent(sessionId, (id, count) -> count > 1 ? count - 1 : null);
+            if (outstandingRequests.get() <= 0) {
+                return;
+            }
+            outstandingRequests.decrementAndGet();
+            Endpoint endpoint = endpointRef.get();
+            if (endpoint != null) {
+                endpoint.requestCompleted();
+            }
+        }
+    }
+
+    /**
+     * 登记在途请求，应在发送请求之前调用
+     * 请求结束后必须调用 {@link #unregister(InFlightRequest)}
+     */
+    @NonNull
+    public InFlightRequest register(@NonNull String sessionId, @NonNull WSPayload payload) {
+        InFlightRequest request = new InFlightRequest(sessionId, payload);
+        inFlightRequests.add(request);
+        return request;
+    }
+
+    /**
+     * 注销在途请求
+     */
+    public void unregister(@NonNull InFlightRequest request) {
+        inFlightRequests.remove(request);
+    }
+
+    /**
+     * 获取在途请求数
+     */
+    public int getInFlightRequestCount() {
+        return inFlightRequests.size();
     }
 
     /**
@@ -97,10 +592,10 @@ public class WebSocketConnection implements AutoCloseable {
      * 检查是否已连接
      */
     public boolean isConnected() {
-        WebSocketClient ws = wsRef.get();
+        TransportSession session = sessionRef.get();
         return currentState.get() == ConnectionState.CONNECTED
-                && ws != null
-                && ws.isOpen();
+                && session != null
+                && session.isOpen();
     }
 
     /**
@@ -119,62 +614,56 @@ public class WebSocketConnection implements AutoCloseable {
             return Mono.error(new IllegalStateException("Connection is closed"));
         }
 
-        return Mono.<Void>create(sink -> {
-            try {
-                setState(ConnectionState.CONNECTING);
-
-                String url = config.getWebsocket().getUrl();
-                if (url == null || url.isEmpty()) {
-                    sink.error(new IllegalArgumentException("WebSocket URL 未配置"));
-                    return;
-                }
-
-                URI serverUri = URI.create(url);
-                WebSocketClient ws = new WebSocketClient(serverUri) {
-                    @Override
-                    public void onOpen(ServerHandshake handshake) {
-                        log.debug("WebSocket connection opened");
-                        setState(ConnectionState.CONNECTED);
-                        startHeartbeat();
-                        sink.success();
-                    }
-
-                    @Override
-                    public void onMessage(String message) {
-                        if (message != null && !message.isEmpty()) {
-                            handleMessage(message);
-                        }
-                    }
-
-                    @Override
-                    public void onClose(int code, String reason, boolean remote) {
-                        log.debug("WebSocket connection closed, code: {}, reason: {}", code, reason);
-                        handleClose();
-                    }
+        return Mono.defer(() -> {
+            setState(ConnectionState.CONNECTING);
 
-                    @Override
-                    public void onError(Exception ex) {
-                        log.error("WebSocket connection error", ex);
-                        handleError(ex);
-                    }
-                };
+            EndpointSelector selector = context.getEndpointSelector();
+            if (selector.getEndpoints().isEmpty()) {
+                return Mono.<Void>error(new IllegalArgumentException("WebSocket URL 未配置"));
+            }
 
-                wsRef.set(ws);
-                ws.connect();
+            // 选择服务端，全部被熔断摘除时直接失败，不占用服务端资源
+            Endpoint endpoint = selector.select();
+            if (endpoint == null) {
+                return Mono.<Void>error(AgentException.endpointUnavailable(
+                        selector.getUrls(), selector.getRetryAfterMillis()));
+            }
+            EndpointCircuitBreaker breaker = endpoint.getCircuitBreaker();
 
-            } catch (Exception e) {
-                setState(ConnectionState.DISCONNECTED);
-                sink.error(AgentException.connectionFailed("创建 WebSocket 失败", e));
+            long timeout = config.getWebsocket().getTimeout() != null
+                    ? config.getWebsocket().getTimeout()
+                    : CybotStarConstants.DEFAULT_WS_TIMEOUT;
+            SessionListener listener = new SessionListener();
+            SessionListener previous = listenerRef.getAndSet(listener);
+            if (previous != null) {
+                previous.detach();
             }
+            return transport.connect(endpoint.getUri(), listener)
+                    .doOnNext(session -> {
+                        log.debug("WebSocket connection opened: {}", endpoint.getUrl());
+                        resetHeartbeatState();
+                        sessionRef.set(session);
+                        bindEndpoint(endpoint);
+                        if (readPauseRequests.get() > 0) {
+                            session.pauseReading();
+                        }
+                        setState(ConnectionState.CONNECTED);
+                        startHeartbeat();
+                    })
+                    .then()
+                    .timeout(Duration.ofMillis(timeout),
+                            Mono.error(() -> AgentException.connectionTimeout(timeout)))
+                    .doOnSuccess(v -> breaker.onSuccess())
+                    .doOnError(error -> breaker.onFailure())
+                    .doOnCancel(breaker::onCancel);
         })
-        .timeout(Duration.ofMillis(config.getWebsocket().getTimeout() != null
-                ? config.getWebsocket().getTimeout()
-                : CybotStarConstants.DEFAULT_WS_TIMEOUT))
+        .onErrorMap(error -> error instanceof AgentException || error instanceof IllegalArgumentException
+                ? error
+                : AgentException.connectionFailed("创建 WebSocket 失败", error))
         .doOnError(error -> {
             setState(ConnectionState.DISCONNECTED);
             log.error("Failed to connect to WebSocket", error);
-        })
-        .subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     /**
@@ -191,29 +680,104 @@ public class WebSocketConnection implements AutoCloseable {
 
     /**
      * 发送消息
+     * 消息进入写队列，交给传输层后完成；发送缓冲超过上限时等待，超时后失败
      */
     @NonNull
     public Mono<Void> send(@NonNull WSPayload payload) {
+        return send(payload, null);
+    }
+
+    /**
+     * 使用预编码模板发送消息
+     *
+     * @param template 客户端的载荷模板，为 null 时完整序列化
+     */
+    @NonNull
+    public Mono<Void> send(@NonNull WSPayload payload, @Nullable PayloadTemplate template) {
         return Mono.defer(() -> {
-            WebSocketClient ws = wsRef.get();
-            if (ws == null || !ws.isOpen()) {
+            TransportSession session = sessionRef.get();
+            if (session == null || !session.isOpen()) {
                 return Mono.error(AgentException.sendFailed("WebSocket 未连接"));
             }
 
+            String data;
             try {
-                String data = JSON.toJSONString(payload);
-                log.debug("⬆️ [WS] Sending message, question_preview={}",
-                        payload.getQuestion() != null
-                                ? payload.getQuestion().substring(0, Math.min(20, payload.getQuestion().length())) + "..."
-                                : "null");
-                ws.send(data);
-                return Mono.empty();
+                data = codec.encode(payload, template);
+            } catch (AgentException e) {
+                return Mono.error(e);
             } catch (Exception e) {
                 return Mono.error(AgentException.sendFailed("发送消息失败", e));
             }
+            log.debug("⬆️ [WS] Sending message, question_preview={}",
+                    payload.getQuestion() != null
+                            ? payload.getQuestion().substring(0, Math.min(20, payload.getQuestion().length())) + "..."
+                            : "null");
+
+            return outboundQueue.awaitCapacity(sendTimeout)
+                    .then(Mono.<Void>create(sink -> {
+                        if (demultiplexer != null) {
+                            // 先登记再入队，且登记顺序与写出顺序一致，确认帧才能按序匹配
+                            synchronized (demultiplexer) {
+                                demultiplexer.onSend(payload.getSegmentCode());
+                                outboundQueue.offer(data, sink);
+                            }
+                        } else {
+                            outboundQueue.offer(data, sink);
+                        }
+                        outboundQueue.drain();
+                    }));
         });
     }
 
+    /**
+     * 获取排队等待解码与分发的帧数（INLINE 模式下恒为 0）
+     */
+    public int getDispatchQueueDepth() {
+        return dispatchQueued.get();
+    }
+
+    /**
+     * 获取写队列中的帧数
+     */
+    public int getOutboundQueueDepth() {
+        return outboundQueue.getDepth();
+    }
+
+    /**
+     * 获取已缓冲待写出的字节数（写队列 + 传输层缓冲，按字符数估算）
+     */
+    public long getOutboundBufferedAmount() {
+        return outboundQueue.getBufferedAmount();
+    }
+
+    /**
+     * 获取入队到交给传输层的平均延迟（微秒）
+     */
+    public long getAverageWriteLatencyMicros() {
+        return outboundQueue.getAverageLatencyMicros();
+    }
+
+    /**
+     * 获取入队到交给传输层的最大延迟（微秒）
+     */
+    public long getMaxWriteLatencyMicros() {
+        return outboundQueue.getMaxLatencyMicros();
+    }
+
+    /**
+     * 获取平均每批写出的帧数
+     */
+    public double getAverageWriteBatchSize() {
+        return outboundQueue.getAverageBatchSize();
+    }
+
+    /**
+     * 获取发送方因缓冲区满而等待的次数
+     */
+    public long getBackpressureWaits() {
+        return outboundQueue.getBackpressureWaits();
+    }
+
     /**
      * 关闭连接
      */
@@ -221,19 +785,26 @@ public class WebSocketConnection implements AutoCloseable {
     public void close() {
         if (closed.compareAndSet(false, true)) {
             stopHeartbeat();
+            releaseEndpoint();
 
-            WebSocketClient ws = wsRef.get();
-            if (ws != null) {
+            TransportSession session = sessionRef.get();
+            if (session != null) {
                 try {
-                    ws.close();
+                    session.close();
                 } catch (Exception e) {
                     log.debug("Error closing WebSocket", e);
                 }
             }
 
             setState(ConnectionState.CLOSED);
+            if (demultiplexer != null) {
+                demultiplexer.complete();
+            }
             messageSink.tryEmitComplete();
             stateSink.tryEmitComplete();
+            if (dispatchLane != null) {
+                dispatchLane.dispose();
+            }
         }
     }
 
@@ -241,27 +812,150 @@ public class WebSocketConnection implements AutoCloseable {
      * 处理接收到的消息
      */
     private void handleMessage(@NonNull String message) {
-        try {
-            WSResponse response = JSON.parseObject(message, WSResponse.class);
+        long now = markReceived();
+        if (dispatchLane != null) {
+            enqueue(() -> decode(message, now));
+        } else {
+            decode(message, now);
+        }
+    }
 
-            // 忽略心跳响应
-            if (ResponseType.isType(response.getType(), ResponseType.HEARTBEAT)) {
-                log.debug("Ignoring heartbeat response");
-                return;
-            }
+    /**
+     * 处理接收到的消息（UTF-8 字节）
+     * PARALLEL 模式下 utf8 必须是从 framePool 获取的数组，解码后归还
+     */
+    private void handleMessage(byte @NonNull [] utf8, int offset, int length) {
+        long now = markReceived();
+        if (framePool != null) {
+            enqueue(() -> {
+                try {
+                    decode(utf8, offset, length, now);
+                } finally {
+                    framePool.release(utf8);
+                }
+            });
+        } else {
+            decode(utf8, offset, length, now);
+        }
+    }
 
-            // 推送到消息流
-            Sinks.EmitResult result = messageSink.tryEmitNext(response);
-            // 忽略 FAIL_ZERO_SUBSCRIBER（没有订阅者时）和 FAIL_TERMINATED（已关闭时）
-            if (result.isFailure()
-                    && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER
-                    && result != Sinks.EmitResult.FAIL_TERMINATED) {
-                log.warn("Failed to emit message, result: {}", result);
-            }
+    /**
+     * 解码并分发
+     */
+    private void decode(@NonNull String message, long receivedNanos) {
+        long start = System.nanoTime();
+        try {
+            dispatch(codec.read(message), receivedNanos);
+        } catch (Exception e) {
+            log.error("Failed to parse WebSocket message", e);
+        }
+        context.getMetrics().recordDispatch(start - receivedNanos, System.nanoTime() - start);
+    }
 
+    /**
+     * 解码并分发（UTF-8 字节）
+     */
+    private void decode(byte @NonNull [] utf8, int offset, int length, long receivedNanos) {
+        long start = System.nanoTime();
+        try {
+            dispatch(codec.read(utf8, offset, length), receivedNanos);
         } catch (Exception e) {
             log.error("Failed to parse WebSocket message", e);
         }
+        context.getMetrics().recordDispatch(start - receivedNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * 提交到执行通道，按提交顺序执行
+     * 积压超过上限时暂停读取，由 TCP 流控向服务端施加背压
+     */
+    private void enqueue(@NonNull Runnable task) {
+        context.getMetrics().recordDispatchEnqueued();
+        if (dispatchQueued.incrementAndGet() > dispatchQueueLimit && dispatchPaused.compareAndSet(false, true)) {
+            pauseReading();
+        }
+        try {
+            dispatchLane.schedule(() -> {
+                try {
+                    task.run();
+                } finally {
+                    dequeued();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 连接已关闭，执行通道已释放
+            dequeued();
+            log.debug("Dispatch lane closed, dropping inbound frame");
+        }
+    }
+
+    private void dequeued() {
+        context.getMetrics().recordDispatchDequeued();
+        if (dispatchQueued.decrementAndGet() <= dispatchQueueLimit / 2 && dispatchPaused.compareAndSet(true, false)) {
+            resumeReading();
+        }
+    }
+
+    /**
+     * 记录收到数据的时间
+     */
+    private long markReceived() {
+        long now = System.nanoTime();
+        lastReceivedNanos = now;
+        // 收到任意数据即说明连接存活
+        missedHeartbeats.set(0);
+        return now;
+    }
+
+    /**
+     * 分发解码后的帧
+     */
+    private void dispatch(@NonNull InboundFrame frame, long now) {
+        // 心跳响应只用于测量往返时间，不进入消息流
+        if (ResponseType.isType(frame.getType(), ResponseType.HEARTBEAT)) {
+            recordPong(now);
+            return;
+        }
+        if (frame.isChunk()) {
+            fastPathFrames.incrementAndGet();
+        }
+
+        // 推送到消息流
+        Sinks.EmitResult result = messageSink.tryEmitNext(frame);
+        // 忽略 FAIL_ZERO_SUBSCRIBER（没有订阅者时）和 FAIL_TERMINATED（已关闭时）
+        if (result.isFailure()
+                && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER
+                && result != Sinks.EmitResult.FAIL_TERMINATED) {
+            log.warn("Failed to emit message, result: {}", result);
+        }
+
+        // 共享连接按会话分发
+        if (demultiplexer != null) {
+            demultiplexer.route(frame);
+        }
+    }
+
+    /**
+     * 绑定新建立的底层连接所在的服务端
+     */
+    private void bindEndpoint(@NonNull Endpoint endpoint) {
+        synchronized (outstandingRequests) {
+            releaseEndpoint();
+            endpointRef.set(endpoint);
+            endpoint.connectionOpened();
+        }
+    }
+
+    /**
+     * 释放底层连接在服务端上的计数（连接数与未完成请求数）
+     */
+    private void releaseEndpoint() {
+        synchronized (outstandingRequests) {
+            Endpoint endpoint = endpointRef.getAndSet(null);
+            if (endpoint != null) {
+                endpoint.connectionClosed(outstandingRequests.getAndSet(0));
+            }
+        }
     }
 
     /**
@@ -269,19 +963,50 @@ public class WebSocketConnection implements AutoCloseable {
      */
     private void handleClose() {
         stopHeartbeat();
+        releaseEndpoint();
         setState(ConnectionState.DISCONNECTED);
 
         // 如果配置了自动重连，则尝试重连
-        Boolean autoReconnect = config.getWebsocket().getAutoReconnect();
-        if (autoReconnect != null && autoReconnect && !closed.get()) {
+        if (reconnectEnabled()) {
             scheduleReconnect();
         }
     }
 
+    private boolean reconnectEnabled() {
+        Boolean autoReconnect = config.getWebsocket().getAutoReconnect();
+        return autoReconnect != null && autoReconnect && !closed.get();
+    }
+
+    /**
+     * 断线后是否还会自动重连（已开启自动重连、连接未关闭且重连次数未用尽）
+     */
+    private boolean willReconnect() {
+        return reconnectEnabled() && reconnectAttempts.get() < CybotStarConstants.MAX_RECONNECT_ATTEMPTS;
+    }
+
     /**
      * 处理连接错误
+     * 会自动重连时不结束消息流：传输层随后报告关闭并触发重连，在途请求重发后续接在同一条流上，
+     * 重连放弃时再以该错误为原因结束流
      */
-    private void handleError(@NonNull Exception error) {
+    private void handleError(@NonNull Throwable error) {
+        if (willReconnect()) {
+            lastTransportError.set(error);
+            return;
+        }
+        // 排在已接收的帧之后，避免错误先于这些帧到达订阅者
+        if (dispatchLane != null) {
+            enqueue(() -> emitError(error));
+        } else {
+            emitError(error);
+        }
+    }
+
+    private void emitError(@NonNull Throwable error) {
+        failed.set(true);
+        if (demultiplexer != null) {
+            demultiplexer.error(error);
+        }
         Sinks.EmitResult result = messageSink.tryEmitError(error);
         // 忽略 FAIL_TERMINATED（已关闭时）
         if (result.isFailure() && result != Sinks.EmitResult.FAIL_TERMINATED) {
@@ -289,6 +1014,30 @@ public class WebSocketConnection implements AutoCloseable {
         }
     }
 
+    /**
+     * 暂停读取（任一订阅者缓冲区满时）
+     */
+    private void pauseReading() {
+        if (readPauseRequests.incrementAndGet() == 1) {
+            TransportSession session = sessionRef.get();
+            if (session != null) {
+                session.pauseReading();
+            }
+        }
+    }
+
+    /**
+     * 恢复读取（所有订阅者缓冲区都回落到低水位后）
+     */
+    private void resumeReading() {
+        if (readPauseRequests.decrementAndGet() == 0) {
+            TransportSession session = sessionRef.get();
+            if (session != null) {
+                session.resumeReading();
+            }
+        }
+    }
+
     /**
      * 设置连接状态
      */
@@ -315,58 +1064,119 @@ public class WebSocketConnection implements AutoCloseable {
             return;
         }
 
-        stopHeartbeat();
-
-        reactor.core.Disposable disposable = Flux.interval(
-                Duration.ofMillis(interval),
-                Duration.ofMillis(interval),
-                Schedulers.boundedElastic()
-        )
-        .flatMap(tick -> sendHeartbeat())
-        .subscribe(
-                v -> {},
-                error -> log.debug("Heartbeat error", error)
-        );
-
-        heartbeatDisposable.set(disposable);
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        HeartbeatScheduler.Task previous = heartbeatTask.getAndSet(
+                HeartbeatScheduler.shared().schedule(() -> heartbeat(intervalNanos), interval));
+        if (previous != null) {
+            previous.cancel();
+        }
     }
 
     /**
      * 停止心跳
      */
     private void stopHeartbeat() {
-        reactor.core.Disposable disposable = heartbeatDisposable.getAndSet(null);
-        if (disposable != null && !disposable.isDisposed()) {
-            disposable.dispose();
+        HeartbeatScheduler.Task task = heartbeatTask.getAndSet(null);
+        if (task != null) {
+            task.cancel();
         }
     }
 
     /**
      * 发送心跳
+     * 在调度线程上执行。一个间隔内收到过数据时跳过；
+     * 超过一个间隔仍未响应的心跳计为丢失，连续丢失达到上限时判定为半开连接并强制重连
      */
-    @NonNull
-    private Mono<Void> sendHeartbeat() {
-        return Mono.defer(() -> {
-            if (!isConnected()) {
-                return Mono.empty();
+    private void heartbeat(long intervalNanos) {
+        if (!isConnected()) {
+            return;
+        }
+        long now = System.nanoTime();
+
+        Ping ping;
+        while ((ping = pendingPings.peek()) != null && now - ping.sentNanos() >= intervalNanos) {
+            if (pendingPings.remove(ping)) {
+                missedHeartbeats.incrementAndGet();
             }
+        }
+        int missed = missedHeartbeats.get();
+        Integer maxMissed = config.getWebsocket().getHeartbeatMaxMissed();
+        if (maxMissed != null && maxMissed > 0 && missed >= maxMissed) {
+            log.warn("No heartbeat response for {} intervals, reconnecting half-open connection", missed);
+            heartbeatTimeouts.incrementAndGet();
+            forceReconnect();
+            return;
+        }
+
+        if (now - lastReceivedNanos < intervalNanos) {
+            heartbeatsSuppressed.incrementAndGet();
+            return;
+        }
+
+        try {
+            TransportSession session = sessionRef.get();
+            if (session != null && session.isOpen()) {
+                pendingPings.offer(new Ping(System.nanoTime()));
+                outboundQueue.offer(PayloadBuilder.HEARTBEAT_FRAME, null);
+                outboundQueue.drain();
+                heartbeatsSent.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.debug("Failed to send heartbeat", e);
+        }
+    }
+
+    /**
+     * 记录心跳响应，按发送顺序匹配最早的未响应心跳
+     */
+    private void recordPong(long receivedNanos) {
+        Ping ping = pendingPings.poll();
+        if (ping == null) {
+            return;
+        }
+        double rtt = (receivedNanos - ping.sentNanos()) / 1_000_000.0;
+        double previous = rttEwmaMillis;
+        rttEwmaMillis = previous < 0 ? rtt : previous + RTT_EWMA_ALPHA * (rtt - previous);
+        Endpoint endpoint = endpointRef.get();
+        if (endpoint != null) {
+            endpoint.recordRtt(rtt);
+        }
+        log.debug("Heartbeat round trip: {}ms", Math.round(rtt));
+    }
 
+    /**
+     * 重置心跳状态（新连接建立时）
+     */
+    private void resetHeartbeatState() {
+        pendingPings.clear();
+        missedHeartbeats.set(0);
+        lastReceivedNanos = System.nanoTime();
+    }
+
+    /**
+     * 放弃当前底层连接并重连
+     * 半开连接的关闭事件可能迟迟不到，因此先 detach 监听器，再直接走关闭流程
+     */
+    private void forceReconnect() {
+        SessionListener listener = listenerRef.getAndSet(null);
+        if (listener != null) {
+            listener.detach();
+        }
+        TransportSession session = sessionRef.getAndSet(null);
+        if (session != null) {
             try {
-                String heartbeat = PayloadBuilder.buildHeartbeatPayload();
-                WebSocketClient ws = wsRef.get();
-                if (ws != null && ws.isOpen()) {
-                    ws.send(heartbeat);
-                }
-                return Mono.empty();
+                session.close();
             } catch (Exception e) {
-                log.debug("Failed to send heartbeat", e);
-                return Mono.empty();
+                log.debug("Error closing half-open WebSocket", e);
             }
-        });
+        }
+        handleClose();
     }
 
     /**
-     * 安排重连（使用指数退避策略）
+     * 安排重连
+     * 使用全抖动指数退避：delay = random(0, min(baseInterval * 2^attempts, maxInterval))，
+     * 避免大量连接同时断开后在同一时刻重连
      */
     private void scheduleReconnect() {
         int attempts = reconnectAttempts.incrementAndGet();
@@ -375,8 +1185,10 @@ public class WebSocketConnection implements AutoCloseable {
         if (attempts > CybotStarConstants.MAX_RECONNECT_ATTEMPTS) {
             log.error("Max reconnect attempts ({}) exceeded, giving up", CybotStarConstants.MAX_RECONNECT_ATTEMPTS);
             setState(ConnectionState.DISCONNECTED);
-            messageSink.tryEmitError(new IllegalStateException(
-                "WebSocket reconnection failed after " + CybotStarConstants.MAX_RECONNECT_ATTEMPTS + " attempts"));
+            IllegalStateException error = new IllegalStateException(
+                "WebSocket reconnection failed after " + CybotStarConstants.MAX_RECONNECT_ATTEMPTS + " attempts",
+                lastTransportError.getAndSet(null));
+            emitError(error);
             return;
         }
 
@@ -385,29 +1197,85 @@ public class WebSocketConnection implements AutoCloseable {
             baseRetryInterval = CybotStarConstants.DEFAULT_RETRY_INTERVAL;
         }
 
-        // 指数退避：delay = min(baseInterval * 2^attempts, maxInterval)
-        long maxRetryInterval = CybotStarConstants.MAX_RETRY_BACKOFF;
-        long delay = Math.min(
-                baseRetryInterval * (long) Math.pow(2, Math.min(attempts - 1, 5)),
-                maxRetryInterval
+        long maxDelay = Math.min(
+                baseRetryInterval * (1L << Math.min(attempts - 1, 5)),
+                CybotStarConstants.MAX_RETRY_BACKOFF
         );
+        long delay = ThreadLocalRandom.current().nextLong(maxDelay + 1);
 
         log.debug("Scheduling reconnect attempt #{} after {}ms", attempts, delay);
         setState(ConnectionState.RECONNECTING);
+        Mono.delay(Duration.ofMillis(delay)).subscribe(tick -> reconnect(attempts));
+    }
 
-        Mono.delay(Duration.ofMillis(delay))
-                .then(connect())
+    /**
+     * 执行一次重连
+     * 重连配额用尽或熔断打开时顺延，不计入重连次数
+     */
+    private void reconnect(int attempts) {
+        if (closed.get()) {
+            return;
+        }
+        Semaphore permits = context.getReconnectPermits();
+        if (!permits.tryAcquire()) {
+            log.debug("Reconnect budget exhausted, deferring attempt #{}", attempts);
+            reconnectAttempts.decrementAndGet();
+            scheduleReconnect();
+            return;
+        }
+        connect()
+                .doFinally(signal -> permits.release())
                 .subscribe(
                         v -> {
-                            log.info("Reconnection successful after {} attempts", attempts);
-                            reconnectAttempts.set(0);  // 重置重连计数
                         },
                         error -> {
-                            log.warn("Reconnection attempt #{} failed", attempts, error);
-                            if (!closed.get()) {
-                                scheduleReconnect();
+                            if (closed.get()) {
+                                return;
                             }
+                            if (error instanceof AgentException agentError
+                                    && agentError.getCode() == AgentErrorCode.ENDPOINT_UNAVAILABLE) {
+                                // 所有服务端均被熔断摘除：等待最早的冷却到期后再试，不消耗重连次数
+                                long retryAfter = context.getEndpointSelector().getRetryAfterMillis();
+                                Long retryInterval = config.getWebsocket().getRetryInterval();
+                                long delay = retryAfter + ThreadLocalRandom.current().nextLong(Math.max(retryAfter / 2,
+                                        retryInterval != null ? retryInterval : CybotStarConstants.DEFAULT_RETRY_INTERVAL) + 1);
+                                log.debug("Endpoint unavailable, deferring reconnect attempt #{} by {}ms",
+                                        attempts, delay);
+                                setState(ConnectionState.RECONNECTING);
+                                Mono.delay(Duration.ofMillis(delay)).subscribe(tick -> reconnect(attempts));
+                                return;
+                            }
+                            log.warn("Reconnection attempt #{} failed", attempts, error);
+                            context.getMetrics().recordReconnect(false);
+                            scheduleReconnect();
+                        },
+                        // connect() 不发出元素，成功时只有完成信号
+                        () -> {
+                            log.info("Reconnection successful after {} attempts", attempts);
+                            reconnectAttempts.set(0);  // 重置重连计数
+                            lastTransportError.set(null);
+                            context.getMetrics().recordReconnect(true);
+                            resumeInFlight();
                         }
                 );
     }
+
+    /**
+     * 重新发送断线时尚未完成的请求
+     */
+    private void resumeInFlight() {
+        for (InFlightRequest request : inFlightRequests) {
+            if (demultiplexer != null && !demultiplexer.isAttached(request.getSessionId())) {
+                continue;
+            }
+            request.resumed();
+            context.getMetrics().recordResumedRequest();
+            log.info("Resuming in-flight request after reconnect, sessionId: {}, resumes: {}",
+                    request.getSessionId(), request.getResumes());
+            send(request.getPayload()).subscribe(
+                    v -> {},
+                    error -> log.warn("Failed to resume request, sessionId: {}", request.getSessionId(), error)
+            );
+        }
+    }
 }
@@ -0,0 +1,272 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ServerHandshake;
+import org.jspecify.annotations.NonNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于 Java-WebSocket 的传输层
+ * 每条连接独占一个读线程和一个写线程，适用于未引入 Reactor Netty 的场景
+ * <p>
+ * 启用压缩时协商 permessage-deflate 扩展，小于阈值的帧不压缩。
+ * wss 连接共享同一个 TLS 上下文（Java-WebSocket 默认每条连接各自创建，无法复用 TLS 会话）
+ * <p>
+ * Java-WebSocket 在回调前已把文本帧解码为字符串，文本帧只能走 {@link TransportListener#onText(String)}；
+ * 二进制帧直接以字节交给 {@link TransportListener#onBytes(ByteBuffer)}
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+public class JavaWebSocketTransport implements WebSocketTransport {
+
+    // 是否协商 permessage-deflate
+    private final boolean compression;
+
+    // 最小压缩帧大小（字节）
+    private final int compressionThreshold;
+
+    // 共享 TLS 上下文（首次建立 wss 连接时创建）
+    private volatile SSLContext sslContext;
+
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    public JavaWebSocketTransport() {
+        this(false, 0);
+    }
+
+    /**
+     * @param compression          是否协商 permessage-deflate
+     * @param compressionThreshold 最小压缩帧大小（字节）
+     */
+    public JavaWebSocketTransport(boolean compression, int compressionThreshold) {
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    @NonNull
+    public Mono<TransportSession> connect(@NonNull URI uri, @NonNull TransportListener listener) {
+        boolean secure = TlsContexts.isSecure(uri);
+        return Mono.<TransportSession>create(sink -> {
+            AtomicBoolean opened = new AtomicBoolean(false);
+            long startNanos = System.nanoTime();
+            WebSocketClient ws = new WebSocketClient(uri, createDraft()) {
+                private JavaWebSocketSession session;
+
+                @Override
+                public void onOpen(ServerHandshake handshake) {
+                    metrics.recordHandshake(System.nanoTime() - startNanos, secure);
+                    session = new JavaWebSocketSession(this);
+                    opened.set(true);
+                    sink.success(session);
+                }
+
+                @Override
+                protected void onSetSSLParameters(SSLParameters sslParameters) {
+                    super.onSetSSLParameters(sslParameters);
+                    sslParameters.setProtocols(TlsContexts.PROTOCOLS);
+                }
+
+                @Override
+                public void onMessage(String message) {
+                    if (message != null) {
+                        listener.onText(message);
+                        // 暂停读取时阻塞读线程，socket 不再被读取
+                        session.awaitReadable();
+                    }
+                }
+
+                @Override
+                public void onMessage(ByteBuffer bytes) {
+                    if (bytes != null) {
+                        listener.onBytes(bytes);
+                        session.awaitReadable();
+                    }
+                }
+
+                @Override
+                public void onClose(int code, String reason, boolean remote) {
+                    if (session != null) {
+                        session.resumeReading();
+                    }
+                    if (opened.get()) {
+                        listener.onClose(code, reason, remote);
+                    } else {
+                        metrics.recordHandshakeFailure();
+                        sink.error(AgentException.connectionFailed(
+                                "WebSocket 握手失败, code: " + code + ", reason: " + reason));
+                    }
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                    if (opened.get()) {
+                        listener.onError(ex);
+                    } else {
+                        sink.error(AgentException.connectionFailed("WebSocket 连接失败", ex));
+                    }
+                }
+            };
+            if (secure) {
+                ws.setSocketFactory(sslContext().getSocketFactory());
+            }
+            sink.onCancel(() -> {
+                if (!opened.get()) {
+                    ws.close();
+                }
+            });
+            ws.connect();
+        })
+        // Java-WebSocket 建连会创建线程，不占用调用方线程
+        .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    @NonNull
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获取共享 TLS 上下文
+     */
+    @NonNull
+    private SSLContext sslContext() {
+        SSLContext context = sslContext;
+        if (context == null) {
+            synchronized (this) {
+                context = sslContext;
+                if (context == null) {
+                    context = TlsContexts.createClientContext();
+                    sslContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+    /**
+     * 创建协议草案（每条连接独立实例，扩展持有压缩状态）
+     */
+    @NonNull
+    private Draft createDraft() {
+        if (!compression) {
+            return new Draft_6455();
+        }
+        PerMessageDeflateExtension deflate = new PerMessageDeflateExtension();
+        deflate.setThreshold(compressionThreshold);
+        return new Draft_6455(deflate);
+    }
+
+    /**
+     * Java-WebSocket 连接
+     * 暂停读取通过阻塞读线程实现
+     */
+    private static final class JavaWebSocketSession implements TransportSession {
+
+        // 等待恢复读取的最长单次阻塞时间，期间连接关闭也能及时退出
+        private static final long PAUSE_CHECK_MILLIS = 1000;
+
+        private final WebSocketClient ws;
+
+        private final Object readLock = new Object();
+
+        private volatile boolean paused;
+
+        JavaWebSocketSession(WebSocketClient ws) {
+            this.ws = ws;
+        }
+
+        @Override
+        public void pauseReading() {
+            paused = true;
+        }
+
+        @Override
+        public void resumeReading() {
+            synchronized (readLock) {
+                paused = false;
+                readLock.notifyAll();
+            }
+        }
+
+        /**
+         * 暂停期间阻塞读线程
+         */
+        void awaitReadable() {
+            if (!paused) {
+                return;
+            }
+            synchronized (readLock) {
+                while (paused && ws.isOpen()) {
+                    try {
+                        readLock.wait(PAUSE_CHECK_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return ws.isOpen();
+        }
+
+        @Override
+        public void send(@NonNull String text) {
+            ws.send(text);
+        }
+
+        @Override
+        public void send(@NonNull List<String> texts) {
+            if (texts.size() == 1) {
+                ws.send(texts.get(0));
+                return;
+            }
+            // 合并为一次写入，只唤醒写线程一次
+            List<Framedata> frames = new ArrayList<>();
+            for (String text : texts) {
+                frames.addAll(ws.getDraft().createFrames(text, true));
+            }
+            ws.sendFrame(frames);
+        }
+
+        @Override
+        public long bufferedAmount() {
+            WebSocket connection = ws.getConnection();
+            if (!(connection instanceof WebSocketImpl impl)) {
+                return 0;
+            }
+            long bytes = 0;
+            for (ByteBuffer buffer : impl.outQueue) {
+                bytes += buffer.remaining();
+            }
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            ws.close();
+        }
+    }
+}
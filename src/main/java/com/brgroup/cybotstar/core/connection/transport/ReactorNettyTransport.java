@@ -0,0 +1,257 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.WebsocketClientSpec;
+import reactor.netty.http.websocket.WebsocketOutbound;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 Reactor Netty 的传输层
+ * 所有连接共享同一个 HttpClient 及其事件循环，收发全程非阻塞，不再为每条连接占用线程
+ * <p>
+ * 启用压缩时协商 permessage-deflate 扩展；Reactor Netty 不支持按帧大小跳过压缩，所有帧均压缩。
+ * wss 连接共享同一个启用会话缓存的 SslContext，重连时可复用 TLS 会话
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+public class ReactorNettyTransport implements WebSocketTransport {
+
+    // 非正常关闭（未收到关闭帧）
+    private static final int ABNORMAL_CLOSURE = 1006;
+
+    // 共享 HttpClient（使用全局 HttpResources 事件循环，连接不入池）
+    private final HttpClient httpClient;
+
+    // wss 使用的 HttpClient（共享 SslContext）
+    private final HttpClient secureHttpClient;
+
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    private final WebsocketClientSpec websocketSpec;
+
+    public ReactorNettyTransport() {
+        this(newHttpClient(), false);
+    }
+
+    /**
+     * @param compression 是否协商 permessage-deflate（压缩所有帧，不支持最小压缩帧大小）
+     */
+    public ReactorNettyTransport(boolean compression) {
+        this(newHttpClient(), compression);
+    }
+
+    /**
+     * @param httpClient  共享 HttpClient（应使用不入池的 ConnectionProvider，见 {@link #newHttpClient()}）
+     * @param compression 是否协商 permessage-deflate
+     */
+    public ReactorNettyTransport(@NonNull HttpClient httpClient, boolean compression) {
+        this.httpClient = httpClient;
+        this.secureHttpClient = httpClient.secure(spec -> spec.sslContext(
+                Http11SslContextSpec.forClient().configure(builder -> builder
+                        .protocols(TlsContexts.PROTOCOLS)
+                        .sessionCacheSize(CybotStarConstants.TLS_SESSION_CACHE_SIZE)
+                        .sessionTimeout(CybotStarConstants.TLS_SESSION_TIMEOUT_SECONDS))));
+        this.websocketSpec = WebsocketClientSpec.builder()
+                .maxFramePayloadLength(CybotStarConstants.MAX_MESSAGE_LENGTH)
+                .compress(compression)
+                .build();
+    }
+
+    /**
+     * 创建不入池的 HttpClient
+     * 升级为 WebSocket 的连接不会归还连接池，使用默认的全局连接池时，
+     * 同一服务端的连接数达到池上限后新连接要等到获取超时，因此每次建连都新建连接
+     */
+    @NonNull
+    public static HttpClient newHttpClient() {
+        return HttpClient.create(ConnectionProvider.newConnection());
+    }
+
+    @Override
+    @NonNull
+    public Mono<TransportSession> connect(@NonNull URI uri, @NonNull TransportListener listener) {
+        boolean secure = TlsContexts.isSecure(uri);
+        return Mono.create(sink -> {
+            AtomicBoolean opened = new AtomicBoolean(false);
+            NettySession[] holder = new NettySession[1];
+            long startNanos = System.nanoTime();
+
+            Disposable connection = (secure ? secureHttpClient : httpClient).websocket(websocketSpec)
+                    .uri(uri)
+                    .handle((inbound, outbound) -> {
+                        metrics.recordHandshake(System.nanoTime() - startNanos, secure);
+                        NettySession session = new NettySession(outbound, listener);
+                        holder[0] = session;
+                        opened.set(true);
+                        sink.success(session);
+
+                        inbound.receiveCloseStatus()
+                                .subscribe(status -> session.closed(status.code(), status.reasonText(), true));
+
+                        Mono<Void> receive = inbound.aggregateFrames(CybotStarConstants.MAX_MESSAGE_LENGTH)
+                                .receive()
+                                // 直接交出 UTF-8 字节，不解码为字符串；ByteBuf 在 onNext 返回后即被释放，必须同步处理
+                                .doOnNext(buf -> listener.onBytes(buf.nioBuffer()))
+                                // 暂停读取时不再请求新帧，Reactor Netty 随之关闭 autoRead
+                                .delayUntil(buf -> session.awaitReadable())
+                                .then();
+                        Mono<Void> send = outbound.sendString(session.outbound.asFlux()
+                                        .doOnNext(text -> session.pendingBytes.addAndGet(-text.length())))
+                                .then();
+                        // 发送流正常结束时继续等待服务端关闭帧，任一方向出错则结束连接
+                        return Mono.firstWithSignal(receive, send.then(Mono.<Void>never()));
+                    })
+                    .subscribe(
+                            v -> {
+                            },
+                            error -> {
+                                if (opened.get()) {
+                                    listener.onError(error);
+                                    holder[0].closed(ABNORMAL_CLOSURE, error.getMessage(), true);
+                                } else {
+                                    metrics.recordHandshakeFailure();
+                                    sink.error(error);
+                                }
+                            },
+                            () -> {
+                                if (holder[0] != null) {
+                                    holder[0].closed(ABNORMAL_CLOSURE, "", true);
+                                }
+                            });
+
+            sink.onCancel(() -> {
+                if (!opened.get()) {
+                    connection.dispose();
+                }
+            });
+        });
+    }
+
+    @Override
+    @NonNull
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Reactor Netty 连接
+     * 出站帧经 unicast Sink 交给事件循环写出；暂停读取时入站帧等待读闸门打开
+     */
+    private static final class NettySession implements TransportSession {
+
+        private final WebsocketOutbound connection;
+
+        private final TransportListener listener;
+
+        private final Sinks.Many<String> outbound = Sinks.many().unicast().onBackpressureBuffer();
+
+        // 已提交但 Netty 尚未取走的字节数（按字符数估算）
+        private final AtomicLong pendingBytes = new AtomicLong(0);
+
+        private final Channel channel;
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        private final AtomicBoolean localClose = new AtomicBoolean(false);
+
+        // 读闸门，未暂停时为 null
+        private volatile Sinks.Empty<Void> readGate;
+
+        NettySession(WebsocketOutbound connection, TransportListener listener) {
+            this.connection = connection;
+            this.listener = listener;
+            Channel[] holder = new Channel[1];
+            connection.withConnection(conn -> holder[0] = conn.channel());
+            this.channel = holder[0];
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        @Override
+        public void send(@NonNull String text) {
+            if (!open.get()) {
+                throw new IllegalStateException("WebSocket is not open");
+            }
+            pendingBytes.addAndGet(text.length());
+            outbound.emitNext(text, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        }
+
+        @Override
+        public long bufferedAmount() {
+            long bytes = pendingBytes.get();
+            if (channel != null) {
+                ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+                if (buffer != null) {
+                    bytes += buffer.totalPendingWriteBytes();
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            if (open.get() && localClose.compareAndSet(false, true)) {
+                outbound.tryEmitComplete();
+                connection.sendClose()
+                        .subscribe(v -> {
+                        }, error -> log.debug("Error closing WebSocket", error));
+            }
+        }
+
+        @Override
+        public synchronized void pauseReading() {
+            if (readGate == null) {
+                readGate = Sinks.empty();
+            }
+        }
+
+        @Override
+        public void resumeReading() {
+            Sinks.Empty<Void> gate;
+            synchronized (this) {
+                gate = readGate;
+                readGate = null;
+            }
+            if (gate != null) {
+                gate.tryEmitEmpty();
+            }
+        }
+
+        /**
+         * 等待读闸门打开
+         */
+        Mono<Void> awaitReadable() {
+            Sinks.Empty<Void> gate = readGate;
+            return gate == null ? Mono.empty() : gate.asMono();
+        }
+
+        /**
+         * 连接已关闭，只通知一次
+         */
+        void closed(int code, String reason, boolean remote) {
+            resumeReading();
+            if (open.compareAndSet(true, false)) {
+                outbound.tryEmitComplete();
+                listener.onClose(code, reason, remote && !localClose.get());
+            }
+        }
+    }
+}
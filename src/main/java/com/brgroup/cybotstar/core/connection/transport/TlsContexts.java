@@ -0,0 +1,52 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import org.jspecify.annotations.NonNull;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+
+/**
+ * TLS 上下文工具
+ * 每个传输层共享一个客户端 TLS 上下文，启用会话缓存，重连时可复用会话（TLS 1.3 PSK / TLS 1.2 session id），
+ * 避免每次握手都做完整的密钥交换
+ *
+ * @author zhiyuan.xi
+ */
+final class TlsContexts {
+
+    /**
+     * 启用的协议（优先 TLS 1.3）
+     */
+    static final String[] PROTOCOLS = {"TLSv1.3", "TLSv1.2"};
+
+    private TlsContexts() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 创建启用会话缓存的 JDK 客户端 TLS 上下文
+     */
+    @NonNull
+    static SSLContext createClientContext() {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, null, null);
+            SSLSessionContext sessions = context.getClientSessionContext();
+            sessions.setSessionCacheSize(CybotStarConstants.TLS_SESSION_CACHE_SIZE);
+            sessions.setSessionTimeout(CybotStarConstants.TLS_SESSION_TIMEOUT_SECONDS);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize TLS context", e);
+        }
+    }
+
+    /**
+     * 是否为加密连接
+     */
+    static boolean isSecure(@NonNull URI uri) {
+        return "wss".equalsIgnoreCase(uri.getScheme());
+    }
+}
@@ -0,0 +1,48 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import org.jspecify.annotations.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 传输层事件监听器
+ * 由 {@link WebSocketTransport} 在底层连接建立后回调
+ *
+ * @author zhiyuan.xi
+ */
+public interface TransportListener {
+
+    /**
+     * 收到文本帧
+     *
+     * @param text 帧内容
+     */
+    void onText(@NonNull String text);
+
+    /**
+     * 收到文本帧（UTF-8 字节，未解码为字符串）
+     * 缓冲区只在回调期间有效，回调返回后可能被传输层释放或复用；默认解码为字符串后交给 {@link #onText(String)}
+     *
+     * @param utf8 帧内容
+     */
+    default void onBytes(@NonNull ByteBuffer utf8) {
+        onText(StandardCharsets.UTF_8.decode(utf8).toString());
+    }
+
+    /**
+     * 连接关闭
+     *
+     * @param code   关闭码
+     * @param reason 关闭原因
+     * @param remote 是否由远端关闭
+     */
+    void onClose(int code, String reason, boolean remote);
+
+    /**
+     * 连接异常
+     *
+     * @param error 异常
+     */
+    void onError(@NonNull Throwable error);
+}
@@ -0,0 +1,77 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 传输层指标
+ * 统计握手次数与耗时（TCP + TLS + WebSocket 升级）
+ *
+ * @author zhiyuan.xi
+ */
+public class TransportMetrics {
+
+    private final AtomicLong handshakes = new AtomicLong(0);
+    private final AtomicLong secureHandshakes = new AtomicLong(0);
+    private final AtomicLong failedHandshakes = new AtomicLong(0);
+    private final AtomicLong totalHandshakeNanos = new AtomicLong(0);
+    private final AtomicLong maxHandshakeNanos = new AtomicLong(0);
+
+    /**
+     * 记录成功的握手
+     *
+     * @param nanos  耗时（纳秒）
+     * @param secure 是否为 wss
+     */
+    public void recordHandshake(long nanos, boolean secure) {
+        handshakes.incrementAndGet();
+        if (secure) {
+            secureHandshakes.incrementAndGet();
+        }
+        totalHandshakeNanos.addAndGet(nanos);
+        maxHandshakeNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 记录失败的握手
+     */
+    public void recordHandshakeFailure() {
+        failedHandshakes.incrementAndGet();
+    }
+
+    public long getHandshakes() {
+        return handshakes.get();
+    }
+
+    public long getSecureHandshakes() {
+        return secureHandshakes.get();
+    }
+
+    public long getFailedHandshakes() {
+        return failedHandshakes.get();
+    }
+
+    /**
+     * 获取平均握手耗时（毫秒）
+     */
+    public long getAverageHandshakeMillis() {
+        long count = handshakes.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalHandshakeNanos.get() / count);
+    }
+
+    /**
+     * 获取最大握手耗时（毫秒）
+     */
+    public long getMaxHandshakeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxHandshakeNanos.get());
+    }
+
+    /**
+     * 获取指标摘要
+     */
+    public String getSummary() {
+        return String.format("Handshakes: %d (tls: %d, failed: %d, avg: %dms, max: %dms)",
+                getHandshakes(), getSecureHandshakes(), getFailedHandshakes(),
+                getAverageHandshakeMillis(), getMaxHandshakeMillis());
+    }
+}
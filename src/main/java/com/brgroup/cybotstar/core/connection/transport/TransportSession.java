@@ -0,0 +1,61 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+
+/**
+ * 已建立的底层 WebSocket 连接
+ *
+ * @author zhiyuan.xi
+ */
+public interface TransportSession {
+
+    /**
+     * 连接是否处于打开状态
+     */
+    boolean isOpen();
+
+    /**
+     * 发送文本帧
+     *
+     * @param text 帧内容
+     */
+    void send(@NonNull String text);
+
+    /**
+     * 批量发送文本帧，支持的实现一次性写出
+     *
+     * @param texts 帧内容（按顺序）
+     */
+    default void send(@NonNull List<String> texts) {
+        for (String text : texts) {
+            send(text);
+        }
+    }
+
+    /**
+     * 获取已交给传输层但尚未写入 socket 的字节数
+     */
+    default long bufferedAmount() {
+        return 0;
+    }
+
+    /**
+     * 关闭连接
+     */
+    void close();
+
+    /**
+     * 暂停读取，停止从 socket 读取新帧，由 TCP 流控向服务端施加背压
+     * 已读取的少量帧仍可能继续回调；不支持的实现可忽略
+     */
+    default void pauseReading() {
+    }
+
+    /**
+     * 恢复读取
+     */
+    default void resumeReading() {
+    }
+}
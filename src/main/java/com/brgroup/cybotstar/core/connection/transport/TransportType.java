@@ -0,0 +1,23 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+/**
+ * WebSocket 传输层实现类型
+ *
+ * @author zhiyuan.xi
+ */
+public enum TransportType {
+    /**
+     * 自动选择：类路径中存在 Reactor Netty 时使用 Reactor Netty，否则使用 Java-WebSocket
+     */
+    AUTO,
+
+    /**
+     * Reactor Netty（所有连接共享事件循环，非阻塞）
+     */
+    REACTOR_NETTY,
+
+    /**
+     * Java-WebSocket（每条连接独占读写线程）
+     */
+    JAVA_WEBSOCKET
+}
@@ -0,0 +1,41 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import org.jspecify.annotations.NonNull;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * WebSocket 传输层 SPI
+ * 屏蔽底层 WebSocket 客户端实现，{@link com.brgroup.cybotstar.core.connection.WebSocketConnection}
+ * 只依赖此接口完成建连、收发和关闭
+ *
+ * @author zhiyuan.xi
+ * @see WebSocketTransports
+ */
+public interface WebSocketTransport {
+
+    /**
+     * 建立连接
+     * 握手完成后发出 {@link TransportSession}，握手失败时以错误结束；
+     * 建连之后的帧、关闭和异常通过 listener 回调
+     *
+     * @param uri      服务端地址
+     * @param listener 事件监听器
+     * @return 已建立的连接
+     */
+    @NonNull
+    Mono<TransportSession> connect(@NonNull URI uri, @NonNull TransportListener listener);
+
+    /**
+     * 获取传输层指标（握手次数与耗时）
+     */
+    @NonNull
+    TransportMetrics getMetrics();
+
+    /**
+     * 释放传输层持有的共享资源
+     */
+    default void close() {
+    }
+}
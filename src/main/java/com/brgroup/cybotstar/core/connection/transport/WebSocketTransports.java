@@ -0,0 +1,67 @@
+package com.brgroup.cybotstar.core.connection.transport;
+
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * WebSocket 传输层工厂
+ * 根据 websocket.transport 配置创建传输层实现
+ *
+ * @author zhiyuan.xi
+ */
+@Slf4j
+public final class WebSocketTransports {
+
+    private static final boolean REACTOR_NETTY_PRESENT =
+            isPresent("reactor.netty.http.client.HttpClient");
+
+    private WebSocketTransports() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 创建传输层
+     *
+     * @param properties WebSocket 配置
+     * @return 传输层实现
+     */
+    @NonNull
+    public static WebSocketTransport create(@NonNull WebSocketProperties properties) {
+        TransportType type = properties.getTransport() != null ? properties.getTransport() : TransportType.AUTO;
+        if (type == TransportType.AUTO) {
+            type = REACTOR_NETTY_PRESENT ? TransportType.REACTOR_NETTY : TransportType.JAVA_WEBSOCKET;
+        }
+        boolean compression = Boolean.TRUE.equals(properties.getCompression());
+        int compressionThreshold = properties.getCompressionThreshold() != null
+                ? properties.getCompressionThreshold()
+                : CybotStarConstants.DEFAULT_COMPRESSION_THRESHOLD;
+
+        return switch (type) {
+            case REACTOR_NETTY -> {
+                if (!REACTOR_NETTY_PRESENT) {
+                    throw AgentException.invalidConfig("transport", "类路径中未找到 reactor-netty，无法使用 REACTOR_NETTY 传输层");
+                }
+                if (compression && compressionThreshold > 0) {
+                    // Reactor Netty 不支持按帧大小跳过压缩，配置的阈值不会生效
+                    log.warn("websocket.compression-threshold={} is not supported by the Reactor Netty transport, "
+                                    + "all frames will be compressed; set websocket.transport=JAVA_WEBSOCKET to apply it",
+                            compressionThreshold);
+                }
+                yield new ReactorNettyTransport(compression);
+            }
+            case JAVA_WEBSOCKET, AUTO -> new JavaWebSocketTransport(compression, compressionThreshold);
+        };
+    }
+
+    private static boolean isPresent(@NonNull String className) {
+        try {
+            Class.forName(className, false, WebSocketTransports.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -29,7 +29,7 @@ public class ErrorRecoveryStrategy {
             return true;
         }
 
-        // AgentException 中的连接相关错误可重试
+        // AgentException 中的连接相关错误可重试（熔断中的 ENDPOINT_UNAVAILABLE 直接失败）
         if (error instanceof AgentException agentEx) {
             return agentEx.getCode() == AgentErrorCode.CONNECTION_FAILED ||
                     agentEx.getCode() == AgentErrorCode.CONNECTION_TIMEOUT;
@@ -1,7 +1,7 @@
 package com.brgroup.cybotstar.core.health;
 
 import com.brgroup.cybotstar.core.connection.ConnectionManager;
-import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import com.brgroup.cybotstar.core.connection.EndpointSelector;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 
@@ -38,20 +38,47 @@ public class HealthCheckService {
 
             details.put("cacheSize", cacheSize);
             details.put("activeConnections", activeConnections);
-            details.put("maxSessions", CybotStarConstants.MAX_SESSION_COUNT);
+            details.put("maxSessions", connectionManager.getMaxSessionCount());
+            details.put("pooled", connectionManager.isPooled());
             details.put("limitReached", limitReached);
+            details.put("admissionQueue", connectionManager.getAdmissionQueueLength());
+            details.put("dispatchQueue", connectionManager.getMetrics().getDispatchQueueDepth());
+            details.put("dedupedHandshakes", connectionManager.getDedupedHandshakeCount());
+            details.put("idleConnections", connectionManager.getIdleConnectionCount());
             details.put("cacheStats", connectionManager.getCacheStats());
+            details.put("handshakes", connectionManager.getTransportMetrics().getSummary());
+            EndpointSelector endpoints = connectionManager.getEndpointSelector();
+            details.put("endpoints", endpoints.getSummary());
+            details.put("ejectedEndpoints", endpoints.getEjectedCount());
 
             // 计算使用率
-            double usageRate = (double) cacheSize / CybotStarConstants.MAX_SESSION_COUNT;
+            double usageRate = (double) cacheSize / connectionManager.getMaxSessionCount();
             details.put("usageRate", String.format("%.2f%%", usageRate * 100));
 
             // 判断健康状态
-            if (limitReached) {
+            details.put("draining", connectionManager.isDraining());
+
+            int ejected = endpoints.getEjectedCount();
+            if (connectionManager.isDraining()) {
+                return HealthCheckResult.unhealthy(
+                    "Draining for shutdown",
+                    details
+                );
+            } else if (ejected > 0 && ejected == endpoints.getEndpoints().size()) {
+                return HealthCheckResult.unhealthy(
+                    "All endpoints ejected by circuit breaker",
+                    details
+                );
+            } else if (limitReached) {
                 return HealthCheckResult.unhealthy(
                     "Connection limit reached",
                     details
                 );
+            } else if (ejected > 0) {
+                return HealthCheckResult.degraded(
+                    "Endpoints ejected: " + ejected + "/" + endpoints.getEndpoints().size(),
+                    details
+                );
             } else if (usageRate > 0.8) {
                 return HealthCheckResult.degraded(
                     "Connection pool usage high: " + String.format("%.2f%%", usageRate * 100),
@@ -24,9 +24,27 @@ public class MetricsCollector {
     private final AtomicLong activeConnections = new AtomicLong(0);
     private final AtomicLong failedConnections = new AtomicLong(0);
 
+    // 建连去重与准入计数
+    private final AtomicLong dedupedHandshakes = new AtomicLong(0);
+    private final AtomicLong admissionRejections = new AtomicLong(0);
+    private final AtomicLong warmAcquires = new AtomicLong(0);
+
+    // 准入排队
+    private final AtomicLong admissionWaits = new AtomicLong(0);
+    private final AtomicLong admissionWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxAdmissionWaitNanos = new AtomicLong(0);
+    private final AtomicLong admissionTimeouts = new AtomicLong(0);
+    private final AtomicLong idleEvictions = new AtomicLong(0);
+
     // 重连计数
     private final AtomicLong reconnectAttempts = new AtomicLong(0);
     private final AtomicLong successfulReconnects = new AtomicLong(0);
+    private final AtomicLong resumedRequests = new AtomicLong(0);
+
+    // 优雅停机
+    private final AtomicLong drains = new AtomicLong(0);
+    private final AtomicLong lastDrainMillis = new AtomicLong(0);
+    private final AtomicLong abortedStreams = new AtomicLong(0);
 
     // 消息计数
     private final AtomicLong totalMessages = new AtomicLong(0);
@@ -37,6 +55,14 @@ public class MetricsCollector {
     private final AtomicLong connectionErrors = new AtomicLong(0);
     private final AtomicLong validationErrors = new AtomicLong(0);
 
+    // 入站帧解码与分发
+    private final AtomicLong dispatchedFrames = new AtomicLong(0);
+    private final AtomicLong dispatchWaitNanos = new AtomicLong(0);
+    private final AtomicLong dispatchStageNanos = new AtomicLong(0);
+    private final AtomicLong maxDispatchStageNanos = new AtomicLong(0);
+    private final AtomicLong dispatchQueueDepth = new AtomicLong(0);
+    private final AtomicLong maxDispatchQueueDepth = new AtomicLong(0);
+
     // 启动时间
     private final LocalDateTime startTime = LocalDateTime.now();
 
@@ -71,6 +97,70 @@ public class MetricsCollector {
         activeConnections.decrementAndGet();
     }
 
+    /**
+     * 记录被合并的重复建连
+     */
+    public void recordDedupedHandshake() {
+        dedupedHandshakes.incrementAndGet();
+    }
+
+    /**
+     * 记录因会话数上限被拒绝的新会话
+     */
+    public void recordAdmissionRejected() {
+        admissionRejections.incrementAndGet();
+    }
+
+    /**
+     * 记录直接使用预热连接的新会话
+     */
+    public void recordWarmAcquire() {
+        warmAcquires.incrementAndGet();
+    }
+
+    /**
+     * 记录一次排队后获得会话名额
+     *
+     * @param waitNanos 排队时间（纳秒）
+     */
+    public void recordAdmissionWait(long waitNanos) {
+        admissionWaits.incrementAndGet();
+        admissionWaitNanos.addAndGet(waitNanos);
+        maxAdmissionWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * 记录排队超时
+     */
+    public void recordAdmissionTimeout() {
+        admissionTimeouts.incrementAndGet();
+    }
+
+    /**
+     * 记录为排队会话淘汰的空闲会话
+     */
+    public void recordIdleEviction() {
+        idleEvictions.incrementAndGet();
+    }
+
+    /**
+     * 获取平均排队时间（毫秒）
+     */
+    public long getAverageAdmissionWaitMillis() {
+        long waits = admissionWaits.get();
+        if (waits == 0) {
+            return 0;
+        }
+        return admissionWaitNanos.get() / waits / 1_000_000;
+    }
+
+    /**
+     * 获取最长排队时间（毫秒）
+     */
+    public long getMaxAdmissionWaitMillis() {
+        return maxAdmissionWaitNanos.get() / 1_000_000;
+    }
+
     /**
      * 记录重连
      */
@@ -81,6 +171,25 @@ public class MetricsCollector {
         }
     }
 
+    /**
+     * 记录重连后重新发送的在途请求
+     */
+    public void recordResumedRequest() {
+        resumedRequests.incrementAndGet();
+    }
+
+    /**
+     * 记录一次优雅停机
+     *
+     * @param durationMillis 等待在途流结束的耗时
+     * @param aborted        超时后被强制中断的流数
+     */
+    public void recordDrain(long durationMillis, int aborted) {
+        drains.incrementAndGet();
+        lastDrainMillis.set(durationMillis);
+        abortedStreams.addAndGet(aborted);
+    }
+
     /**
      * 记录消息
      */
@@ -89,6 +198,76 @@ public class MetricsCollector {
         totalBytes.addAndGet(bytes);
     }
 
+    /**
+     * 记录入站帧进入分发队列
+     */
+    public void recordDispatchEnqueued() {
+        maxDispatchQueueDepth.accumulateAndGet(dispatchQueueDepth.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * 记录入站帧离开分发队列
+     */
+    public void recordDispatchDequeued() {
+        dispatchQueueDepth.decrementAndGet();
+    }
+
+    /**
+     * 记录一帧的解码与分发
+     *
+     * @param waitNanos  排队时间（纳秒），在读线程上处理时为 0
+     * @param stageNanos 解码与分发耗时（纳秒，含处理器执行时间）
+     */
+    public void recordDispatch(long waitNanos, long stageNanos) {
+        dispatchedFrames.incrementAndGet();
+        dispatchWaitNanos.addAndGet(waitNanos);
+        dispatchStageNanos.addAndGet(stageNanos);
+        maxDispatchStageNanos.accumulateAndGet(stageNanos, Math::max);
+    }
+
+    /**
+     * 获取当前排队等待分发的帧数
+     */
+    public long getDispatchQueueDepth() {
+        return dispatchQueueDepth.get();
+    }
+
+    /**
+     * 获取排队等待分发的最大帧数
+     */
+    public long getMaxDispatchQueueDepth() {
+        return maxDispatchQueueDepth.get();
+    }
+
+    /**
+     * 获取平均排队时间（微秒）
+     */
+    public long getAverageDispatchWaitMicros() {
+        long frames = dispatchedFrames.get();
+        if (frames == 0) {
+            return 0;
+        }
+        return dispatchWaitNanos.get() / frames / 1_000;
+    }
+
+    /**
+     * 获取平均解码与分发耗时（微秒）
+     */
+    public long getAverageDispatchStageMicros() {
+        long frames = dispatchedFrames.get();
+        if (frames == 0) {
+            return 0;
+        }
+        return dispatchStageNanos.get() / frames / 1_000;
+    }
+
+    /**
+     * 获取最长解码与分发耗时（微秒）
+     */
+    public long getMaxDispatchStageMicros() {
+        return maxDispatchStageNanos.get() / 1_000;
+    }
+
     /**
      * 记录超时错误
      */
@@ -141,10 +320,27 @@ public class MetricsCollector {
         failedRequests.set(0);
         totalConnections.set(0);
         failedConnections.set(0);
+        dedupedHandshakes.set(0);
+        admissionRejections.set(0);
+        warmAcquires.set(0);
+        admissionWaits.set(0);
+        admissionWaitNanos.set(0);
+        maxAdmissionWaitNanos.set(0);
+        admissionTimeouts.set(0);
+        idleEvictions.set(0);
         reconnectAttempts.set(0);
         successfulReconnects.set(0);
+        resumedRequests.set(0);
+        drains.set(0);
+        lastDrainMillis.set(0);
+        abortedStreams.set(0);
         totalMessages.set(0);
         totalBytes.set(0);
+        dispatchedFrames.set(0);
+        dispatchWaitNanos.set(0);
+        dispatchStageNanos.set(0);
+        maxDispatchStageNanos.set(0);
+        maxDispatchQueueDepth.set(dispatchQueueDepth.get());
         timeoutErrors.set(0);
         connectionErrors.set(0);
         validationErrors.set(0);
@@ -156,13 +352,24 @@ public class MetricsCollector {
     public String getSummary() {
         return String.format(
             "Metrics Summary - Requests: %d (success: %.2f%%), " +
-            "Connections: %d (active: %d, failed: %d), " +
+            "Connections: %d (active: %d, failed: %d, deduped: %d, rejected: %d, warm: %d), " +
+            "Admission: waits=%d (avg %dms, max %dms), timeouts=%d, idle evictions=%d, " +
+            "Reconnects: %d (success: %d, resumed requests: %d), " +
             "Messages: %d (avg size: %d bytes), " +
-            "Errors: timeout=%d, connection=%d, validation=%d",
+            "Dispatch: queued=%d (max %d), avg wait %dus, avg stage %dus (max %dus), " +
+            "Errors: timeout=%d, connection=%d, validation=%d, " +
+            "Drain: last=%dms, aborted=%d",
             totalRequests.get(), getSuccessRate(),
             totalConnections.get(), activeConnections.get(), failedConnections.get(),
+            dedupedHandshakes.get(), admissionRejections.get(), warmAcquires.get(),
+            admissionWaits.get(), getAverageAdmissionWaitMillis(), getMaxAdmissionWaitMillis(),
+            admissionTimeouts.get(), idleEvictions.get(),
+            reconnectAttempts.get(), successfulReconnects.get(), resumedRequests.get(),
             totalMessages.get(), getAverageMessageSize(),
-            timeoutErrors.get(), connectionErrors.get(), validationErrors.get()
+            getDispatchQueueDepth(), getMaxDispatchQueueDepth(),
+            getAverageDispatchWaitMicros(), getAverageDispatchStageMicros(), getMaxDispatchStageMicros(),
+            timeoutErrors.get(), connectionErrors.get(), validationErrors.get(),
+            lastDrainMillis.get(), abortedStreams.get()
         );
     }
 }
@@ -1,8 +1,8 @@
 package com.brgroup.cybotstar.core.model.common;
 
 import lombok.Getter;
+import org.jspecify.annotations.Nullable;
 
-import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -43,6 +43,19 @@ public enum ResponseIndex {
      */
     private final int value;
 
+    // 按 -value 索引的查找表
+    private static final ResponseIndex[] BY_NEGATED_VALUE = new ResponseIndex[9];
+
+    // 预先创建的 Optional，查找时不分配对象
+    private static final Optional<?>[] OPTIONALS = new Optional<?>[BY_NEGATED_VALUE.length];
+
+    static {
+        for (ResponseIndex index : values()) {
+            BY_NEGATED_VALUE[-index.value] = index;
+            OPTIONALS[-index.value] = Optional.of(index);
+        }
+    }
+
     ResponseIndex(int value) {
         this.value = value;
     }
@@ -53,10 +66,21 @@ public enum ResponseIndex {
      * @param value 整数值
      * @return 对应的枚举，如果不存在则返回 Optional.empty()
      */
+    @SuppressWarnings("unchecked")
     public static Optional<ResponseIndex> fromValue(int value) {
-        return Arrays.stream(values())
-                .filter(index -> index.value == value)
-                .findFirst();
+        ResponseIndex index = of(value);
+        return index != null ? (Optional<ResponseIndex>) OPTIONALS[-value] : Optional.empty();
+    }
+
+    /**
+     * 根据整数值查找对应的枚举（查表，不分配对象）
+     *
+     * @param value 整数值
+     * @return 对应的枚举，如果不存在则返回 null
+     */
+    @Nullable
+    public static ResponseIndex of(int value) {
+        return value < 0 && value > -BY_NEGATED_VALUE.length ? BY_NEGATED_VALUE[-value] : null;
     }
 
     /**
@@ -66,7 +90,7 @@ public enum ResponseIndex {
      * @return 如果是特殊索引返回 true，否则返回 false
      */
     public static boolean isSpecialIndex(Integer index) {
-        return index != null && index < 0 && fromValue(index).isPresent();
+        return index != null && of(index) != null;
     }
 }
 
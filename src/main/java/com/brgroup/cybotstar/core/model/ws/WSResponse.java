@@ -29,6 +29,13 @@ public class WSResponse {
     @Nullable
     private String dialogId;
 
+    /**
+     * 会话编码（服务端回传时用于多路复用分发）
+     */
+    @JSONField(name = "segment_code")
+    @Nullable
+    private String segmentCode;
+
     /**
      * 响应类型
      */
@@ -63,6 +63,32 @@ public final class CybotStarConstants {
      */
     public static final long MAX_RETRY_BACKOFF = 30000;
 
+    /**
+     * 默认优雅停机等待时间（毫秒）
+     */
+    public static final long DEFAULT_DRAIN_TIMEOUT = 30000;
+
+    /**
+     * 客户端 SmartLifecycle 阶段
+     * 小于 Spring Boot Web 服务器优雅停机阶段（DEFAULT_PHASE - 1024 / - 2048），在其之后停止
+     */
+    public static final int LIFECYCLE_PHASE = Integer.MAX_VALUE - 4096;
+
+    /**
+     * 默认同时进行的最大重连数
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_RECONNECTS = 16;
+
+    /**
+     * 默认熔断失败阈值（连续建连失败次数）
+     */
+    public static final int DEFAULT_CIRCUIT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * 默认熔断打开时长（毫秒）
+     */
+    public static final long DEFAULT_CIRCUIT_OPEN_DURATION = 30000;
+
     // ============================================================================
     // 消息角色相关
     // ============================================================================
@@ -157,6 +183,51 @@ public final class CybotStarConstants {
      */
     public static final int MAX_MESSAGE_LENGTH = 10 * 1024 * 1024;
 
+    /**
+     * 接收缓冲区初始大小（字节）- 8KB
+     */
+    public static final int RECEIVE_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * 接收缓冲区最大保留大小（字节）- 64KB，更大的帧使用临时数组，避免每个连接长期占用大块内存
+     */
+    public static final int RECEIVE_BUFFER_RETAIN_LIMIT = 64 * 1024;
+
+    /**
+     * PARALLEL 模式下每个连接保留的入站帧缓冲区数 - 32（每个 {@link #RECEIVE_BUFFER_SIZE}）
+     */
+    public static final int RECEIVE_BUFFER_POOL_SIZE = 32;
+
+    /**
+     * TLS 会话缓存条目数
+     */
+    public static final int TLS_SESSION_CACHE_SIZE = 1024;
+
+    /**
+     * TLS 会话缓存有效期（秒）
+     */
+    public static final int TLS_SESSION_TIMEOUT_SECONDS = 3600;
+
+    /**
+     * 默认最小压缩帧大小（字节）
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * 默认发送缓冲上限（字节）- 4MB
+     */
+    public static final long DEFAULT_OUTBOUND_BUFFER_LIMIT = 4L * 1024 * 1024;
+
+    /**
+     * 发送缓冲已满时的默认等待时间（毫秒）
+     */
+    public static final long DEFAULT_SEND_TIMEOUT = 10000L;
+
+    /**
+     * 每个订阅者的默认入站缓冲帧数
+     */
+    public static final int DEFAULT_INBOUND_BUFFER_SIZE = 1024;
+
     /**
      * 问题文本最大长度（字符）
      */
@@ -167,6 +238,21 @@ public final class CybotStarConstants {
      */
     public static final int MAX_SESSION_COUNT = 1000;
 
+    /**
+     * 共享连接池模式下的最大会话数量限制
+     */
+    public static final int MAX_POOLED_SESSION_COUNT = 100000;
+
+    /**
+     * 默认会话准入排队长度
+     */
+    public static final int DEFAULT_ADMISSION_QUEUE_SIZE = 256;
+
+    /**
+     * 默认会话准入排队超时（毫秒）
+     */
+    public static final long DEFAULT_ADMISSION_TIMEOUT = 5000;
+
     /**
      * 最大历史消息数量
      */
@@ -3,12 +3,14 @@ package com.brgroup.cybotstar.core.util;
 import cn.hutool.core.bean.BeanUtil;
 import com.brgroup.cybotstar.agent.config.AgentConfig;
 import com.brgroup.cybotstar.agent.exception.AgentException;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -34,29 +36,56 @@ public final class CybotStarUtils {
     // ============================================================================
 
     /**
-     * 验证配置完整性
+     * 解析 WebSocket 地址列表
+     * 配置了 urls 时使用 urls（忽略空白项），否则使用 url
      *
-     * @param config 客户端配置
-     * @throws AgentException 配置无效时抛出异常
+     * @param websocket WebSocket 配置
+     * @return 地址列表，均未配置时为空
      */
-    public static void validateConfig(@NonNull AgentConfig config) {
-        String url = config.getWebsocket().getUrl();
-        if (StringUtils.isBlank(url)) {
-            throw AgentException.invalidConfig("url", "WebSocket URL 不能为空");
+    @NonNull
+    public static List<String> resolveUrls(@NonNull WebSocketProperties websocket) {
+        if (websocket.getUrls() != null && !websocket.getUrls().isEmpty()) {
+            return websocket.getUrls().stream()
+                    .filter(StringUtils::isNotBlank)
+                    .map(String::trim)
+                    .distinct()
+                    .toList();
         }
+        return StringUtils.isBlank(websocket.getUrl()) ? List.of() : List.of(websocket.getUrl());
+    }
 
+    private static void validateUrl(@NonNull String field, @NonNull String url) {
         if (!url.startsWith("ws://") && !url.startsWith("wss://")) {
-            throw AgentException.invalidConfig("url", "URL 必须以 ws:// 或 wss:// 开头");
+            throw AgentException.invalidConfig(field, "URL 必须以 ws:// 或 wss:// 开头: " + url);
         }
 
         // 验证 URL 格式合法性
         try {
             java.net.URI uri = java.net.URI.create(url);
             if (uri.getHost() == null || uri.getHost().isEmpty()) {
-                throw AgentException.invalidConfig("url", "URL 格式无效：缺少主机名");
+                throw AgentException.invalidConfig(field, "URL 格式无效：缺少主机名: " + url);
             }
         } catch (IllegalArgumentException e) {
-            throw AgentException.invalidConfig("url", "URL 格式无效: " + e.getMessage());
+            throw AgentException.invalidConfig(field, "URL 格式无效: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 验证配置完整性
+     *
+     * @param config 客户端配置
+     * @throws AgentException 配置无效时抛出异常
+     */
+    public static void validateConfig(@NonNull AgentConfig config) {
+        List<String> urls = resolveUrls(config.getWebsocket());
+        if (urls.isEmpty()) {
+            throw AgentException.invalidConfig("url", "WebSocket URL 不能为空");
+        }
+        String field = config.getWebsocket().getUrls() != null && !config.getWebsocket().getUrls().isEmpty()
+                ? "urls"
+                : "url";
+        for (String url : urls) {
+            validateUrl(field, url);
         }
 
         String robotKey = config.getCredentials().getRobotKey();
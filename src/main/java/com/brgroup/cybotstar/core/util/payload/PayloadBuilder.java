@@ -41,9 +41,7 @@ public class PayloadBuilder {
     public static WSPayload buildPayload(@NonNull AgentConfig config, @NonNull String question, @Nullable String sessionId,
             @Nullable ExtendedSendOptions options) {
         WSPayload payload = new WSPayload();
-        payload.setCybertronRobotKey(config.getCredentials().getRobotKey());
-        payload.setCybertronRobotToken(config.getCredentials().getRobotToken());
-        payload.setUsername(config.getCredentials().getUsername());
+        applyCredentials(payload, config);
 
         // 检查是否设置了 messageParams
         List<MessageParam> messageParams = options != null ? options.getMessageParams() : null;
@@ -137,6 +135,31 @@ public class PayloadBuilder {
         return payload;
     }
 
+    /**
+     * 构造客户端的请求载荷模板
+     * 凭证与用户名在创建客户端时预先编码，每次请求只编码随请求变化的字段
+     *
+     * @param config 客户端配置
+     * @return 载荷模板
+     */
+    @NonNull
+    public static PayloadTemplate buildTemplate(@NonNull AgentConfig config) {
+        WSPayload prototype = new WSPayload();
+        applyCredentials(prototype, config);
+        return PayloadTemplate.compile(prototype);
+    }
+
+    private static void applyCredentials(@NonNull WSPayload payload, @NonNull AgentConfig config) {
+        payload.setCybertronRobotKey(config.getCredentials().getRobotKey());
+        payload.setCybertronRobotToken(config.getCredentials().getRobotToken());
+        payload.setUsername(config.getCredentials().getUsername());
+    }
+
+    /**
+     * 心跳请求帧（预先序列化，所有连接复用）
+     */
+    public static final String HEARTBEAT_FRAME = "{\"type\":\"heartbeat\",\"data\":\"ping\"}";
+
     /**
      * 构造心跳请求载荷
      *
@@ -144,6 +167,6 @@ public class PayloadBuilder {
      */
     @NonNull
     public static String buildHeartbeatPayload() {
-        return "{\"type\":\"heartbeat\",\"data\":\"ping\"}";
+        return HEARTBEAT_FRAME;
     }
 }
@@ -0,0 +1,136 @@
+package com.brgroup.cybotstar.core.util.payload;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.agent.model.request.MessageParamList;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 预编码的请求载荷模板
+ * 同一客户端的凭证、用户名与 open_flow_* 字段不会变化，创建客户端时预先编码为 JSON 片段；
+ * 每次请求只写入 question、segment_code、message_params、model_params 等随请求变化的字段。
+ * message_params 中已有编码缓存的历史消息直接拼接 JSON 片段。
+ * 载荷的固定字段与模板不一致时回退到完整序列化
+ *
+ * @author zhiyuan.xi
+ */
+public final class PayloadTemplate {
+
+    // 随请求变化的字段（与 WSPayload 的 JSON 字段名一致）
+    private static final String QUESTION = "\"question\":";
+    private static final String SEGMENT_CODE = "\"segment_code\":";
+    private static final String EXTRA_HEADER = "\"extra-header\":";
+    private static final String EXTRA_BODY = "\"extra-body\":";
+    private static final String MESSAGE_PARAMS = "\"message_params\":";
+    private static final String CHAT_HISTORY = "\"chat_history\":";
+    private static final String TIP_MESSAGE_EXTRA = "\"tip_message_extra\":";
+    private static final String TIP_MESSAGE_PARAMS = "\"tip_message_params\":";
+    private static final String MODEL_PARAMS = "\"model_params\":";
+
+    // 固定字段
+    @NonNull
+    private final WSPayload prototype;
+
+    // 固定字段编码结果（不含结尾的 '}'），没有固定字段时为 null
+    @Nullable
+    private final String prefix;
+
+    private PayloadTemplate(@NonNull WSPayload prototype) {
+        this.prototype = prototype;
+        String encoded = JSON.toJSONString(prototype);
+        this.prefix = encoded.length() > 2 ? encoded.substring(0, encoded.length() - 1) : null;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param prototype 只设置了固定字段的载荷
+     */
+    @NonNull
+    public static PayloadTemplate compile(@NonNull WSPayload prototype) {
+        return new PayloadTemplate(prototype);
+    }
+
+    /**
+     * 编码载荷
+     */
+    @NonNull
+    @SuppressWarnings("deprecation") // 需要继续支持废弃字段以保持兼容性
+    public String encode(@NonNull WSPayload payload) {
+        if (prefix == null || !matches(payload)) {
+            return JSON.toJSONString(payload);
+        }
+        try (JSONWriter writer = JSONWriter.of()) {
+            writer.writeRaw(prefix);
+            writeString(writer, QUESTION, payload.getQuestion());
+            writeString(writer, SEGMENT_CODE, payload.getSegmentCode());
+            writeString(writer, EXTRA_HEADER, payload.getExtraHeader());
+            writeString(writer, EXTRA_BODY, payload.getExtraBody());
+            writeMessageParams(writer, payload.getMessageParams());
+            writeObject(writer, CHAT_HISTORY, payload.getChatHistory());
+            writeString(writer, TIP_MESSAGE_EXTRA, payload.getTipMessageExtra());
+            writeObject(writer, TIP_MESSAGE_PARAMS, payload.getTipMessageParams());
+            writeObject(writer, MODEL_PARAMS, payload.getModelOptions());
+            writer.writeRaw("}");
+            return writer.toString();
+        }
+    }
+
+    /**
+     * 载荷的固定字段是否与模板一致
+     */
+    public boolean matches(@NonNull WSPayload payload) {
+        return Objects.equals(payload.getCybertronRobotKey(), prototype.getCybertronRobotKey())
+                && Objects.equals(payload.getCybertronRobotToken(), prototype.getCybertronRobotToken())
+                && Objects.equals(payload.getUsername(), prototype.getUsername())
+                && Objects.equals(payload.getOpenFlowTrigger(), prototype.getOpenFlowTrigger())
+                && Objects.equals(payload.getOpenFlowUuid(), prototype.getOpenFlowUuid())
+                && Objects.equals(payload.getOpenFlowNodeUuid(), prototype.getOpenFlowNodeUuid())
+                && Objects.equals(payload.getOpenFlowNodeInputs(), prototype.getOpenFlowNodeInputs())
+                && Objects.equals(payload.getOpenFlowDebug(), prototype.getOpenFlowDebug());
+    }
+
+    private static void writeString(@NonNull JSONWriter writer, @NonNull String name, @Nullable String value) {
+        if (value != null) {
+            writer.writeRaw(",");
+            writer.writeRaw(name);
+            writer.writeString(value);
+        }
+    }
+
+    private static void writeMessageParams(@NonNull JSONWriter writer, @Nullable List<MessageParam> params) {
+        if (!(params instanceof MessageParamList encoded)) {
+            writeObject(writer, MESSAGE_PARAMS, params);
+            return;
+        }
+        writer.writeRaw(",");
+        writer.writeRaw(MESSAGE_PARAMS);
+        writer.writeRaw("[");
+        for (int i = 0; i < encoded.size(); i++) {
+            if (i > 0) {
+                writer.writeRaw(",");
+            }
+            String fragment = encoded.fragment(i);
+            if (fragment != null) {
+                writer.writeRaw(fragment);
+            } else {
+                writer.writeAny(encoded.get(i));
+            }
+        }
+        writer.writeRaw("]");
+    }
+
+    private static void writeObject(@NonNull JSONWriter writer, @NonNull String name, @Nullable Object value) {
+        if (value != null) {
+            writer.writeRaw(",");
+            writer.writeRaw(name);
+            writer.writeAny(value);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.brgroup.cybotstar.flow;
 
 import com.brgroup.cybotstar.agent.config.AgentConfig;
 import com.brgroup.cybotstar.flow.config.FlowConfig;
+import com.brgroup.cybotstar.flow.config.FlowProperties;
 import com.brgroup.cybotstar.core.connection.ConnectionManager;
 import com.brgroup.cybotstar.flow.model.FlowData;
 import com.brgroup.cybotstar.flow.model.FlowEventType;
@@ -16,12 +17,16 @@ import com.brgroup.cybotstar.core.model.common.ResponseType;
 import com.brgroup.cybotstar.core.model.ws.WSPayload;
 import com.brgroup.cybotstar.core.model.ws.WSResponse;
 import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
 import com.brgroup.cybotstar.flow.util.FlowPayloadBuilder;
 import com.brgroup.cybotstar.flow.util.FlowUtils;
-import com.alibaba.fastjson2.JSON;
+import com.brgroup.cybotstar.core.codec.FrameClassifier;
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.SmartLifecycle;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.core.Disposable;
@@ -42,7 +47,7 @@ import java.util.function.Consumer;
  * @author zhiyuan.xi
  */
 @Slf4j
-public class FlowClient {
+public class FlowClient implements InitializingBean, SmartLifecycle {
 
     @Getter
     private final FlowConfig config;
@@ -57,6 +62,12 @@ public class FlowClient {
     @Getter
     private final AtomicReference<String> sessionId = new AtomicReference<>();
 
+    // 请求载荷模板（凭证与 open_flow_* 预先编码）
+    private final PayloadTemplate payloadTemplate;
+
+    // 回答分类器（系统异常、风控拦截、系统消息关键字）
+    private final FrameClassifier classifier;
+
     private final AtomicBoolean historyExtracted = new AtomicBoolean(false);
 
     private final AtomicReference<String> abortReason = new AtomicReference<>();
@@ -68,6 +79,9 @@ public class FlowClient {
     private final AtomicReference<Disposable> messageSubscription = new AtomicReference<>();
     private final AtomicReference<Disposable> stateSubscription = new AtomicReference<>();
 
+    // 生命周期状态
+    private volatile boolean running;
+
     // 全局错误处理器
     private volatile Consumer<Throwable> globalErrorHandler = e -> log.error("Unhandled error in FlowClient", e);
 
@@ -78,6 +92,11 @@ public class FlowClient {
                 .websocket(config.getWebsocket())
                 .build();
         this.connectionManager = new ConnectionManager(properties);
+        this.payloadTemplate = FlowPayloadBuilder.buildTemplate(properties, config.getFlow());
+        FlowProperties flow = config.getFlow();
+        this.classifier = flow != null
+                ? FrameClassifier.of(flow.getSystemErrorPatterns(), flow.getRiskPatterns(), flow.getSystemMessagePatterns())
+                : FrameClassifier.DEFAULT;
     }
 
     // ============================================================================
@@ -232,6 +251,83 @@ public class FlowClient {
         connectionManager.disconnectAll().subscribe();
     }
 
+    /**
+     * 预热连接（websocket.min-idle 大于 0 时生效，异步执行，不阻塞启动）
+     */
+    public void warmUp() {
+        connectionManager.warmUp().subscribe(
+            v -> log.debug("FlowClient connections warmed up"),
+            error -> log.warn("Failed to warm up FlowClient connections", error)
+        );
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        warmUp();
+    }
+
+    /**
+     * 优雅停机
+     * 拒绝新的启动和输入，等待当前一轮流程执行到等待输入或结束（最长 websocket.drain-timeout），然后关闭连接
+     *
+     * @return 关闭完成后完成
+     */
+    @NonNull
+    public Mono<Void> drain() {
+        Long drainTimeout = config.getWebsocket() != null ? config.getWebsocket().getDrainTimeout() : null;
+        return connectionManager.drain(
+                        Duration.ofMillis(drainTimeout != null ? drainTimeout : CybotStarConstants.DEFAULT_DRAIN_TIMEOUT),
+                        () -> isStreaming() ? 1 : 0)
+                .then(Mono.fromRunnable(this::close));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        drain().block();
+    }
+
+    @Override
+    public void stop(@NonNull Runnable callback) {
+        running = false;
+        drain().subscribe(
+                v -> {},
+                error -> {
+                    log.error("Error draining FlowClient", error);
+                    callback.run();
+                },
+                () -> {
+                    log.debug("FlowClient drained");
+                    callback.run();
+                });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 晚于 Web 服务器优雅停机执行
+     */
+    @Override
+    public int getPhase() {
+        return CybotStarConstants.LIFECYCLE_PHASE;
+    }
+
+    /**
+     * 流程是否正在执行（已发出请求、尚未进入等待输入或结束）
+     */
+    private boolean isStreaming() {
+        FlowState state = flowState.get();
+        return state == FlowState.STARTING || state == FlowState.RUNNING;
+    }
+
     public void close() {
         flowState.set(FlowState.COMPLETED);
 
@@ -267,6 +363,9 @@ public class FlowClient {
 
     @NonNull
     private Mono<String> startInternal(@NonNull String initialInput, long timeoutMillis) {
+        if (connectionManager.isDraining()) {
+            return Mono.error(FlowException.shuttingDown());
+        }
         flowState.set(FlowState.STARTING);
         historyExtracted.set(false);
 
@@ -294,7 +393,7 @@ public class FlowClient {
                 .flatMap(connection -> {
                     // 清理旧订阅
                     Disposable oldMsgSub = messageSubscription.getAndSet(
-                        connection.messages()
+                        connection.messages(sid)
                             .subscribe(
                                 this::handleMessage,
                                 error -> {
@@ -320,7 +419,7 @@ public class FlowClient {
 
                     emit(FlowEventType.RAW_REQUEST, payload);
 
-                    return connection.send(payload)
+                    return connection.send(payload, payloadTemplate)
                             .doOnSuccess(v -> flowState.set(FlowState.RUNNING))
                             .thenReturn(sid);
                 })
@@ -336,6 +435,9 @@ public class FlowClient {
 
     @NonNull
     private Mono<Void> sendInternal(@NonNull String input) {
+        if (connectionManager.isDraining()) {
+            return Mono.error(FlowException.shuttingDown());
+        }
         FlowState currentState = getState();
         if (currentState != FlowState.RUNNING && currentState != FlowState.WAITING) {
             FlowException error = FlowException.notRunning();
@@ -373,7 +475,7 @@ public class FlowClient {
                         completionSink.tryEmitError(error);
                         return Mono.error(error);
                     }
-                    return connection.send(payload);
+                    return connection.send(payload, payloadTemplate);
                 });
     }
 
@@ -391,17 +493,20 @@ public class FlowClient {
     }
 
     private void handleMessage(@NonNull WSResponse response) {
-        FlowData.MessageData messageData = response.getData() instanceof Map
-                ? JSON.parseObject(JSON.toJSONString(response.getData()), FlowData.MessageData.class)
-                : null;
-        String dataCode = messageData != null && messageData.getCode() != null ? messageData.getCode() : "";
+        if (ResponseType.isType(response.getType(), ResponseType.HEARTBEAT)) return;
+
+        // 开始事件码直接从原始 data 读取，未开始时丢弃的帧不解码
+        Object dataObj = response.getData();
         String topLevelCode = response.getCode();
-        boolean isStartEvent = "002000".equals(dataCode) || "002000".equals(topLevelCode);
+        boolean isStartEvent = "002000".equals(topLevelCode)
+                || (dataObj instanceof Map<?, ?> rawData && "002000".equals(String.valueOf(rawData.get("code"))));
 
         FlowState currentState = getState();
         boolean isStarted = currentState == FlowState.RUNNING || currentState == FlowState.WAITING || currentState == FlowState.STARTING;
         if (!isStarted && !isStartEvent) return;
-        if (ResponseType.isType(response.getType(), ResponseType.HEARTBEAT)) return;
+
+        // 每帧只解码一次，后续处理共用
+        FlowData flowData = FrameDecoder.decodeFlow(response).flowData();
 
         emit(FlowEventType.RAW_RESPONSE, response);
 
@@ -414,19 +519,20 @@ public class FlowClient {
             return;
         }
 
-        Object dataObj = response.getData();
         if (dataObj instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> responseData = (Map<String, Object>) dataObj;
             String answer = (String) responseData.getOrDefault("answer", "");
-            if (answer.contains("系统异常(")) {
+            // 一次扫描得出分类
+            FrameClassifier.TextKind kind = classifier.classify(answer);
+            if (kind == FrameClassifier.TextKind.SYSTEM_ERROR) {
                 FlowException error = FlowException.fromServerMessage(answer, response);
                 flowState.set(FlowState.ERROR);
                 emit(FlowEventType.ERROR, error);
                 completionSink.tryEmitError(error);
                 return;
             }
-            if (answer.contains("涉及到风险")) {
+            if (kind == FrameClassifier.TextKind.RISK_BLOCKED) {
                 FlowException error = FlowException.flowError("Risk control blocked: " + answer, response);
                 flowState.set(FlowState.ABORTED);
                 abortReason.set(answer);
@@ -438,13 +544,13 @@ public class FlowClient {
                 return;
             }
         }
-        handleFlowMessage(response);
+        handleFlowMessage(response, flowData);
     }
 
-    private void handleFlowMessage(@NonNull WSResponse response) {
+    private void handleFlowMessage(@NonNull WSResponse response, @NonNull FlowData flowData) {
         if (response.getData() instanceof String) {
             String textContent = (String) response.getData();
-            if (textContent != null && textContent.contains("涉及到风险")) {
+            if (classifier.contains(textContent, FrameClassifier.TextKind.RISK_BLOCKED)) {
                 FlowException error = FlowException.flowError("Risk control blocked: " + textContent, response);
                 flowState.set(FlowState.ABORTED);
                 abortReason.set(textContent);
@@ -456,11 +562,6 @@ public class FlowClient {
                 return;
             }
 
-            FlowData flowData = new FlowData();
-            flowData.setCode(response.getCode());
-            flowData.setMessage(response.getMessage());
-            flowData.setType(response.getType());
-
             boolean isFinished = "y".equalsIgnoreCase(response.getFinish());
 
             Object handler = typedHandlerMap.get(FlowEventType.MESSAGE);
@@ -478,9 +579,6 @@ public class FlowClient {
             return;
         }
 
-        FlowData flowData = JSON.parseObject(JSON.toJSONString(response), FlowData.class);
-        if (flowData == null) return;
-
         FlowData.MessageData messageData = flowData.getData();
         String code = "";
         if (messageData != null && messageData.getCode() != null) code = messageData.getCode();
@@ -535,12 +633,12 @@ public class FlowClient {
         if (handler == null) return;
         FlowData.MessageData md = flowData.getData();
         if (handler instanceof MessageHandler) {
-            String msg = FlowUtils.extractFlowDisplayText(md);
+            String msg = FlowUtils.extractFlowDisplayText(md, classifier);
             if (msg == null) msg = "";
             boolean isFinished = FlowUtils.isMessageFinished(md);
             emit(FlowEventType.MESSAGE, msg, isFinished);
         } else {
-            emit(FlowEventType.MESSAGE, FlowVOExtractor.extractFlowMessageVO(flowData));
+            emit(FlowEventType.MESSAGE, FlowVOExtractor.extractFlowMessageVO(flowData, classifier));
         }
     }
 
@@ -553,15 +651,15 @@ public class FlowClient {
     }
 
     private void handleDebugMessage(@NonNull FlowData flowData) {
+        // 未注册调试处理器时不读取调试数据
+        Object handler = typedHandlerMap.get(FlowEventType.DEBUG);
+        if (handler == null) return;
         FlowData.MessageData md = flowData.getData();
         if (md == null) return;
         String answer = md.getAnswer() != null ? md.getAnswer() : "";
-        if (answer.contains("entity:") || answer.contains("node_id:")) return;
-        Object handler = typedHandlerMap.get(FlowEventType.DEBUG);
-        if (handler != null) {
-            FlowDebugVO vo = FlowVOExtractor.extractFlowDebugVO(flowData, answer);
-            emit(FlowEventType.DEBUG, vo);
-        }
+        if (classifier.contains(answer, FrameClassifier.TextKind.DEBUG_TRACE)) return;
+        FlowDebugVO vo = FlowVOExtractor.extractFlowDebugVO(flowData, answer);
+        emit(FlowEventType.DEBUG, vo);
     }
 
     private void handleWaiting(@NonNull FlowData flowData) {
@@ -591,7 +689,7 @@ public class FlowClient {
         FlowData.MessageData md = flowData.getData();
         if (md == null) return;
         Integer nodeWaitingInput = flowData.getNodeWaitingInput();
-        String displayText = FlowUtils.extractFlowDisplayText(md);
+        String displayText = FlowUtils.extractFlowDisplayText(md, classifier);
         Integer answerIndex = FlowUtils.getAnswerIndex(md);
         boolean isFinished = FlowUtils.isMessageFinished(md);
 
@@ -623,14 +721,15 @@ public class FlowClient {
     }
 
     private void extractAndEmitMessage(FlowData.MessageData messageData, FlowData flowData, String context) {
-        String displayText = FlowUtils.extractFlowDisplayText(messageData);
+        String displayText = FlowUtils.extractFlowDisplayText(messageData, classifier);
         Integer answerIndex = FlowUtils.getAnswerIndex(messageData);
         boolean isFinished = FlowUtils.isMessageFinished(messageData);
         if (displayText != null && !(isFinished && answerIndex != null)) {
             handleMessageEvent(flowData);
             historyExtracted.set(true);
         } else {
-            if (!historyExtracted.get()) {
+            // 未注册消息处理器时不映射历史
+            if (!historyExtracted.get() && typedHandlerMap.containsKey(FlowEventType.MESSAGE)) {
                 String historyDisplayText = extractMessageFromHistory(messageData);
                 if (historyDisplayText != null) {
                     handleMessageEvent(flowData);
@@ -642,6 +741,7 @@ public class FlowClient {
 
     private String extractMessageFromHistory(FlowData.MessageData messageData) {
         if (messageData == null) return null;
+        // 首次访问时才映射历史
         List<Map<String, Object>> history = messageData.getHistory();
         if (history == null || history.isEmpty()) return null;
         for (int i = history.size() - 1; i >= 0; i--) {
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -43,4 +44,19 @@ public class FlowProperties {
      */
     @Builder.Default
     private Boolean openFlowDebug = false;
+
+    /**
+     * 系统异常关键字，回答包含任一关键字时按错误处理；未配置时使用默认关键字（系统异常()
+     */
+    private List<String> systemErrorPatterns;
+
+    /**
+     * 风控拦截关键字，回答包含任一关键字时中止流程；未配置时使用默认关键字（涉及到风险）
+     */
+    private List<String> riskPatterns;
+
+    /**
+     * 系统消息关键字，回答包含任一关键字时不展示给用户；未配置时使用默认关键字（flow_enter、node_id: 等）
+     */
+    private List<String> systemMessagePatterns;
 }
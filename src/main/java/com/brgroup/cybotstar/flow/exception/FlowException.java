@@ -56,6 +56,8 @@ public class FlowException extends RuntimeException {
         INVALID_RESPONSE("INVALID_RESPONSE"),
         /** 配置错误 */
         INVALID_CONFIG("INVALID_CONFIG"),
+        /** 客户端正在停机 */
+        SHUTTING_DOWN("SHUTTING_DOWN"),
         /** 未知错误 */
         UNKNOWN("UNKNOWN");
 
@@ -139,6 +141,17 @@ public class FlowException extends RuntimeException {
         );
     }
 
+    /**
+     * 创建停机错误（优雅停机期间拒绝新请求）
+     */
+    public static FlowException shuttingDown() {
+        return new FlowException(
+                FlowErrorCode.SHUTTING_DOWN.getValue(),
+                "客户端正在停机，不再接受新请求",
+                null
+        );
+    }
+
     /**
      * 创建连接断开错误
      */
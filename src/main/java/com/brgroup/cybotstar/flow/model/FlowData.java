@@ -1,9 +1,18 @@
 package com.brgroup.cybotstar.flow.model;
 
+import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.annotation.JSONField;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -87,6 +96,16 @@ public class FlowData {
         @Nullable
         private List<Map<String, Object>> history;
 
+        /**
+         * 尚未映射的对话历史（解析结果），首次调用 {@link #getHistory()} 时映射
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        @Nullable
+        private transient List<?> historySource;
+
         /**
          * ⭐当前结点的 flow 输出
          */
@@ -178,6 +197,44 @@ public class FlowData {
         @Nullable
         private String manualReplyName;
 
+        @Nullable
+        public List<Map<String, Object>> getHistory() {
+            List<?> source = historySource;
+            if (source != null) {
+                List<Map<String, Object>> mapped = new ArrayList<>(source.size());
+                for (Object item : source) {
+                    mapped.add(item instanceof Map<?, ?> map ? toStringKeyed(map) : null);
+                }
+                history = mapped;
+                historySource = null;
+            }
+            return history;
+        }
+
+        public void setHistory(@Nullable List<Map<String, Object>> history) {
+            this.history = history;
+            this.historySource = null;
+        }
+
+        /**
+         * 设置尚未映射的对话历史，调试模式下历史可能很长，只在需要时映射
+         */
+        public void setLazyHistory(@Nullable List<?> source) {
+            this.history = null;
+            this.historySource = source;
+        }
+
+        @SuppressWarnings("unchecked")
+        @NonNull
+        private static Map<String, Object> toStringKeyed(@NonNull Map<?, ?> map) {
+            if (map instanceof JSONObject json) {
+                return json;
+            }
+            Map<String, Object> copy = new LinkedHashMap<>(map.size());
+            map.forEach((key, value) -> copy.put(String.valueOf(key), value));
+            return copy;
+        }
+
         /**
          * Flow 输出信息
          */
@@ -4,6 +4,7 @@ import com.brgroup.cybotstar.agent.config.AgentConfig;
 import com.brgroup.cybotstar.flow.config.FlowConfig;
 import com.brgroup.cybotstar.flow.config.FlowProperties;
 import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Map;
@@ -73,4 +74,19 @@ public class FlowPayloadBuilder {
 
         return payload;
     }
+
+    /**
+     * 构造 Flow 客户端的请求载荷模板
+     * 凭证、用户名与 open_flow_* 字段在创建客户端时预先编码，每次请求只编码 question 与 segment_code
+     *
+     * @param config 客户端配置
+     * @param flow   Flow 配置
+     * @return 载荷模板
+     */
+    public static PayloadTemplate buildTemplate(AgentConfig config, FlowProperties flow) {
+        FlowConfig options = FlowConfig.builder()
+                .flow(flow)
+                .build();
+        return PayloadTemplate.compile(buildFlowPayload(config, options, null));
+    }
 }
@@ -1,11 +1,9 @@
 package com.brgroup.cybotstar.flow.util;
 
+import com.brgroup.cybotstar.core.codec.FrameClassifier;
 import com.brgroup.cybotstar.flow.model.FlowData;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * Flow 消息处理工具函数
  *
@@ -16,29 +14,27 @@ import java.util.List;
 public class FlowUtils {
 
     /**
-     * 系统消息列表
+     * 判断是否为系统消息
+     *
+     * @param message 消息内容
+     * @return 是否为系统消息
      */
-    private static final List<String> SYSTEM_MESSAGES = Arrays.asList(
-            "flow_enter",
-            "node_waiting_input",
-            "current_communication_complete",
-            "node_id:",
-            "enter by prev_node_id:",
-            "entity:",
-            "llm response:"
-    );
+    public static boolean isFlowSystemMessage(String message) {
+        return isFlowSystemMessage(message, FrameClassifier.DEFAULT);
+    }
 
     /**
      * 判断是否为系统消息
      *
-     * @param message 消息内容
+     * @param message    消息内容
+     * @param classifier 帧分类器（系统消息关键字）
      * @return 是否为系统消息
      */
-    public static boolean isFlowSystemMessage(String message) {
+    public static boolean isFlowSystemMessage(String message, FrameClassifier classifier) {
         if (StringUtils.isBlank(message)) {
             return false;
         }
-        return SYSTEM_MESSAGES.stream().anyMatch(message::contains);
+        return classifier.contains(message, FrameClassifier.TextKind.SYSTEM_MESSAGE);
     }
 
     /**
@@ -50,6 +46,17 @@ public class FlowUtils {
      * @return 显示文本，如果无法提取则返回 null
      */
     public static String extractFlowDisplayText(FlowData.MessageData messageData) {
+        return extractFlowDisplayText(messageData, FrameClassifier.DEFAULT);
+    }
+
+    /**
+     * 提取 Flow 显示文本
+     *
+     * @param messageData Flow 消息数据
+     * @param classifier  帧分类器（系统消息关键字）
+     * @return 显示文本，如果无法提取则返回 null
+     */
+    public static String extractFlowDisplayText(FlowData.MessageData messageData, FrameClassifier classifier) {
         if (messageData == null) {
             return null;
         }
@@ -57,7 +64,7 @@ public class FlowUtils {
         String answer = messageData.getAnswer() != null ? messageData.getAnswer() : "";
         FlowData.MessageData.FlowOutput output = messageData.getOutput();
 
-        boolean isSystemMessage = isFlowSystemMessage(answer);
+        boolean isSystemMessage = isFlowSystemMessage(answer, classifier);
 
         String displayText = "";
 
@@ -1,5 +1,6 @@
 package com.brgroup.cybotstar.flow.util;
 
+import com.brgroup.cybotstar.core.codec.FrameClassifier;
 import com.brgroup.cybotstar.flow.model.FlowData;
 import com.brgroup.cybotstar.flow.model.FlowStartVO;
 import com.brgroup.cybotstar.flow.model.FlowNodeEnterVO;
@@ -86,6 +87,17 @@ public class FlowVOExtractor {
      * @return FlowMessageVO，如果 flowData 为 null 则返回 null
      */
     public static FlowMessageVO extractFlowMessageVO(FlowData flowData) {
+        return extractFlowMessageVO(flowData, FrameClassifier.DEFAULT);
+    }
+
+    /**
+     * 从 FlowData 中提取 FlowMessageVO
+     *
+     * @param flowData   Flow 响应数据
+     * @param classifier 帧分类器（系统消息关键字）
+     * @return FlowMessageVO，如果 flowData 为 null 则返回 null
+     */
+    public static FlowMessageVO extractFlowMessageVO(FlowData flowData, FrameClassifier classifier) {
         if (flowData == null) {
             return null;
         }
@@ -102,7 +114,7 @@ public class FlowVOExtractor {
         FlowData.MessageData messageData = flowData.getData();
         if (messageData != null) {
             // 提取显示文本
-            String displayText = FlowUtils.extractFlowDisplayText(messageData);
+            String displayText = FlowUtils.extractFlowDisplayText(messageData, classifier);
             vo.setDisplayText(displayText);
             
             // 提取完成状态
@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -99,6 +100,10 @@ public class FlowConfigLoader {
         if (websocketMap != null) {
             WebSocketProperties.WebSocketPropertiesBuilder wsBuilder = WebSocketProperties.builder();
             wsBuilder.url(getStringValue(websocketMap, "url", ""));
+            Object urlsObj = websocketMap.get("urls");
+            if (urlsObj instanceof List<?> urlList) {
+                wsBuilder.urls(urlList.stream().map(String::valueOf).toList());
+            }
             wsBuilder.timeout(getIntegerValue(websocketMap, "timeout", 30000));
             wsBuilder.maxRetries(getIntegerValue(websocketMap, "max-retries", 3));
             wsBuilder.retryInterval(getLongValue(websocketMap, "retry-interval", 1000L));
@@ -121,6 +126,11 @@ public class FlowConfigLoader {
             if (nodeInputsObj instanceof Map) {
                 flowBuilder.openFlowNodeInputs((Map<String, Object>) nodeInputsObj);
             }
+
+            // 加载回答分类关键字（如果存在）
+            flowBuilder.systemErrorPatterns(getStringList(flowMap, "system-error-patterns"));
+            flowBuilder.riskPatterns(getStringList(flowMap, "risk-patterns"));
+            flowBuilder.systemMessagePatterns(getStringList(flowMap, "system-message-patterns"));
             
             builder.flow(flowBuilder.build());
         }
@@ -131,6 +141,17 @@ public class FlowConfigLoader {
         return builder.build();
     }
 
+    /**
+     * 从 Map 中获取字符串列表
+     */
+    private static List<String> getStringList(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof List<?> list) {
+            return list.stream().map(String::valueOf).toList();
+        }
+        return null;
+    }
+
     /**
      * 从 Map 中获取字符串值
      */
@@ -0,0 +1,70 @@
+package com.brgroup.cybotstar.agent.handler;
+
+import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler.MessageEvent;
+import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler.MessageEventType;
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 响应式消息处理器测试
+ *
+ * @author zhiyuan.xi
+ */
+class ReactiveMessageHandlerTest {
+
+    private final ReactiveMessageHandler handler = new ReactiveMessageHandler();
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    // 预先组装的事件流，帧源每次订阅重新读取
+    private final Flux<MessageEvent> events = handler.handleFrames(Flux.defer(() -> {
+        subscriptions.incrementAndGet();
+        return Flux.just(chunk(1, false), chunk(2, false), chunk(2, false), chunk(3, true));
+    }));
+
+    @Test
+    void mapsFramesToEvents() {
+        List<MessageEvent> received = events.collectList().block();
+
+        assertThat(received).extracting(MessageEvent::getType)
+                .containsExactly(MessageEventType.CHUNK, MessageEventType.CHUNK, MessageEventType.CHUNK,
+                        MessageEventType.COMPLETE);
+    }
+
+    @Test
+    void appliesFilterInSharedStage() {
+        List<String> filtered = ReactiveMessageHandler.filtered(events, frame -> frame.getIndex() != 2)
+                .map(MessageEvent::getContent)
+                .collectList()
+                .block();
+        List<MessageEvent> unfiltered = events.collectList().block();
+
+        assertThat(filtered).containsExactly("片段1", "片段3");
+        // 过滤器只作用于附加它的订阅
+        assertThat(unfiltered).hasSize(4);
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void skipsHeartbeats() {
+        InboundFrame heartbeat = FrameDecoder.read(
+                "{\"code\":\"000000\",\"message\":\"success\",\"type\":\"heartbeat\",\"data\":\"ping\"}");
+
+        assertThat(handler.handleFrames(Flux.just(heartbeat, chunk(1, true))).collectList().block())
+                .extracting(MessageEvent::getType)
+                .containsExactly(MessageEventType.COMPLETE);
+    }
+
+    private static InboundFrame chunk(int index, boolean finished) {
+        return FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"index\":" + index + ",\"finish\":\"" + (finished ? "y" : "n") + "\","
+                + "\"data\":{\"answer\":\"片段" + index + "\"}}");
+    }
+}
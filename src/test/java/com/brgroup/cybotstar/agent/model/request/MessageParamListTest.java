@@ -0,0 +1,72 @@
+package com.brgroup.cybotstar.agent.model.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 带编码缓存的消息列表测试
+ *
+ * @author zhiyuan.xi
+ */
+class MessageParamListTest {
+
+    @Test
+    void appendsEncodedTurnsWithoutChangingEarlierSnapshots() {
+        MessageParamList first = turn(MessageParamList.empty(), 1, 10);
+        MessageParamList second = turn(first, 2, 10);
+
+        assertThat(first).extracting(MessageParam::getContent).containsExactly("问题 1", "回答 1");
+        assertThat(second).extracting(MessageParam::getContent)
+                .containsExactly("问题 1", "回答 1", "问题 2", "回答 2");
+        assertThat(second.fragment(2)).isEqualTo("f-问题 2");
+    }
+
+    @Test
+    void trimsToMaxSize() {
+        MessageParamList history = MessageParamList.empty();
+        for (int i = 1; i <= 40; i++) {
+            history = turn(history, i, 5);
+        }
+
+        assertThat(history).hasSize(5);
+        assertThat(history).extracting(MessageParam::getContent)
+                .containsExactly("回答 38", "问题 39", "回答 39", "问题 40", "回答 40");
+        assertThat(history.fragment(0)).isEqualTo("f-回答 38");
+        assertThat(history.fragment(5)).isNull();
+    }
+
+    @Test
+    void copiesWhenAppendingToStaleSnapshot() {
+        MessageParamList base = turn(MessageParamList.empty(), 1, 10);
+        MessageParamList a = turn(base, 2, 10);
+        // base 已不是最新快照，追加时不能覆盖 a 写入的位置
+        MessageParamList b = turn(base, 3, 10);
+
+        assertThat(a).extracting(MessageParam::getContent).containsExactly("问题 1", "回答 1", "问题 2", "回答 2");
+        assertThat(b).extracting(MessageParam::getContent).containsExactly("问题 1", "回答 1", "问题 3", "回答 3");
+        assertThat(b.fragment(3)).isEqualTo("f-回答 3");
+    }
+
+    @Test
+    void appendedMessagesHaveNoFragmentAndStayOutOfHistory() {
+        MessageParamList history = turn(MessageParamList.empty(), 1, 10);
+        MessageParamList request = history.append(List.of(MessageParam.user("新问题")));
+        MessageParamList next = turn(history, 2, 10);
+
+        assertThat(request).extracting(MessageParam::getContent).containsExactly("问题 1", "回答 1", "新问题");
+        assertThat(request.fragment(2)).isNull();
+        assertThat(next).extracting(MessageParam::getContent).containsExactly("问题 1", "回答 1", "问题 2", "回答 2");
+        assertThatThrownBy(() -> request.get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static MessageParamList turn(MessageParamList history, int n, int maxSize) {
+        MessageParam question = MessageParam.user("问题 " + n);
+        MessageParam answer = MessageParam.assistant("回答 " + n);
+        return history.appendEncoded(List.of(question, answer),
+                List.of("f-" + question.getContent(), "f-" + answer.getContent()), maxSize);
+    }
+}
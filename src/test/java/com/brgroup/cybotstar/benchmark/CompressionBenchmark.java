@@ -0,0 +1,132 @@
+package com.brgroup.cybotstar.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * permessage-deflate 压缩基准测试
+ * 对不同轮数的 message_params 历史，测量原始 DEFLATE（permessage-deflate 使用的格式）压缩耗时，
+ * 并通过辅助计数器输出压缩前后字节数
+ * <p>
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.brgroup.cybotstar.benchmark.CompressionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    // 历史轮数（一问一答为一轮）
+    @Param({"1", "10", "50", "200"})
+    private int turns;
+
+    // 压缩级别（JDK 默认 -1 即 6）
+    @Param({"1", "6"})
+    private int level;
+
+    private byte[] frame;
+
+    private byte[] output;
+
+    private Deflater deflater;
+
+    /**
+     * 每次调用的字节统计
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long rawBytes;
+        public long compressedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rawBytes = 0;
+            compressedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        List<MessageParam> history = new ArrayList<>(turns * 2 + 1);
+        history.add(MessageParam.system("你是一名专业的理财顾问，请根据用户的风险偏好给出建议。"));
+        for (int i = 0; i < turns; i++) {
+            history.add(MessageParam.user("第 " + i + " 轮：我想了解一下稳健型基金和债券基金的区别，以及适合的持有期限。"));
+            history.add(MessageParam.assistant("稳健型基金通常以债券为主、少量配置权益资产，波动较小；"
+                    + "债券基金则几乎全部投资于债券，收益主要来自票息与利率变化。第 " + i
+                    + " 轮建议：持有期限一般不少于一年，并关注回撤与费率。"));
+        }
+
+        WSPayload payload = new WSPayload();
+        payload.setCybertronRobotKey("robot-key-0123456789abcdef");
+        payload.setCybertronRobotToken("robot-token-0123456789abcdef");
+        payload.setUsername("benchmark-user");
+        payload.setQuestion("请总结一下我们刚才的讨论");
+        payload.setSegmentCode("session-benchmark");
+        payload.setMessageParams(history);
+
+        frame = JSON.toJSONString(payload).getBytes(StandardCharsets.UTF_8);
+        output = new byte[frame.length + 64];
+        // permessage-deflate 使用不带 zlib 头的原始 DEFLATE
+        deflater = new Deflater(level, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deflater.end();
+    }
+
+    @Benchmark
+    public int deflate(Bytes bytes) {
+        // 每帧独立压缩（no_context_takeover），与扩展一样使用 SYNC_FLUSH 结束一帧
+        deflater.reset();
+        deflater.setInput(frame);
+        int length = 0;
+        int written;
+        do {
+            int space = output.length - length;
+            written = deflater.deflate(output, length, space, Deflater.SYNC_FLUSH);
+            length += written;
+            if (written < space) {
+                break;
+            }
+        } while (length < output.length);
+        bytes.rawBytes += frame.length;
+        bytes.compressedBytes += length;
+        return length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompressionBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
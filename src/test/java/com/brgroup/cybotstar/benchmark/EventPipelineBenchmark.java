@@ -0,0 +1,116 @@
+package com.brgroup.cybotstar.benchmark;
+
+import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler;
+import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler.MessageEvent;
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import com.brgroup.cybotstar.core.model.common.ResponseType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件映射管道基准测试
+ * 对比每帧经三个 flatMap 创建内部 Mono 的原实现（legacy）、每次组装的同步映射阶段（fused）
+ * 与组装一次后重复订阅的管道（fusedReused），结果为每个片段帧的耗时，
+ * 每帧分配字节数见 GC profiler 输出的 gc.alloc.rate.norm
+ * <p>
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.brgroup.cybotstar.benchmark.EventPipelineBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPipelineBenchmark {
+
+    // 一次回答的片段帧数
+    private static final int CHUNKS = 256;
+
+    private final ReactiveMessageHandler handler = new ReactiveMessageHandler();
+
+    private InboundFrame[] frames;
+
+    private Flux<MessageEvent> pipeline;
+
+    @Setup
+    public void setup() {
+        frames = new InboundFrame[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            String finish = i == CHUNKS - 1 ? "y" : "n";
+            frames[i] = FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-0123456789\","
+                    + "\"type\":\"string\",\"index\":" + (i + 1) + ",\"finish\":\"" + finish + "\","
+                    + "\"data\":{\"answer\":\"稳健型基金通常以债券为主、少量配置权益资产。\"}}");
+        }
+        pipeline = handler.handleFrames(Flux.defer(() -> Flux.fromArray(frames)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public void legacy(Blackhole blackhole) {
+        // 原实现：过滤心跳后逐帧 flatMap 识别特殊 index、检查错误、转换事件
+        Flux.fromArray(frames)
+                .filter(frame -> !ResponseType.isType(frame.getType(), ResponseType.HEARTBEAT))
+                .flatMap(Mono::just)
+                .flatMap(EventPipelineBenchmark::checkError)
+                .flatMap(EventPipelineBenchmark::toMessageEvent)
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public void fused(Blackhole blackhole) {
+        handler.handleFrames(Flux.fromArray(frames)).subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public void fusedReused(Blackhole blackhole) {
+        pipeline.subscribe(blackhole::consume);
+    }
+
+    private static Mono<InboundFrame> checkError(InboundFrame frame) {
+        String code = frame.getCode();
+        if (code != null && !"000000".equals(code)) {
+            return Mono.error(new RuntimeException(frame.getCode()));
+        }
+        return Mono.just(frame);
+    }
+
+    private static Mono<MessageEvent> toMessageEvent(InboundFrame frame) {
+        if (frame.isFinished()) {
+            return Mono.just(MessageEvent.complete(frame.getText(), frame.getDialogId()));
+        }
+        if (frame.getText().isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.just(MessageEvent.chunk(frame.getText()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventPipelineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
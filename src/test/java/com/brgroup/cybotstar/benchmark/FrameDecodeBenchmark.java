@@ -0,0 +1,101 @@
+package com.brgroup.cybotstar.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import com.brgroup.cybotstar.core.codec.DecodedFrame;
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.model.ws.WSResponse;
+import com.brgroup.cybotstar.core.model.ws.WSResponseData;
+import com.brgroup.cybotstar.flow.model.FlowData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 入站帧解码基准测试
+ * 对比每帧多次 toJSONString + parseObject 往返（legacy*）、单次解码（decoded*）
+ * 与片段帧快速路径（fastPath*）的耗时，每帧分配字节数见 GC profiler 输出的 gc.alloc.rate.norm
+ * <p>
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.brgroup.cybotstar.benchmark.FrameDecodeBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameDecodeBenchmark {
+
+    private final String agentChunk = "{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-0123456789\","
+            + "\"type\":\"string\",\"index\":12,\"finish\":\"n\","
+            + "\"data\":{\"answer\":\"稳健型基金通常以债券为主、少量配置权益资产，波动较小。\"}}";
+
+    private final String flowFrame = "{\"code\":\"000000\",\"message\":\"success\",\"type\":\"flow\",\"index\":3,"
+            + "\"flow_name\":\"理财咨询\",\"node_type\":\"llm\",\"node_title\":\"产品推荐\",\"node_waiting_input\":0,"
+            + "\"data\":{\"answer\":\"为您推荐以下产品：\",\"content_type\":\"text\",\"flow_stage\":\"running\","
+            + "\"code\":\"002002\",\"node_stream\":1,\"node_answer_index\":3,\"node_answer_finish\":\"n\","
+            + "\"cur_node_id\":\"node-42\",\"parent_node_id\":\"node-41\","
+            + "\"output\":{\"robot_user_replying\":\"为您推荐以下产品：\",\"variables\":{\"risk\":\"R2\"}}}}";
+
+    @Benchmark
+    public String legacyAgentChunk() {
+        WSResponse response = JSON.parseObject(agentChunk, WSResponse.class);
+        // 原实现：data 先序列化再解析为 WSResponseData，没有 answer 时再解析为 Map
+        String json = JSON.toJSONString(response.getData());
+        WSResponseData data = JSON.parseObject(json, WSResponseData.class);
+        if (data != null && data.getAnswer() != null) {
+            return data.getAnswer();
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = JSON.parseObject(json, Map.class);
+        return map != null ? String.valueOf(map.get("answer")) : "";
+    }
+
+    @Benchmark
+    public String decodedAgentChunk() {
+        DecodedFrame frame = FrameDecoder.decode(FrameDecoder.parse(agentChunk));
+        return ((DecodedFrame.Chunk) frame).text();
+    }
+
+    @Benchmark
+    public String fastPathAgentChunk() {
+        return FrameDecoder.read(agentChunk).getText();
+    }
+
+    @Benchmark
+    public FlowData legacyFlowFrame() {
+        WSResponse response = JSON.parseObject(flowFrame, WSResponse.class);
+        // 原实现：先将 data 往返解析为 MessageData 取 code，再将整个响应往返解析为 FlowData
+        FlowData.MessageData messageData = JSON.parseObject(JSON.toJSONString(response.getData()), FlowData.MessageData.class);
+        if (messageData == null) {
+            return null;
+        }
+        return JSON.parseObject(JSON.toJSONString(response), FlowData.class);
+    }
+
+    @Benchmark
+    public FlowData decodedFlowFrame() {
+        return FrameDecoder.decodeFlow(FrameDecoder.parse(flowFrame)).flowData();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FrameDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
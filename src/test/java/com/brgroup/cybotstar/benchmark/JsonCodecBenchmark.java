@@ -0,0 +1,131 @@
+package com.brgroup.cybotstar.benchmark;
+
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.agent.model.ModelOptions;
+import com.brgroup.cybotstar.agent.model.request.ExtendedSendOptions;
+import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import com.brgroup.cybotstar.core.codec.JsonCodec;
+import com.brgroup.cybotstar.core.codec.JsonCodecType;
+import com.brgroup.cybotstar.core.codec.JsonCodecs;
+import com.brgroup.cybotstar.core.config.CredentialProperties;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import com.brgroup.cybotstar.core.util.payload.PayloadBuilder;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
+import com.brgroup.cybotstar.flow.model.FlowData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON 编解码器基准测试
+ * 按实际报文形态对比 fastjson2 与 Jackson：Agent 流式片段帧（文本 / UTF-8 字节）、
+ * Flow 帧（解析 + 映射为 FlowData）与带 10 条历史消息的请求载荷编码，
+ * 每次操作分配字节数见 GC profiler 输出的 gc.alloc.rate.norm
+ * <p>
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.brgroup.cybotstar.benchmark.JsonCodecBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"FASTJSON2", "JACKSON"})
+    private JsonCodecType codecType;
+
+    private final String agentChunk = "{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-0123456789\","
+            + "\"type\":\"string\",\"index\":12,\"finish\":\"n\","
+            + "\"data\":{\"answer\":\"稳健型基金通常以债券为主、少量配置权益资产，波动较小。\"}}";
+
+    private final String flowFrame = "{\"code\":\"000000\",\"message\":\"success\",\"type\":\"flow\",\"index\":3,"
+            + "\"flow_name\":\"理财咨询\",\"node_type\":\"llm\",\"node_title\":\"产品推荐\",\"node_waiting_input\":0,"
+            + "\"data\":{\"answer\":\"为您推荐以下产品：\",\"content_type\":\"text\",\"flow_stage\":\"running\","
+            + "\"code\":\"002002\",\"node_stream\":1,\"node_answer_index\":3,\"node_answer_finish\":\"n\","
+            + "\"cur_node_id\":\"node-42\",\"parent_node_id\":\"node-41\","
+            + "\"output\":{\"robot_user_replying\":\"为您推荐以下产品：\",\"variables\":{\"risk\":\"R2\"}}}}";
+
+    private final byte[] agentChunkBytes = agentChunk.getBytes(StandardCharsets.UTF_8);
+
+    private JsonCodec codec;
+
+    private PayloadTemplate template;
+
+    private WSPayload payload;
+
+    @Setup
+    public void setup() {
+        codec = JsonCodecs.of(codecType);
+
+        AgentConfig config = AgentConfig.builder()
+                .credentials(CredentialProperties.builder()
+                        .robotKey("robot-key-0123456789abcdef")
+                        .robotToken("robot-token-0123456789abcdef")
+                        .username("benchmark-user")
+                        .build())
+                .build();
+        template = PayloadBuilder.buildTemplate(config);
+
+        List<MessageParam> history = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            history.add(i % 2 == 0
+                    ? MessageParam.user("第 " + i + " 轮：稳健型基金和债券基金有什么区别？")
+                    : MessageParam.assistant("稳健型基金以债券为主、少量配置权益资产，波动较小。"));
+        }
+        payload = PayloadBuilder.buildPayload(config, "请总结一下我们刚才的讨论", "session-benchmark",
+                ExtendedSendOptions.builder()
+                        .messageParams(history)
+                        .modelOptions(ModelOptions.builder().temperature(0.7).build())
+                        .build());
+    }
+
+    @Benchmark
+    public String readAgentChunk() {
+        return codec.read(agentChunk).getText();
+    }
+
+    @Benchmark
+    public String readAgentChunkBytes() {
+        return codec.read(agentChunkBytes, 0, agentChunkBytes.length).getText();
+    }
+
+    @Benchmark
+    public FlowData readFlowFrame() {
+        InboundFrame frame = codec.read(flowFrame);
+        return FrameDecoder.decodeFlow(frame.response()).flowData();
+    }
+
+    @Benchmark
+    public String encodePayload() {
+        return codec.encode(payload, template);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
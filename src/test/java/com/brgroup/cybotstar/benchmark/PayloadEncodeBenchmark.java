@@ -0,0 +1,115 @@
+package com.brgroup.cybotstar.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.agent.model.ModelOptions;
+import com.brgroup.cybotstar.agent.model.request.ExtendedSendOptions;
+import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.agent.model.request.MessageParamList;
+import com.brgroup.cybotstar.core.config.CredentialProperties;
+import com.brgroup.cybotstar.core.util.payload.PayloadBuilder;
+import com.brgroup.cybotstar.core.util.payload.PayloadTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求载荷编码基准测试
+ * 对比每次请求完整反射序列化 WSPayload（builder）、预编码模板只写入变化字段（template）
+ * 与模板拼接历史消息编码缓存（templateCachedHistory）的耗时，
+ * 每次请求分配字节数见 GC profiler 输出的 gc.alloc.rate.norm
+ * <p>
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.brgroup.cybotstar.benchmark.PayloadEncodeBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadEncodeBenchmark {
+
+    // message_params 条数（0 表示只有 question）
+    @Param({"0", "10", "100"})
+    private int messages;
+
+    private AgentConfig config;
+
+    private PayloadTemplate template;
+
+    private ExtendedSendOptions options;
+
+    private ExtendedSendOptions cachedOptions;
+
+    @Setup
+    public void setup() {
+        config = AgentConfig.builder()
+                .credentials(CredentialProperties.builder()
+                        .robotKey("robot-key-0123456789abcdef")
+                        .robotToken("robot-token-0123456789abcdef")
+                        .username("benchmark-user")
+                        .build())
+                .build();
+        template = PayloadBuilder.buildTemplate(config);
+
+        List<MessageParam> history = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            history.add(i % 2 == 0
+                    ? MessageParam.user("第 " + i + " 轮：稳健型基金和债券基金有什么区别？")
+                    : MessageParam.assistant("稳健型基金以债券为主、少量配置权益资产，波动较小。"));
+        }
+        options = ExtendedSendOptions.builder()
+                .messageParams(history.isEmpty() ? null : history)
+                .modelOptions(ModelOptions.builder().temperature(0.7).build())
+                .build();
+
+        List<String> fragments = new ArrayList<>(messages);
+        for (MessageParam message : history) {
+            fragments.add(JSON.toJSONString(message));
+        }
+        cachedOptions = ExtendedSendOptions.builder()
+                .messageParams(history.isEmpty() ? null : new MessageParamList(history, fragments))
+                .modelOptions(ModelOptions.builder().temperature(0.7).build())
+                .build();
+    }
+
+    @Benchmark
+    public String builder() {
+        return JSON.toJSONString(PayloadBuilder.buildPayload(config, "请总结一下我们刚才的讨论", "session-benchmark", options));
+    }
+
+    @Benchmark
+    public String template() {
+        return template.encode(PayloadBuilder.buildPayload(config, "请总结一下我们刚才的讨论", "session-benchmark", options));
+    }
+
+    @Benchmark
+    public String templateCachedHistory() {
+        return template.encode(PayloadBuilder.buildPayload(config, "请总结一下我们刚才的讨论", "session-benchmark", cachedOptions));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadEncodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
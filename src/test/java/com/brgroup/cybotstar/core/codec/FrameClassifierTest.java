@@ -0,0 +1,108 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.brgroup.cybotstar.core.codec.FrameClassifier.TextKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 帧分类器测试
+ *
+ * @author zhiyuan.xi
+ */
+class FrameClassifierTest {
+
+    private final FrameClassifier classifier = FrameClassifier.DEFAULT;
+
+    @Test
+    void classifiesDefaultPatterns() {
+        assertThat(classifier.classify("系统异常(209),稍后再试")).isEqualTo(TextKind.SYSTEM_ERROR);
+        assertThat(classifier.classify("您的问题涉及到风险，无法回答")).isEqualTo(TextKind.RISK_BLOCKED);
+        assertThat(classifier.classify("enter by prev_node_id: node-41")).isEqualTo(TextKind.SYSTEM_MESSAGE);
+        assertThat(classifier.classify("llm response: ok")).isEqualTo(TextKind.SYSTEM_MESSAGE);
+        assertThat(classifier.classify("稳健型基金以债券为主")).isEqualTo(TextKind.NONE);
+    }
+
+    @Test
+    void treatsNullAndEmptyAsNone() {
+        assertThat(classifier.classify(null)).isEqualTo(TextKind.NONE);
+        assertThat(classifier.classify("")).isEqualTo(TextKind.NONE);
+        assertThat(classifier.contains(null, TextKind.RISK_BLOCKED)).isFalse();
+    }
+
+    @Test
+    void requiresCompletePattern() {
+        // 只有前缀或被其他字符打断时不算命中
+        assertThat(classifier.classify("系统异常")).isEqualTo(TextKind.NONE);
+        assertThat(classifier.classify("涉及到 风险")).isEqualTo(TextKind.NONE);
+        assertThat(classifier.classify("node_id")).isEqualTo(TextKind.NONE);
+    }
+
+    @Test
+    void higherPriorityKindWinsRegardlessOfPosition() {
+        assertThat(classifier.classify("node_id: 1 涉及到风险")).isEqualTo(TextKind.RISK_BLOCKED);
+        assertThat(classifier.classify("涉及到风险 node_id: 1")).isEqualTo(TextKind.RISK_BLOCKED);
+        assertThat(classifier.classify("node_id: 1 涉及到风险 系统异常(500)")).isEqualTo(TextKind.SYSTEM_ERROR);
+    }
+
+    @Test
+    void containsChecksSingleKind() {
+        String text = "系统异常(209) 涉及到风险";
+
+        assertThat(classifier.contains(text, TextKind.SYSTEM_ERROR)).isTrue();
+        assertThat(classifier.contains(text, TextKind.RISK_BLOCKED)).isTrue();
+        assertThat(classifier.contains(text, TextKind.SYSTEM_MESSAGE)).isFalse();
+        assertThat(classifier.contains(text, TextKind.NONE)).isFalse();
+    }
+
+    @Test
+    void matchesOverlappingPatterns() {
+        // 经典的 he / she / hers 组合：命中依赖失配链上的输出
+        FrameClassifier overlapping = new FrameClassifier(List.of("hers"), List.of("she"), List.of("he"));
+
+        assertThat(overlapping.classify("ushers")).isEqualTo(TextKind.SYSTEM_ERROR);
+        assertThat(overlapping.classify("ushe")).isEqualTo(TextKind.RISK_BLOCKED);
+        assertThat(overlapping.classify("the")).isEqualTo(TextKind.SYSTEM_MESSAGE);
+        assertThat(overlapping.contains("ushe", TextKind.SYSTEM_MESSAGE)).isTrue();
+        assertThat(overlapping.contains("ushe", TextKind.SYSTEM_ERROR)).isFalse();
+    }
+
+    @Test
+    void restartsAfterPartialMatch() {
+        FrameClassifier repeated = new FrameClassifier(List.of("aab"), List.of(), List.of());
+
+        assertThat(repeated.classify("aaab")).isEqualTo(TextKind.SYSTEM_ERROR);
+        assertThat(repeated.classify("abaab")).isEqualTo(TextKind.SYSTEM_ERROR);
+        assertThat(repeated.classify("abab")).isEqualTo(TextKind.NONE);
+    }
+
+    @Test
+    void ignoresEmptyPatterns() {
+        FrameClassifier withEmpty = new FrameClassifier(List.of(""), List.of("风险"), List.of());
+
+        assertThat(withEmpty.classify("普通回答")).isEqualTo(TextKind.NONE);
+        assertThat(withEmpty.classify("有风险")).isEqualTo(TextKind.RISK_BLOCKED);
+    }
+
+    @Test
+    void fillsUnconfiguredKindsWithDefaults() {
+        assertThat(FrameClassifier.of(null, null, null)).isSameAs(FrameClassifier.DEFAULT);
+
+        FrameClassifier custom = FrameClassifier.of(null, List.of("命中风控"), null);
+        assertThat(custom.classify("命中风控")).isEqualTo(TextKind.RISK_BLOCKED);
+        assertThat(custom.classify("涉及到风险")).isEqualTo(TextKind.NONE);
+        assertThat(custom.classify("系统异常(1)")).isEqualTo(TextKind.SYSTEM_ERROR);
+        assertThat(custom.classify("node_id: 1")).isEqualTo(TextKind.SYSTEM_MESSAGE);
+    }
+
+    @Test
+    void detectsDebugTraceWithoutChangingClassification() {
+        assertThat(classifier.contains("entity: {\"city\":\"上海\"}", TextKind.DEBUG_TRACE)).isTrue();
+        assertThat(classifier.contains("node_id: node-41", TextKind.DEBUG_TRACE)).isTrue();
+        assertThat(classifier.contains("llm response: ok", TextKind.DEBUG_TRACE)).isFalse();
+        // 同时命中系统消息时按优先级归为系统消息
+        assertThat(classifier.classify("node_id: node-41")).isEqualTo(TextKind.SYSTEM_MESSAGE);
+    }
+}
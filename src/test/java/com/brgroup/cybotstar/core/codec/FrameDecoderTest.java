@@ -0,0 +1,71 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.brgroup.cybotstar.core.model.ws.WSResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 入站帧解码器测试
+ *
+ * @author zhiyuan.xi
+ */
+class FrameDecoderTest {
+
+    @Test
+    void readsChunkOnFastPath() {
+        InboundFrame frame = FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\","
+                + "\"type\":\"string\",\"index\":2,\"finish\":\"n\",\"data\":{\"answer\":\"你好\"}}");
+
+        assertThat(frame.isChunk()).isTrue();
+        assertThat(frame.getText()).isEqualTo("你好");
+        assertThat(frame.getDialogId()).isEqualTo("d-1");
+    }
+
+    @Test
+    void skipsUnknownTopLevelFields() {
+        String text = "{\"code\":\"000000\",\"timestamp\":1760659200000,\"trace\":{\"id\":\"t-1\",\"spans\":[1,2]},"
+                + "\"type\":\"string\",\"index\":2,\"finish\":\"n\",\"data\":{\"answer\":\"你好\"}}";
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(FrameDecoder.read(text).isChunk()).isTrue();
+        assertThat(FrameDecoder.read(text).getText()).isEqualTo("你好");
+        assertThat(FrameDecoder.read(utf8, 0, utf8.length).isChunk()).isTrue();
+    }
+
+    @Test
+    void keepsExtraDataKeys() {
+        String text = "{\"code\":\"000000\",\"type\":\"string\",\"index\":2,\"finish\":\"n\","
+                + "\"data\":{\"trace_id\":\"t-1\",\"answer\":\"你好\",\"tokens\":{\"output\":3}}}";
+
+        InboundFrame frame = FrameDecoder.read(text);
+
+        assertThat(frame.isChunk()).isTrue();
+        assertThat(frame.getText()).isEqualTo("你好");
+        // 按需构建的完整响应与完整解码一致
+        assertThat(frame.response().getData()).isEqualTo(JSONObject.parseObject(text).getJSONObject("data"));
+    }
+
+    @Test
+    void fallsBackForFlowFields() {
+        InboundFrame frame = FrameDecoder.read("{\"code\":\"000000\",\"type\":\"string\",\"index\":2,"
+                + "\"flow_name\":\"开户\",\"node_title\":\"确认身份\",\"data\":{\"answer\":\"请输入证件号\"}}");
+
+        assertThat(frame.isChunk()).isFalse();
+        WSResponse response = frame.response();
+        assertThat(response.getFlowName()).isEqualTo("开户");
+        assertThat(response.getNodeTitle()).isEqualTo("确认身份");
+    }
+
+    @Test
+    void fallsBackForReasoningWithExtraData() {
+        InboundFrame frame = FrameDecoder.read("{\"code\":\"000000\",\"type\":\"reasoning\",\"index\":2,"
+                + "\"data\":{\"content\":\"思考中\"}}");
+
+        assertThat(frame.isChunk()).isFalse();
+        assertThat(FrameDecoder.text(frame.response())).isEqualTo("思考中");
+    }
+}
@@ -0,0 +1,78 @@
+package com.brgroup.cybotstar.core.codec;
+
+import com.brgroup.cybotstar.agent.exception.AgentErrorCode;
+import com.brgroup.cybotstar.agent.exception.AgentException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JSON 编解码器测试
+ * 所有实现对格式错误的帧抛出相同的异常
+ *
+ * @author zhiyuan.xi
+ */
+class JsonCodecTest {
+
+    private static final List<String> MALFORMED = List.of(
+            "",
+            "null",
+            "{\"code\":\"000000\",",
+            "{\"code\":\"000000\",\"index\":1,\"data\":{\"answer\":\"未结束",
+            "not json");
+
+    @ParameterizedTest
+    @EnumSource(JsonCodecType.class)
+    void readsWellFormedFrame(JsonCodecType type) {
+        JsonCodec codec = JsonCodecs.of(type);
+        String text = "{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"index\":3,\"finish\":\"n\",\"data\":{\"answer\":\"你好\"}}";
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(codec.read(text).getIndex()).isEqualTo(3);
+        assertThat(codec.read(utf8, 0, utf8.length).getDialogId()).isEqualTo("d-1");
+    }
+
+    @Test
+    void onlyFastjson2SplicesHistoryFragments() {
+        assertThat(JsonCodecs.of(JsonCodecType.FASTJSON2).splicesFragments()).isTrue();
+        assertThat(JsonCodecs.of(JsonCodecType.JACKSON).splicesFragments()).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(JsonCodecType.class)
+    void rejectsMalformedTextWithInvalidResponse(JsonCodecType type) {
+        JsonCodec codec = JsonCodecs.of(type);
+
+        for (String text : MALFORMED) {
+            assertThatThrownBy(() -> codec.read(text))
+                    .as("%s read(String) of [%s]", codec.name(), text)
+                    .isInstanceOfSatisfying(AgentException.class,
+                            e -> assertThat(e.getCode()).isEqualTo(AgentErrorCode.INVALID_RESPONSE));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(JsonCodecType.class)
+    void rejectsMalformedBytesWithInvalidResponse(JsonCodecType type) {
+        JsonCodec codec = JsonCodecs.of(type);
+
+        for (String text : MALFORMED) {
+            // 帧位于数组中间，验证 offset/length 的处理
+            byte[] frame = text.getBytes(StandardCharsets.UTF_8);
+            byte[] utf8 = new byte[frame.length + 4];
+            System.arraycopy(frame, 0, utf8, 2, frame.length);
+
+            assertThatThrownBy(() -> codec.read(utf8, 2, frame.length))
+                    .as("%s read(byte[]) of [%s]", codec.name(), text)
+                    .isInstanceOfSatisfying(AgentException.class,
+                            e -> assertThat(e.getCode()).isEqualTo(AgentErrorCode.INVALID_RESPONSE));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 服务端熔断器测试
+ *
+ * @author zhiyuan.xi
+ */
+class EndpointCircuitBreakerTest {
+
+    private static final String ENDPOINT = "wss://a.example.com/ws";
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(ENDPOINT, 3, 60_000);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.OPEN);
+        assertThat(breaker.getOpenCount()).isEqualTo(1);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getRejectedCount()).isEqualTo(1);
+        assertThat(breaker.getRetryAfterMillis()).isPositive();
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(ENDPOINT, 2, 60_000);
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.CLOSED);
+        assertThat(breaker.getConsecutiveFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbe() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(ENDPOINT, 1, 0);
+        breaker.onFailure();
+
+        // 打开时长为 0，下一次申请即进入半开状态
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopens() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(ENDPOINT, 1, 0);
+        breaker.onFailure();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.OPEN);
+        assertThat(breaker.getOpenCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelledProbeReleasesPermission() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(ENDPOINT, 1, 0);
+        breaker.onFailure();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.onCancel();
+
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void zeroThresholdNeverOpens() {
+        EndpointCircuitBreaker breaker = new EndpointCircuitBreaker(ENDPOINT, 0, 60_000);
+
+        for (int i = 0; i < 100; i++) {
+            breaker.onFailure();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(EndpointCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+}
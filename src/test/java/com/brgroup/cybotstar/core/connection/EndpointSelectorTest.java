@@ -0,0 +1,97 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 服务端选择器测试
+ *
+ * @author zhiyuan.xi
+ */
+class EndpointSelectorTest {
+
+    private static final List<String> URLS = List.of("wss://a.example.com/ws", "wss://b.example.com/ws");
+
+    @Test
+    void prefersEndpointWithFewerOutstandingRequests() {
+        EndpointSelector selector = new EndpointSelector(URLS, LoadBalanceStrategy.LEAST_OUTSTANDING, 5, 60_000);
+        Endpoint a = selector.getEndpoints().get(0);
+        Endpoint b = selector.getEndpoints().get(1);
+        a.connectionOpened();
+        a.requestStarted();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(selector.select()).isSameAs(b);
+        }
+
+        a.requestCompleted();
+        b.connectionOpened();
+        b.requestStarted();
+        assertThat(selector.select()).isSameAs(a);
+    }
+
+    @Test
+    void rotatesBetweenEqualEndpoints() {
+        EndpointSelector selector = new EndpointSelector(URLS, LoadBalanceStrategy.LEAST_OUTSTANDING, 5, 60_000);
+
+        Endpoint first = selector.select();
+        Endpoint second = selector.select();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull().isNotSameAs(first);
+    }
+
+    @Test
+    void latencyWeightedPrefersFasterEndpoint() {
+        EndpointSelector selector = new EndpointSelector(URLS, LoadBalanceStrategy.LATENCY_WEIGHTED, 5, 60_000);
+        Endpoint a = selector.getEndpoints().get(0);
+        Endpoint b = selector.getEndpoints().get(1);
+        a.recordRtt(500);
+        b.recordRtt(10);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(selector.select()).isSameAs(b);
+        }
+    }
+
+    @Test
+    void skipsEjectedEndpoint() {
+        EndpointSelector selector = new EndpointSelector(URLS, LoadBalanceStrategy.LEAST_OUTSTANDING, 1, 60_000);
+        Endpoint a = selector.getEndpoints().get(0);
+        Endpoint b = selector.getEndpoints().get(1);
+
+        a.getCircuitBreaker().onFailure();
+
+        assertThat(selector.getEjectedCount()).isEqualTo(1);
+        assertThat(selector.isAvailable()).isTrue();
+        for (int i = 0; i < 4; i++) {
+            assertThat(selector.select()).isSameAs(b);
+        }
+    }
+
+    @Test
+    void returnsNullWhenAllEndpointsEjected() {
+        EndpointSelector selector = new EndpointSelector(URLS, LoadBalanceStrategy.LEAST_OUTSTANDING, 1, 60_000);
+        selector.getEndpoints().forEach(endpoint -> endpoint.getCircuitBreaker().onFailure());
+
+        assertThat(selector.select()).isNull();
+        assertThat(selector.isAvailable()).isFalse();
+        assertThat(selector.getRetryAfterMillis()).isPositive();
+    }
+
+    @Test
+    void singleEndpointHandsOutOneHalfOpenProbe() {
+        EndpointSelector selector = new EndpointSelector(List.of(URLS.get(0)), LoadBalanceStrategy.LEAST_OUTSTANDING, 1, 0);
+        Endpoint only = selector.getEndpoints().get(0);
+        only.getCircuitBreaker().onFailure();
+
+        assertThat(selector.select()).isSameAs(only);
+        assertThat(selector.select()).isNull();
+
+        only.getCircuitBreaker().onSuccess();
+        assertThat(selector.select()).isSameAs(only);
+    }
+}
@@ -0,0 +1,145 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.connection.transport.TransportListener;
+import com.brgroup.cybotstar.core.connection.transport.TransportMetrics;
+import com.brgroup.cybotstar.core.connection.transport.TransportSession;
+import com.brgroup.cybotstar.core.connection.transport.WebSocketTransport;
+import org.jspecify.annotations.NonNull;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 内存中的传输层（测试用）
+ * 每次建连立即成功，测试通过 {@link FakeSession} 推送入站帧、模拟断线并检查出站帧
+ *
+ * @author zhiyuan.xi
+ */
+final class FakeTransport implements WebSocketTransport {
+
+    private final List<FakeSession> sessions = new CopyOnWriteArrayList<>();
+
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    @Override
+    @NonNull
+    public Mono<TransportSession> connect(@NonNull URI uri, @NonNull TransportListener listener) {
+        return Mono.fromSupplier(() -> {
+            FakeSession session = new FakeSession(listener);
+            sessions.add(session);
+            return session;
+        });
+    }
+
+    @Override
+    @NonNull
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 等待第 count 条底层连接建立并返回
+     */
+    FakeSession awaitSession(int count) {
+        await(() -> sessions.size() >= count, "connection #" + count);
+        return sessions.get(count - 1);
+    }
+
+    int getConnectCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 轮询等待条件成立
+     */
+    static void await(BooleanSupplier condition, String description) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for " + description);
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted waiting for " + description, e);
+            }
+        }
+    }
+
+    /**
+     * 内存中的底层连接
+     */
+    static final class FakeSession implements TransportSession {
+
+        private final TransportListener listener;
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        private volatile boolean open = true;
+
+        FakeSession(TransportListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void send(@NonNull String text) {
+            sent.add(text);
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        /**
+         * 获取已写出的帧
+         */
+        List<String> getSent() {
+            return sent;
+        }
+
+        /**
+         * 推送文本帧
+         */
+        void push(String frame) {
+            listener.onText(frame);
+        }
+
+        /**
+         * 推送 UTF-8 字节帧（堆外缓冲区，与 Reactor Netty 一致）
+         */
+        void pushBytes(String frame) {
+            byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            listener.onBytes(buffer);
+        }
+
+        /**
+         * 模拟连接异常
+         */
+        void fail(Throwable error) {
+            listener.onError(error);
+        }
+
+        /**
+         * 模拟连接异常断开
+         */
+        void drop() {
+            open = false;
+            listener.onClose(1006, "", true);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 入站帧缓冲区池测试
+ *
+ * @author zhiyuan.xi
+ */
+class FrameBufferPoolTest {
+
+    @Test
+    void reusesReleasedBuffer() {
+        FrameBufferPool pool = new FrameBufferPool(64, 2);
+
+        byte[] first = pool.acquire(10);
+        pool.release(first);
+
+        assertThat(pool.getPooled()).isEqualTo(1);
+        assertThat(pool.acquire(64)).isSameAs(first);
+        assertThat(pool.getPooled()).isZero();
+    }
+
+    @Test
+    void oversizedFrameUsesTemporaryArray() {
+        FrameBufferPool pool = new FrameBufferPool(64, 2);
+
+        byte[] large = pool.acquire(65);
+        pool.release(large);
+
+        assertThat(large).hasSize(65);
+        assertThat(pool.getPooled()).isZero();
+    }
+
+    @Test
+    void retainsAtMostCapacityBuffers() {
+        FrameBufferPool pool = new FrameBufferPool(64, 2);
+        byte[] a = pool.acquire(1);
+        byte[] b = pool.acquire(1);
+        byte[] c = pool.acquire(1);
+
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+
+        assertThat(pool.getPooled()).isEqualTo(2);
+    }
+}
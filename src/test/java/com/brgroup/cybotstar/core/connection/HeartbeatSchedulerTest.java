@@ -0,0 +1,52 @@
+package com.brgroup.cybotstar.core.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 心跳调度器测试
+ *
+ * @author zhiyuan.xi
+ */
+class HeartbeatSchedulerTest {
+
+    @Test
+    void concurrentCancelDecrementsTaskCountOnce() throws InterruptedException {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler(100, 8);
+        List<HeartbeatScheduler.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(scheduler.schedule(() -> { }, 60_000));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < 4; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    tasks.forEach(HeartbeatScheduler.Task::cancel);
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(scheduler.getTaskCount()).isZero();
+        assertThat(tasks).allMatch(HeartbeatScheduler.Task::isCancelled);
+    }
+}
@@ -0,0 +1,75 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在途请求去重测试
+ *
+ * @author zhiyuan.xi
+ */
+class InFlightRequestTest {
+
+    private final InFlightRequest request = new InFlightRequest("session-1", new WSPayload());
+
+    @Test
+    void acceptsEveryFrameBeforeResume() {
+        assertThat(request.accept(special(-8))).isTrue();
+        assertThat(request.accept(chunk(1, false))).isTrue();
+        assertThat(request.accept(chunk(2, false))).isTrue();
+        assertThat(request.accept(chunk(3, true))).isTrue();
+    }
+
+    @Test
+    void dropsReplayedChunksAfterResume() {
+        request.accept(chunk(1, false));
+        request.accept(chunk(2, false));
+
+        request.resumed();
+
+        assertThat(request.getResumes()).isEqualTo(1);
+        assertThat(request.accept(chunk(1, false))).isFalse();
+        assertThat(request.accept(chunk(2, false))).isFalse();
+        assertThat(request.accept(chunk(3, false))).isTrue();
+        assertThat(request.accept(chunk(4, true))).isTrue();
+    }
+
+    @Test
+    void dropsReplayedSpecialFramesUntilNewChunk() {
+        request.accept(special(-8));
+        request.accept(chunk(1, false));
+
+        request.resumed();
+
+        // 重发后服务端再次推送思考过程，在新片段到达前丢弃
+        assertThat(request.accept(special(-8))).isFalse();
+        assertThat(request.accept(chunk(1, false))).isFalse();
+        assertThat(request.accept(chunk(2, false))).isTrue();
+        assertThat(request.accept(special(-3))).isTrue();
+    }
+
+    @Test
+    void keepsSpecialFramesWhenResumedBeforeAnyChunk() {
+        request.accept(special(-8));
+
+        request.resumed();
+
+        assertThat(request.accept(special(-8))).isTrue();
+        assertThat(request.accept(chunk(1, false))).isTrue();
+    }
+
+    private static InboundFrame chunk(int index, boolean finished) {
+        return FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"index\":" + index + ",\"finish\":\"" + (finished ? "y" : "n") + "\","
+                + "\"data\":{\"answer\":\"片段" + index + "\"}}");
+    }
+
+    private static InboundFrame special(int index) {
+        return FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"index\":" + index + ",\"data\":\"思考过程\"}");
+    }
+}
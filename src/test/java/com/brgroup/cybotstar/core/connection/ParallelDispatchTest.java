@@ -0,0 +1,156 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import com.brgroup.cybotstar.core.connection.FakeTransport.FakeSession;
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 入站帧并行分发测试（{@link DispatchMode#PARALLEL}）
+ *
+ * @author zhiyuan.xi
+ */
+class ParallelDispatchTest {
+
+    private static final int FRAMES = 2000;
+
+    private final FakeTransport transport = new FakeTransport();
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    private WebSocketConnection connection;
+
+    @BeforeEach
+    void setUp() {
+        connection = newConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connection.close();
+    }
+
+    @Test
+    void preservesFrameOrderWithinConnection() throws InterruptedException {
+        List<Integer> indexes = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        connection.frames().subscribe(frame -> {
+            indexes.add(frame.getIndex());
+            threads.add(Thread.currentThread().getName());
+            if (frame.isFinished()) {
+                finished.countDown();
+            }
+        });
+
+        // 文本帧与字节帧交替推送，字节帧经缓冲区池复制
+        FakeSession session = transport.awaitSession(1);
+        for (int i = 1; i <= FRAMES; i++) {
+            if (i % 2 == 0) {
+                session.pushBytes(chunk(i, i == FRAMES));
+            } else {
+                session.push(chunk(i, i == FRAMES));
+            }
+        }
+
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(indexes).containsExactlyElementsOf(IntStream.rangeClosed(1, FRAMES).boxed().toList());
+        assertThat(threads).allMatch(name -> name.startsWith("cybotstar-dispatch"));
+        FakeTransport.await(() -> connection.getDispatchQueueDepth() == 0, "drained dispatch queue");
+    }
+
+    @Test
+    void keepsConnectionsIndependent() throws InterruptedException {
+        WebSocketConnection other = newConnection();
+        try {
+            List<Integer> first = new CopyOnWriteArrayList<>();
+            List<Integer> second = new CopyOnWriteArrayList<>();
+            CountDownLatch finished = new CountDownLatch(2);
+            connection.frames().subscribe(frame -> {
+                first.add(frame.getIndex());
+                if (frame.isFinished()) {
+                    finished.countDown();
+                }
+            });
+            other.frames().subscribe(frame -> {
+                second.add(frame.getIndex());
+                if (frame.isFinished()) {
+                    finished.countDown();
+                }
+            });
+
+            FakeSession a = transport.awaitSession(1);
+            FakeSession b = transport.awaitSession(2);
+            for (int i = 1; i <= FRAMES; i++) {
+                a.pushBytes(chunk(i, i == FRAMES));
+                b.pushBytes(chunk(i, i == FRAMES));
+            }
+
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Integer> expected = IntStream.rangeClosed(1, FRAMES).boxed().toList();
+            assertThat(first).containsExactlyElementsOf(expected);
+            assertThat(second).containsExactlyElementsOf(expected);
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    void deliversErrorAfterQueuedFrames() throws InterruptedException {
+        List<Integer> indexes = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicReference<Integer> receivedBeforeError = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        connection.frames().subscribe(
+                frame -> indexes.add(frame.getIndex()),
+                error -> {
+                    receivedBeforeError.set(indexes.size());
+                    failure.set(error);
+                    failed.countDown();
+                });
+
+        FakeSession session = transport.awaitSession(1);
+        for (int i = 1; i <= 100; i++) {
+            session.pushBytes(chunk(i, false));
+        }
+        session.fail(new IOException("connection reset"));
+
+        assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failure.get()).hasMessage("connection reset");
+        assertThat(receivedBeforeError.get()).isEqualTo(100);
+    }
+
+    private WebSocketConnection newConnection() {
+        AgentConfig config = AgentConfig.builder()
+                .websocket(WebSocketProperties.builder()
+                        .url("ws://agent.example.com/ws")
+                        .heartbeatInterval(0L)
+                        .autoReconnect(false)
+                        .dispatchMode(DispatchMode.PARALLEL)
+                        .build())
+                .build();
+        WebSocketConnection created = new WebSocketConnection(new ConnectionContext(config, transport, metrics), false);
+        created.connect().block(Duration.ofSeconds(5));
+        return created;
+    }
+
+    private static String chunk(int index, boolean finished) {
+        return "{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"index\":" + index + ",\"finish\":\"" + (finished ? "y" : "n") + "\","
+                + "\"data\":{\"answer\":\"片段" + index + "\"}}";
+    }
+}
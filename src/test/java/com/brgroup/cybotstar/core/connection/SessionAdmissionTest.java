@@ -0,0 +1,49 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 会话准入控制测试
+ *
+ * @author zhiyuan.xi
+ */
+class SessionAdmissionTest {
+
+    private final SessionAdmission admission = new SessionAdmission(1, 4, new MetricsCollector(), () -> { });
+
+    @Test
+    void grantsWaitersInArrivalOrder() {
+        admission.acquire(Duration.ofSeconds(5)).block();
+        CompletableFuture<Void> first = admission.acquire(Duration.ofSeconds(5)).toFuture();
+        CompletableFuture<Void> second = admission.acquire(Duration.ofSeconds(5)).toFuture();
+
+        assertThat(admission.getWaiting()).isEqualTo(2);
+        admission.release();
+
+        assertThat(first).isCompleted();
+        assertThat(second).isNotDone();
+        assertThat(admission.getUsed()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledFutureLeavesQueue() {
+        admission.acquire(Duration.ofSeconds(5)).block();
+        CompletableFuture<Void> abandoned = admission.acquire(Duration.ofSeconds(5)).toFuture();
+        CompletableFuture<Void> next = admission.acquire(Duration.ofSeconds(5)).toFuture();
+
+        // 调用方放弃后不再占用队列位置，释放的名额交给下一个等待者
+        abandoned.cancel(false);
+        assertThat(admission.getWaiting()).isEqualTo(1);
+
+        admission.release();
+        assertThat(next).isCompleted();
+        assertThat(admission.getUsed()).isEqualTo(1);
+        assertThat(admission.getWaiting()).isZero();
+    }
+}
@@ -0,0 +1,150 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.core.codec.FrameDecoder;
+import com.brgroup.cybotstar.core.codec.InboundFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 会话多路分发器测试
+ *
+ * @author zhiyuan.xi
+ */
+class SessionDemultiplexerTest {
+
+    private final SessionDemultiplexer demultiplexer = new SessionDemultiplexer();
+
+    @Test
+    void routesBySegmentCode() {
+        List<String> a = subscribe("session-a");
+        List<String> b = subscribe("session-b");
+
+        demultiplexer.route(chunk(null, "session-b", 1, "B1"));
+        demultiplexer.route(chunk(null, "session-a", 1, "A1"));
+
+        assertThat(a).containsExactly("A1");
+        assertThat(b).containsExactly("B1");
+    }
+
+    @Test
+    void bindsDialogIdsInConfirmationOrder() {
+        List<String> a = subscribe("session-a");
+        List<String> b = subscribe("session-b");
+        demultiplexer.onSend("session-a");
+        demultiplexer.onSend("session-b");
+
+        demultiplexer.route(confirmation("d-a"));
+        demultiplexer.route(confirmation("d-b"));
+        demultiplexer.route(chunk("d-b", null, 1, "B1"));
+        demultiplexer.route(chunk("d-a", null, 1, "A1"));
+        demultiplexer.route(chunk("d-a", null, 2, "A2"));
+
+        assertThat(a).containsExactly("confirmed", "A1", "A2");
+        assertThat(b).containsExactly("confirmed", "B1");
+    }
+
+    @Test
+    void dropsUnboundFrameWhileSeveralSessionsAwaitConfirmation() {
+        List<String> a = subscribe("session-a");
+        List<String> b = subscribe("session-b");
+        demultiplexer.onSend("session-a");
+        demultiplexer.onSend("session-b");
+
+        // 线程信息帧没有 segment_code 与 dialog_id，无法判断属于哪个会话
+        demultiplexer.route(threadInfo());
+        demultiplexer.route(chunk("d-unknown", null, 1, "?"));
+
+        assertThat(a).isEmpty();
+        assertThat(b).isEmpty();
+        assertThat(demultiplexer.getUnroutedFrames()).isEqualTo(2);
+    }
+
+    @Test
+    void routesUnboundFrameToSolePendingSession() {
+        List<String> a = subscribe("session-a");
+        List<String> b = subscribe("session-b");
+        demultiplexer.onSend("session-b");
+
+        demultiplexer.route(threadInfo());
+
+        assertThat(a).isEmpty();
+        assertThat(b).containsExactly("thread");
+        assertThat(demultiplexer.getUnroutedFrames()).isZero();
+    }
+
+    @Test
+    void unbindsDialogOnDetach() {
+        List<String> a = subscribe("session-a");
+        List<String> b = subscribe("session-b");
+        List<String> c = subscribe("session-c");
+        demultiplexer.onSend("session-a");
+        demultiplexer.route(confirmation("d-a"));
+
+        demultiplexer.detach("session-a");
+        demultiplexer.route(chunk("d-a", null, 1, "A1"));
+
+        assertThat(a).containsExactly("confirmed");
+        assertThat(b).isEmpty();
+        assertThat(c).isEmpty();
+        assertThat(demultiplexer.isAttached("session-a")).isFalse();
+        assertThat(demultiplexer.getUnroutedFrames()).isEqualTo(1);
+    }
+
+    @Test
+    void replacesSessionStreamsAfterError() {
+        List<Throwable> errors = new ArrayList<>();
+        demultiplexer.attach("session-a");
+        demultiplexer.frames("session-a").subscribe(frame -> { }, errors::add);
+        demultiplexer.onSend("session-a");
+
+        demultiplexer.error(new IllegalStateException("connection lost"));
+
+        // 已结束的消息流被移除，再次获取时得到新的流
+        assertThat(errors).hasSize(1);
+        assertThat(demultiplexer.isAttached("session-a")).isFalse();
+        assertThat(demultiplexer.getSessionCount()).isZero();
+        List<String> a = subscribe("session-a");
+        demultiplexer.route(chunk(null, "session-a", 1, "A1"));
+        assertThat(a).containsExactly("A1");
+    }
+
+    private List<String> subscribe(String sessionId) {
+        List<String> received = new ArrayList<>();
+        demultiplexer.attach(sessionId);
+        demultiplexer.frames(sessionId).subscribe(frame -> received.add(describe(frame)));
+        return received;
+    }
+
+    private static String describe(InboundFrame frame) {
+        Integer index = frame.getIndex();
+        if (index != null && index == -1) {
+            return "confirmed";
+        }
+        if (index != null && index == -2) {
+            return "thread";
+        }
+        return frame.getText();
+    }
+
+    private static InboundFrame chunk(String dialogId, String segmentCode, int index, String text) {
+        return FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\","
+                + (dialogId != null ? "\"dialog_id\":\"" + dialogId + "\"," : "")
+                + (segmentCode != null ? "\"segment_code\":\"" + segmentCode + "\"," : "")
+                + "\"type\":\"string\",\"index\":" + index + ",\"finish\":\"n\","
+                + "\"data\":{\"answer\":\"" + text + "\"}}");
+    }
+
+    private static InboundFrame confirmation(String dialogId) {
+        return FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"type\":\"string\",\"index\":-1,"
+                + "\"data\":{\"dialog_id\":\"" + dialogId + "\"}}");
+    }
+
+    private static InboundFrame threadInfo() {
+        return FrameDecoder.read("{\"code\":\"000000\",\"message\":\"success\",\"type\":\"string\",\"index\":-2,"
+                + "\"data\":{\"thread_id\":\"thread-1\"}}");
+    }
+}
@@ -0,0 +1,61 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import com.brgroup.cybotstar.core.connection.FakeTransport.FakeSession;
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 入站帧解码快速路径测试
+ *
+ * @author zhiyuan.xi
+ */
+class WebSocketConnectionDecodeTest {
+
+    private final FakeTransport transport = new FakeTransport();
+
+    private WebSocketConnection connection;
+
+    @BeforeEach
+    void setUp() {
+        AgentConfig config = AgentConfig.builder()
+                .websocket(WebSocketProperties.builder()
+                        .url("ws://agent.example.com/ws")
+                        .heartbeatInterval(0L)
+                        .autoReconnect(false)
+                        .build())
+                .build();
+        connection = new WebSocketConnection(new ConnectionContext(config, transport, new MetricsCollector()), false);
+        connection.connect().block(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connection.close();
+    }
+
+    @Test
+    void chunksWithExtraFieldsTakeFastPath() {
+        List<String> texts = new CopyOnWriteArrayList<>();
+        connection.frames().subscribe(frame -> texts.add(frame.getText()));
+
+        FakeSession session = transport.awaitSession(1);
+        session.push("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"index\":1,\"finish\":\"n\",\"timestamp\":1760659200000,\"data\":{\"answer\":\"稳健型\"}}");
+        session.pushBytes("{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-1\",\"type\":\"string\","
+                + "\"trace_id\":\"t-1\",\"index\":2,\"finish\":\"n\",\"data\":{\"answer\":\"基金\",\"seq\":2}}");
+
+        FakeTransport.await(() -> texts.size() == 2, "two frames");
+        assertThat(texts).containsExactly("稳健型", "基金");
+        assertThat(connection.getFastPathFrames()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,153 @@
+package com.brgroup.cybotstar.core.connection;
+
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler.MessageEvent;
+import com.brgroup.cybotstar.agent.handler.ReactiveMessageHandler.MessageEventType;
+import com.brgroup.cybotstar.agent.session.SessionContext;
+import com.brgroup.cybotstar.core.config.WebSocketProperties;
+import com.brgroup.cybotstar.core.connection.FakeTransport.FakeSession;
+import com.brgroup.cybotstar.core.metrics.MetricsCollector;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import com.brgroup.cybotstar.core.util.CybotStarConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 断线重连与在途请求续传测试
+ *
+ * @author zhiyuan.xi
+ */
+class WebSocketConnectionResumeTest {
+
+    private static final String SESSION_ID = "session-resume";
+
+    private final FakeTransport transport = new FakeTransport();
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    private WebSocketConnection connection;
+
+    @BeforeEach
+    void setUp() {
+        AgentConfig config = AgentConfig.builder()
+                .websocket(WebSocketProperties.builder()
+                        .url("ws://agent.example.com/ws")
+                        .retryInterval(5L)
+                        .heartbeatInterval(0L)
+                        .build())
+                .build();
+        connection = new WebSocketConnection(new ConnectionContext(config, transport, metrics), false);
+        connection.connect().block(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connection.close();
+    }
+
+    @Test
+    void resumesInterruptedStreamWithoutDuplicates() throws InterruptedException {
+        assertResumesAfter(FakeSession::drop);
+    }
+
+    @Test
+    void resumesAfterTransportError() throws InterruptedException {
+        // Reactor Netty 异常断线时先报告错误再报告关闭，错误不应结束消息流
+        assertResumesAfter(session -> {
+            session.fail(new IOException("Connection reset by peer"));
+            session.drop();
+        });
+    }
+
+    private void assertResumesAfter(Consumer<FakeSession> disconnect) throws InterruptedException {
+        SessionContext session = new SessionContext(SESSION_ID, connection);
+        WSPayload payload = new WSPayload();
+        payload.setQuestion("稳健型基金有什么特点？");
+        payload.setSegmentCode(SESSION_ID);
+        InFlightRequest request = connection.register(SESSION_ID, payload);
+
+        List<MessageEvent> events = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        session.eventStream(request)
+                .takeUntil(event -> event.getType() == MessageEventType.COMPLETE)
+                .subscribe(events::add, failure::set, completed::countDown);
+        connection.send(payload).block(Duration.ofSeconds(5));
+
+        FakeSession first = transport.awaitSession(1);
+        first.push(chunk(1, "稳健型基金"));
+        first.push(chunk(2, "以债券为主，"));
+        disconnect.accept(first);
+
+        // 重连后请求被重新发送，服务端从头推送
+        FakeSession second = transport.awaitSession(2);
+        FakeTransport.await(() -> !second.getSent().isEmpty(), "resumed request");
+        second.push(chunk(1, "稳健型基金"));
+        second.push(chunk(2, "以债券为主，"));
+        second.push(chunk(3, "波动较小。"));
+        second.push(finish(4));
+
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failure.get()).isNull();
+        assertThat(events).extracting(MessageEvent::getType).containsExactly(
+                MessageEventType.CHUNK, MessageEventType.CHUNK, MessageEventType.CHUNK, MessageEventType.COMPLETE);
+        assertThat(events.subList(0, 3)).extracting(MessageEvent::getContent)
+                .containsExactly("稳健型基金", "以债券为主，", "波动较小。");
+
+        assertThat(second.getSent()).containsExactlyElementsOf(first.getSent());
+        assertThat(request.getResumes()).isEqualTo(1);
+        assertThat(connection.isConnected()).isTrue();
+        assertThat(metrics.getSuccessfulReconnects().get()).isEqualTo(1);
+        assertThat(metrics.getResumedRequests().get()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotResumeUnregisteredRequest() {
+        WSPayload payload = new WSPayload();
+        payload.setQuestion("你好");
+        InFlightRequest request = connection.register(SESSION_ID, payload);
+        connection.unregister(request);
+
+        transport.awaitSession(1).drop();
+
+        FakeTransport.await(() -> metrics.getSuccessfulReconnects().get() == 1, "reconnect");
+        assertThat(transport.awaitSession(2).getSent()).isEmpty();
+        assertThat(request.getResumes()).isZero();
+    }
+
+    @Test
+    void resetsBackoffAfterEachSuccessfulReconnect() {
+        // 超过最大重连次数的连续断线，每次重连成功后计数归零，不会放弃重连
+        int drops = CybotStarConstants.MAX_RECONNECT_ATTEMPTS + 2;
+        for (int i = 1; i <= drops; i++) {
+            long reconnects = i;
+            transport.awaitSession(i).drop();
+            FakeTransport.await(() -> metrics.getSuccessfulReconnects().get() == reconnects, "reconnect #" + i);
+        }
+
+        assertThat(connection.isConnected()).isTrue();
+        assertThat(transport.getConnectCount()).isEqualTo(drops + 1);
+    }
+
+    private static String chunk(int index, String text) {
+        return "{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-resume\",\"type\":\"string\","
+                + "\"index\":" + index + ",\"finish\":\"n\",\"data\":{\"answer\":\"" + text + "\"}}";
+    }
+
+    private static String finish(int index) {
+        return "{\"code\":\"000000\",\"message\":\"success\",\"dialog_id\":\"d-resume\",\"type\":\"string\","
+                + "\"index\":" + index + ",\"finish\":\"y\",\"data\":{\"answer\":\"\"}}";
+    }
+}
@@ -0,0 +1,22 @@
+package com.brgroup.cybotstar.core.model.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 特殊索引测试
+ *
+ * @author zhiyuan.xi
+ */
+class ResponseIndexTest {
+
+    @Test
+    void resolvesSpecialIndexes() {
+        assertThat(ResponseIndex.of(-1)).isEqualTo(ResponseIndex.MESSAGE_CONFIRMED);
+        assertThat(ResponseIndex.of(-8)).isEqualTo(ResponseIndex.REASONING);
+        assertThat(ResponseIndex.of(-5)).isNull();
+        assertThat(ResponseIndex.of(-9)).isNull();
+        assertThat(ResponseIndex.of(3)).isNull();
+    }
+}
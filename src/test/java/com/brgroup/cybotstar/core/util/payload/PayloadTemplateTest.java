@@ -0,0 +1,106 @@
+package com.brgroup.cybotstar.core.util.payload;
+
+import com.alibaba.fastjson2.JSON;
+import com.brgroup.cybotstar.agent.config.AgentConfig;
+import com.brgroup.cybotstar.agent.model.ModelOptions;
+import com.brgroup.cybotstar.agent.model.request.ExtendedSendOptions;
+import com.brgroup.cybotstar.agent.model.request.MessageParam;
+import com.brgroup.cybotstar.agent.model.request.MessageParamList;
+import com.brgroup.cybotstar.core.config.CredentialProperties;
+import com.brgroup.cybotstar.core.model.ws.WSPayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 请求载荷模板测试
+ * 模板编码结果必须与完整序列化（JSON.toJSONString）一致
+ *
+ * @author zhiyuan.xi
+ */
+class PayloadTemplateTest {
+
+    private final AgentConfig config = AgentConfig.builder()
+            .credentials(CredentialProperties.builder()
+                    .robotKey("robot-key")
+                    .robotToken("robot-token")
+                    .username("user-1")
+                    .build())
+            .build();
+
+    private final PayloadTemplate template = PayloadBuilder.buildTemplate(config);
+
+    @Test
+    void encodesQuestionOnly() {
+        assertEncodedLikeReflection(PayloadBuilder.buildPayload(config, "你好", null, null));
+    }
+
+    @Test
+    void escapesSpecialCharacters() {
+        assertEncodedLikeReflection(PayloadBuilder.buildPayload(config,
+                "引号\" 反斜杠\\ 换行\n 制表\t </script> \u0001", "session-1", null));
+    }
+
+    @Test
+    void encodesAllRequestFields() {
+        WSPayload payload = PayloadBuilder.buildPayload(config, "请总结", "session-1", ExtendedSendOptions.builder()
+                .extraHeader("{\"trace\":\"t-1\"}")
+                .extraBody("{\"channel\":\"app\"}")
+                .messageParams(List.of(
+                        MessageParam.system("你是理财顾问"),
+                        MessageParam.user("稳健型基金有什么特点？"),
+                        MessageParam.assistant("以债券为主，波动较小。")))
+                .modelOptions(ModelOptions.builder().temperature(0.7).maxTokens(512).build())
+                .build());
+
+        assertEncodedLikeReflection(payload);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void encodesDeprecatedFields() {
+        WSPayload payload = PayloadBuilder.buildPayload(config, "你好", "session-1", ExtendedSendOptions.builder()
+                .tipMessageParams(Map.of("name", "小明"))
+                .build());
+
+        assertEncodedLikeReflection(payload);
+    }
+
+    @Test
+    void splicesCachedHistoryFragments() {
+        List<MessageParam> history = new ArrayList<>();
+        List<String> fragments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            MessageParam message = i % 2 == 0 ? MessageParam.user("问题 " + i) : MessageParam.assistant("回答 " + i);
+            history.add(message);
+            fragments.add(JSON.toJSONString(message));
+        }
+        MessageParamList cached = new MessageParamList(history, fragments)
+                .append(List.of(MessageParam.user("新问题")));
+
+        WSPayload payload = PayloadBuilder.buildPayload(config, "新问题", "session-1",
+                ExtendedSendOptions.builder().messageParams(cached).build());
+
+        assertEncodedLikeReflection(payload);
+    }
+
+    @Test
+    void fallsBackWhenFixedFieldsDiffer() {
+        WSPayload payload = PayloadBuilder.buildPayload(config, "你好", "session-1", null);
+        payload.setUsername("other-user");
+
+        assertThat(template.matches(payload)).isFalse();
+        assertThat(template.encode(payload)).isEqualTo(JSON.toJSONString(payload));
+    }
+
+    private void assertEncodedLikeReflection(WSPayload payload) {
+        assertThat(template.matches(payload)).isTrue();
+        String encoded = template.encode(payload);
+        assertThat(JSON.isValid(encoded)).isTrue();
+        assertThat(JSON.parseObject(encoded)).isEqualTo(JSON.parseObject(JSON.toJSONString(payload)));
+    }
+}